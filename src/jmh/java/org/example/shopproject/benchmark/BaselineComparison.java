@@ -0,0 +1,126 @@
+package org.example.shopproject.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Compares a JMH JSON result file with a saved baseline and exits with status 1 when a benchmark got slower
+ * (or allocates more per operation) by more than the tolerance. Benchmarks missing from either file are skipped,
+ * so a run restricted with {@code -Djmh.include} is compared only on what it measured.
+ * <p>
+ * Usage: {@code BaselineComparison <results.json> <baseline.json> <tolerance, e.g. 0.10> <update baseline: true|false>}.
+ * A missing baseline is created from the results.
+ */
+public final class BaselineComparison {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    // Differences of a few bytes per operation are noise from the profiler, not regressions
+    private static final double MIN_ALLOCATION_DELTA_BYTES = 16;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path results = Paths.get(args[0]);
+        Path baseline = Paths.get(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+        boolean update = Boolean.parseBoolean(args[3]);
+
+        if (!Files.exists(baseline)) {
+            saveBaseline(results, baseline);
+            System.out.printf("No baseline yet, saved %s as %s%n", results, baseline);
+            return;
+        }
+        List<String> regressions = compare(read(baseline), read(results), tolerance, System.out::println);
+        if (update) {
+            saveBaseline(results, baseline);
+            System.out.printf("Baseline %s updated%n", baseline);
+            return;
+        }
+        if (!regressions.isEmpty()) {
+            System.out.printf("%d regression(s) beyond %.0f%%:%n", regressions.size(), tolerance * 100);
+            regressions.forEach(System.out::println);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns one line per regression; every compared benchmark is also written to the report.
+     */
+    static List<String> compare(Map<String, Score> baseline, Map<String, Score> current, double tolerance,
+                                Consumer<String> report) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                report.accept(String.format("%s: new, %.3f %s", entry.getKey(), entry.getValue().score(),
+                        entry.getValue().unit()));
+                continue;
+            }
+            Score after = entry.getValue();
+            boolean higherIsBetter = after.mode().equals("thrpt");
+            double change = (after.score() - before.score()) / before.score();
+            boolean slower = higherIsBetter ? change < -tolerance : change > tolerance;
+            String line = String.format("%s: %.3f -> %.3f %s (%+.1f%%)", entry.getKey(), before.score(),
+                    after.score(), after.unit(), change * 100);
+            if (slower) {
+                regressions.add(line);
+            }
+            if (before.allocation() != null && after.allocation() != null) {
+                double delta = after.allocation() - before.allocation();
+                String allocationLine = String.format("%s: %.0f -> %.0f B/op allocated", entry.getKey(),
+                        before.allocation(), after.allocation());
+                if (delta > MIN_ALLOCATION_DELTA_BYTES && delta > before.allocation() * tolerance) {
+                    regressions.add(allocationLine);
+                }
+                line += String.format(", %.0f -> %.0f B/op", before.allocation(), after.allocation());
+            }
+            report.accept(line);
+        }
+        return regressions;
+    }
+
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : MAPPER.readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            JsonNode paramsNode = run.get("params");
+            if (paramsNode != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = paramsNode.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    params.put(field.getKey(), field.getValue().asText());
+                }
+            }
+            JsonNode primary = run.get("primaryMetric");
+            JsonNode allocation = run.path("secondaryMetrics").get(ALLOCATION_METRIC);
+            String key = params.isEmpty() ? run.get("benchmark").asText() : run.get("benchmark").asText() + params;
+            scores.put(key, new Score(run.get("mode").asText(), primary.get("score").asDouble(),
+                    primary.get("scoreUnit").asText(), allocation == null ? null : allocation.get("score").asDouble()));
+        }
+        return scores;
+    }
+
+    private static void saveBaseline(Path results, Path baseline) throws IOException {
+        if (baseline.getParent() != null) {
+            Files.createDirectories(baseline.getParent());
+        }
+        Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    record Score(String mode, double score, String unit, Double allocation) {
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.shopproject.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.ShopProjectApplication;
+import org.example.shopproject.model.entity.BaseEntity;
+import org.example.shopproject.service.CheckoutService;
+import org.example.shopproject.service.ClientService;
+import org.example.shopproject.service.ProductService;
+import org.example.shopproject.service.ShopService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The application context on the "h2" profile: real services, repositories and transactions on an in-memory H2.
+ */
+public class EmbeddedDatabaseBackend implements ServiceBackend {
+    private final ConfigurableApplicationContext context;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public EmbeddedDatabaseBackend() {
+        this(new String[0]);
+    }
+
+    /**
+     * @param properties extra "key=value" properties, e.g. to change the Hibernate batching settings
+     */
+    public EmbeddedDatabaseBackend(String... properties) {
+        this.context = new SpringApplicationBuilder(ShopProjectApplication.class)
+                .profiles("h2")
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+        this.transactionTemplate = this.context.getBean(TransactionTemplate.class);
+        this.entityManager = this.context.getBean(EntityManager.class);
+    }
+
+    @Override
+    public ShopService shopService() {
+        return this.context.getBean(ShopService.class);
+    }
+
+    @Override
+    public CheckoutService checkoutService() {
+        return this.context.getBean(CheckoutService.class);
+    }
+
+    @Override
+    public ClientService clientService() {
+        return this.context.getBean(ClientService.class);
+    }
+
+    @Override
+    public ProductService productService() {
+        return this.context.getBean(ProductService.class);
+    }
+
+    @Override
+    public void inTransaction(Runnable action) {
+        this.transactionTemplate.executeWithoutResult(status -> action.run());
+    }
+
+    @Override
+    public <T extends BaseEntity> T find(Class<T> type, long id) {
+        return this.entityManager.find(type, id);
+    }
+
+    @Override
+    public void persist(BaseEntity entity) {
+        this.entityManager.persist(entity);
+    }
+
+    @Override
+    public void close() {
+        this.context.close();
+    }
+}
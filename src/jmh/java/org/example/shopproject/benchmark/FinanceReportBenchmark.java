@@ -0,0 +1,109 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.ShopProjectApplication;
+import org.example.shopproject.model.enums.FinanceReportSource;
+import org.example.shopproject.repository.*;
+import org.example.shopproject.service.FinanceReportService;
+import org.example.shopproject.service.impl.FinanceReportServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the three CalculateMoney sources on an embedded H2 database holding one shop with
+ * {@link #products} products, 10 cashiers and 5 checkouts.
+ * Run {@link #main} to get the latency per report together with the allocation per report (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FinanceReportBenchmark {
+    private static final int CASHIERS = 10;
+    private static final int CHECKOUTS = 5;
+
+    @Param({"1000", "10000", "100000"})
+    private int products;
+
+    @Param({"LEDGER", "AGGREGATE", "ENTITIES"})
+    private FinanceReportSource source;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private FinanceReportService service;
+
+    @Setup
+    public void setUp() {
+        this.context = new SpringApplicationBuilder(ShopProjectApplication.class)
+                .profiles("h2")
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        seed(this.context.getBean(JdbcTemplate.class));
+        this.transactionTemplate = this.context.getBean(TransactionTemplate.class);
+        this.service = new FinanceReportServiceImpl(this.context.getBean(ShopLedgerRepository.class),
+                this.context.getBean(ShopRepository.class), this.context.getBean(ProductRepository.class),
+                this.context.getBean(CashierRepository.class), this.context.getBean(CheckoutRepository.class),
+                this.source);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public String calculateMoney() {
+        return this.transactionTemplate.execute(status -> this.service.calculateMoney());
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        double stockValue = 0;
+        List<Object[]> productRows = new ArrayList<>(this.products);
+        List<Object[]> joinRows = new ArrayList<>(this.products);
+        Date expireDate = Date.valueOf(LocalDate.now().plusYears(1));
+        for (long id = 1; id <= this.products; id++) {
+            double price = 1 + id % 50;
+            int quantity = 10 + (int) (id % 90);
+            stockValue += price * quantity;
+            productRows.add(new Object[]{id, "Product" + id, price, price * 1.2, "EDIBLE", expireDate, quantity, false, 1L});
+            joinRows.add(new Object[]{1L, id});
+        }
+
+        jdbcTemplate.update("INSERT INTO shops (id, name) VALUES (1, 'Benchmark')");
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, price, client_price, category, expire_date, quantity, " +
+                "is_expired, shop_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", productRows);
+        jdbcTemplate.batchUpdate("INSERT INTO shops_bought_products (shop_id, bought_products_id) VALUES (?, ?)", joinRows);
+        for (long id = 1; id <= CASHIERS; id++) {
+            jdbcTemplate.update("INSERT INTO cashiers (id, first_name, last_name, salary, shop_id) VALUES (?, ?, ?, ?, 1)",
+                    id, "Cashier" + id, "Benchmark", 1500.0);
+            jdbcTemplate.update("INSERT INTO shops_cashiers (shop_id, cashiers_id) VALUES (1, ?)", id);
+        }
+        for (long id = 1; id <= CHECKOUTS; id++) {
+            jdbcTemplate.update("INSERT INTO checkouts (id, earnings, shop_id) VALUES (?, ?, 1)", id, 250.0 * id);
+            jdbcTemplate.update("INSERT INTO shops_checkouts (shop_id, checkouts_id) VALUES (1, ?)", id);
+        }
+        jdbcTemplate.update("INSERT INTO shop_ledgers (id, shop_id, bought_stock, salaries, checkout_earnings) " +
+                "VALUES (1, 1, ?, ?, ?)", stockValue, 1500.0 * CASHIERS, 250.0 * CHECKOUTS * (CHECKOUTS + 1) / 2);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FinanceReportBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.SettlementMode;
+import org.example.shopproject.model.projection.IdRange;
+import org.example.shopproject.receipt.ReceiptWriter;
+import org.example.shopproject.repository.*;
+import org.example.shopproject.service.*;
+import org.example.shopproject.service.impl.*;
+import org.example.shopproject.util.ValidationUtil;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The real service implementations wired to {@link InMemoryStore} repository fakes, so a benchmark measures the
+ * services' own work without JDBC, Hibernate or transactions. The ledger, finance report, catalog and receipt writer
+ * are no-ops. Product queries are linear scans over the product table.
+ */
+public class InMemoryBackend implements ServiceBackend {
+    private final InMemoryStore store = new InMemoryStore();
+    private final ShopService shopService;
+    private final CheckoutService checkoutService;
+    private final ClientService clientService;
+    private final ProductService productService;
+    private final ForkJoinPool settlementPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public InMemoryBackend() {
+        this(SettlementMode.SEQUENTIAL);
+    }
+
+    public InMemoryBackend(SettlementMode settlementMode) {
+        ShopRepository shopRepository = this.store.repository(ShopRepository.class, Shop.class, Map.of());
+        ClientRepository clientRepository = this.store.repository(ClientRepository.class, Client.class, Map.of());
+        CheckoutRepository checkoutRepository = this.store.repository(CheckoutRepository.class, Checkout.class, Map.of());
+        CashierRepository cashierRepository = this.store.repository(CashierRepository.class, Cashier.class, Map.of());
+        ReceiptRepository receiptRepository = this.store.repository(ReceiptRepository.class, Receipt.class, Map.of());
+        ClientProductRepository clientProductRepository =
+                this.store.repository(ClientProductRepository.class, ClientProduct.class, Map.of());
+        ProductRepository productRepository = this.store.repository(ProductRepository.class, Product.class, Map.of(
+                "findIdRangeInShop", this::idRange,
+                "findAvailableInShopFrom", this::findAvailableFrom,
+                "reserveStock", args -> changeStock(args, -1),
+                "returnStock", args -> changeStock(args, 1)));
+
+        ValidationUtil validationUtil = InMemoryStore.noOp(ValidationUtil.class);
+        ShopLedgerService shopLedgerService = InMemoryStore.noOp(ShopLedgerService.class);
+        ProductCatalog productCatalog = InMemoryStore.noOp(ProductCatalog.class);
+        Random random = new Random(42);
+
+        this.shopService = new ShopServiceImpl(shopRepository, clientRepository, productRepository, checkoutRepository,
+                receiptRepository, validationUtil, InMemoryStore.noOp(ReceiptWriter.class), shopLedgerService,
+                InMemoryStore.noOp(FinanceReportService.class), productCatalog, settlementMode, this.settlementPool);
+        this.checkoutService = new CheckoutServiceImpl(checkoutRepository, validationUtil, cashierRepository,
+                shopRepository, clientRepository, random, clientRepository);
+        this.clientService = new ClientServiceImpl(random, clientRepository, validationUtil, shopRepository,
+                productRepository, clientProductRepository, shopLedgerService,
+                new StockReservationServiceImpl(productRepository));
+        this.productService = new ProductServiceImpl(productRepository, validationUtil, shopRepository,
+                shopLedgerService, productCatalog);
+    }
+
+    @Override
+    public ShopService shopService() {
+        return this.shopService;
+    }
+
+    @Override
+    public CheckoutService checkoutService() {
+        return this.checkoutService;
+    }
+
+    @Override
+    public ClientService clientService() {
+        return this.clientService;
+    }
+
+    @Override
+    public ProductService productService() {
+        return this.productService;
+    }
+
+    @Override
+    public void inTransaction(Runnable action) {
+        action.run();
+    }
+
+    @Override
+    public <T extends BaseEntity> T find(Class<T> type, long id) {
+        return this.store.find(type, id);
+    }
+
+    @Override
+    public void persist(BaseEntity entity) {
+        this.store.persist(entity);
+    }
+
+    @Override
+    public void close() {
+        this.settlementPool.shutdown();
+    }
+
+    private Object idRange(Object[] args) {
+        long shopId = (Long) args[0];
+        LongSummaryStatistics ids = this.store.all(Product.class).stream()
+                .filter(product -> product.getShop() != null && product.getShop().getId() == shopId)
+                .mapToLong(Product::getId)
+                .summaryStatistics();
+        return ids.getCount() == 0 ? new IdRange(null, null) : new IdRange(ids.getMin(), ids.getMax());
+    }
+
+    /**
+     * Arguments of findAvailableInShopFrom: shop id, first id, excluded names, page.
+     */
+    private Object findAvailableFrom(Object[] args) {
+        long shopId = (Long) args[0];
+        long fromId = (Long) args[1];
+        Collection<?> excludedNames = (Collection<?>) args[2];
+        return this.store.all(Product.class).stream()
+                .filter(product -> product.getShop() != null && product.getShop().getId() == shopId)
+                .filter(product -> product.getId() >= fromId)
+                .filter(product -> product.getQuantity() > 0 && !product.isExpired())
+                .filter(product -> !excludedNames.contains(product.getName()))
+                .min(Comparator.comparingLong(Product::getId))
+                .map(List::of)
+                .orElse(List.of());
+    }
+
+    private Object changeStock(Object[] args, int direction) {
+        Product product = this.store.find(Product.class, (Long) args[0]);
+        int amount = (Integer) args[1];
+        if (product == null || (direction < 0 && product.getQuantity() < amount)) {
+            return 0;
+        }
+        product.setQuantity(product.getQuantity() + direction * amount);
+        return 1;
+    }
+}
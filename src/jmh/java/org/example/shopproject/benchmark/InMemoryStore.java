@@ -0,0 +1,121 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.model.entity.BaseEntity;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Entity tables kept in maps, and repository fakes on top of them built with {@link Proxy}.
+ * <p>
+ * A fake implements the generic CRUD methods ({@code save}, {@code saveAll}, {@code findById}, {@code findFor...ById},
+ * {@code getReferenceById}, {@code findAll}, {@code count}, {@code deleteById}); query methods are supplied by name.
+ * Anything else throws, so a service starting to use a new repository method shows up immediately.
+ * Tables keep insertion order, which is id order, like {@code ORDER BY id}.
+ */
+final class InMemoryStore {
+    private final Map<Class<?>, Map<Long, BaseEntity>> tables = new HashMap<>();
+    private final Map<Class<?>, long[]> sequences = new HashMap<>();
+
+    void persist(BaseEntity entity) {
+        if (entity.getId() == 0) {
+            entity.setId(++this.sequences.computeIfAbsent(entity.getClass(), type -> new long[1])[0]);
+        }
+        table(entity.getClass()).put(entity.getId(), entity);
+    }
+
+    <T extends BaseEntity> T find(Class<T> type, long id) {
+        return type.cast(table(type).get(id));
+    }
+
+    <T extends BaseEntity> List<T> all(Class<T> type) {
+        List<T> entities = new ArrayList<>();
+        for (BaseEntity entity : table(type).values()) {
+            entities.add(type.cast(entity));
+        }
+        return entities;
+    }
+
+    <R> R repository(Class<R> repositoryType, Class<? extends BaseEntity> entityType,
+                     Map<String, Function<Object[], Object>> queries) {
+        Object fake = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    Function<Object[], Object> query = queries.get(name);
+                    if (query != null) {
+                        return query.apply(args);
+                    }
+                    if (name.startsWith("findFor") && name.endsWith("ById")) {
+                        return Optional.ofNullable(find(entityType, ((Number) args[0]).longValue()));
+                    }
+                    return switch (name) {
+                        case "save" -> {
+                            persist((BaseEntity) args[0]);
+                            yield args[0];
+                        }
+                        case "saveAll" -> {
+                            List<Object> saved = new ArrayList<>();
+                            for (Object entity : (Iterable<?>) args[0]) {
+                                persist((BaseEntity) entity);
+                                saved.add(entity);
+                            }
+                            yield saved;
+                        }
+                        case "findById" -> Optional.ofNullable(find(entityType, ((Number) args[0]).longValue()));
+                        case "getReferenceById" -> find(entityType, ((Number) args[0]).longValue());
+                        case "findAll" -> all(entityType);
+                        case "count" -> (long) table(entityType).size();
+                        case "deleteById" -> table(entityType).remove(((Number) args[0]).longValue());
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "InMemory" + repositoryType.getSimpleName();
+                        default -> throw new UnsupportedOperationException(
+                                repositoryType.getSimpleName() + "." + name + " has no in-memory fake");
+                    };
+                });
+        return repositoryType.cast(fake);
+    }
+
+    /**
+     * A collaborator that does nothing: void methods return, queries return empty results, counters return 0.
+     */
+    static <T> T noOp(Class<T> type) {
+        Object fake = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            if (returnType == double.class) {
+                return 0.0;
+            }
+            if (returnType == Optional.class) {
+                return Optional.empty();
+            }
+            if (returnType == String.class) {
+                return "";
+            }
+            if (Collection.class.isAssignableFrom(returnType)) {
+                return List.of();
+            }
+            return null;
+        });
+        return type.cast(fake);
+    }
+
+    private Map<Long, BaseEntity> table(Class<?> type) {
+        return this.tables.computeIfAbsent(type, key -> new LinkedHashMap<>());
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.model.entity.Cashier;
+import org.example.shopproject.model.entity.ClientProduct;
+import org.example.shopproject.model.entity.Receipt;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.enums.Category;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts the receipts and cart lines of a Buy, one receipt with one line per client, in a single transaction on H2.
+ * With a JDBC batch size of 1 every row is its own round trip, which is what IDENTITY ids forced before; with 50 the
+ * rows of each table go in batches of 50, using ids taken from the pooled sequences. The score is transactions per
+ * second; each client adds a cart line, a receipt and the row joining them. H2 runs in-process, so the gap to a
+ * networked MySQL, where every round trip costs far more, is only a lower bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBatchingBenchmark {
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"10", "100"})
+    private int clients;
+
+    private ServiceBackend backend;
+    private long cashierId;
+
+    @Setup
+    public void setUp() {
+        this.backend = new EmbeddedDatabaseBackend("spring.jpa.properties.hibernate.jdbc.batch_size=" + this.batchSize);
+        long[] id = new long[1];
+        this.backend.inTransaction(() -> {
+            Shop shop = new Shop("Batching");
+            Cashier cashier = new Cashier("Cashier", "Bench", 1500, null, shop);
+            this.backend.persist(shop);
+            this.backend.persist(cashier);
+            id[0] = cashier.getId();
+        });
+        this.cashierId = id[0];
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.backend.close();
+    }
+
+    @Benchmark
+    public void insertReceipts() {
+        this.backend.inTransaction(() -> {
+            Cashier cashier = this.backend.find(Cashier.class, this.cashierId);
+            LocalDate expireDate = LocalDate.now().plusYears(1);
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < this.clients; i++) {
+                ClientProduct line = new ClientProduct("Product" + i, 10, Category.EDIBLE, expireDate, 1, false,
+                        cashier.getShop());
+                Receipt receipt = new Receipt(cashier.getShop(), cashier, now, List.of(line), 10);
+                this.backend.persist(line);
+                this.backend.persist(receipt);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InsertBatchingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
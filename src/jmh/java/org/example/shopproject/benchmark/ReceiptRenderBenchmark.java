@@ -0,0 +1,92 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.model.entity.Cashier;
+import org.example.shopproject.model.entity.ClientProduct;
+import org.example.shopproject.model.entity.Receipt;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.receipt.ReceiptRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original String.format based receipt template with {@link ReceiptRenderer}.
+ * Run {@link #main} to get throughput together with the allocation rate (gc.alloc.rate.norm) per receipt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptRenderBenchmark {
+
+    @Param({"1", "10", "40"})
+    private int lines;
+
+    private List<ClientProduct> products;
+    private LocalDateTime issuedDate;
+    private Receipt receipt;
+
+    @Setup
+    public void setUp() {
+        this.products = new ArrayList<>();
+        for (int i = 0; i < this.lines; i++) {
+            this.products.add(new ClientProduct("Product" + i, 1.25 * i, Category.EDIBLE, LocalDate.now(), i + 1, false, null));
+        }
+        this.issuedDate = LocalDateTime.of(2024, 5, 20, 18, 30, 15);
+        Cashier cashier = new Cashier("Jane", "Doe", 1500, null, new Shop("Corner Shop"));
+        this.receipt = new Receipt(cashier.getShop(), cashier, this.issuedDate, this.products, 187.35);
+        this.receipt.setId(123456L);
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        StringBuilder boughtProductAndQ = new StringBuilder();
+        for (ClientProduct clientProduct : this.products) {
+            boughtProductAndQ.append(String.format("%s - %d\n", clientProduct.getName(), clientProduct.getQuantity()));
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        String formattedDateTime = this.issuedDate.format(formatter);
+        return String.format("%s\n" +
+                        "Cashier: %s %s\n" +
+                        "Serial number - %d\n" +
+                        "Bought products:\n" +
+                        "%s" +
+                        "Total price: %.2f\n" +
+                        "Issued on - %s %s\n" +
+                        "Thank you for supporting the local business!\n\n",
+                "Corner Shop", "Jane", "Doe", 123456L, boughtProductAndQ, 187.35,
+                this.issuedDate.getDayOfWeek().toString(), formattedDateTime);
+    }
+
+    @Benchmark
+    public String renderer() {
+        return ReceiptRenderer.render("Corner Shop", "Jane", "Doe", 123456L, this.products, 187.35, this.issuedDate);
+    }
+
+    /**
+     * The same receipt through {@link Receipt#toString}, which reads the names through the cashier and its shop.
+     */
+    @Benchmark
+    public String receiptToString() {
+        return this.receipt.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReceiptRenderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.model.entity.BaseEntity;
+import org.example.shopproject.service.CheckoutService;
+import org.example.shopproject.service.ClientService;
+import org.example.shopproject.service.ProductService;
+import org.example.shopproject.service.ShopService;
+
+/**
+ * The services under benchmark together with the storage behind them, so the same benchmark code can run
+ * against {@link InMemoryBackend in-memory repository fakes} and an {@link EmbeddedDatabaseBackend embedded database}.
+ */
+public interface ServiceBackend extends AutoCloseable {
+    ShopService shopService();
+
+    CheckoutService checkoutService();
+
+    ClientService clientService();
+
+    ProductService productService();
+
+    /**
+     * Runs the action in a transaction; entities returned by {@link #find} inside it can be changed in place.
+     */
+    void inTransaction(Runnable action);
+
+    <T extends BaseEntity> T find(Class<T> type, long id);
+
+    void persist(BaseEntity entity);
+
+    @Override
+    void close();
+
+    enum Type {
+        IN_MEMORY, H2;
+
+        public ServiceBackend open() {
+            return this == IN_MEMORY ? new InMemoryBackend() : new EmbeddedDatabaseBackend();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.shopproject.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buy, GoToQueue, AddProductToClient and assigning a product to a shop, each against in-memory repository fakes and
+ * against H2, for a growing catalog and queue. The state each call consumes (queues, carts) is restored before every
+ * invocation outside the measured time. Run {@link #main} for latency and allocation per call, or use the
+ * "benchmark" Maven profile to compare the numbers with the saved baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceHotPathBenchmark {
+
+    @Param({"IN_MEMORY", "H2"})
+    private ServiceBackend.Type backendType;
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    @Param({"10", "100"})
+    private int clients;
+
+    private ServiceBackend backend;
+    private StoreSeed seed;
+
+    @Setup
+    public void setUp() {
+        this.backend = this.backendType.open();
+        this.seed = StoreSeed.create(this.backend, this.products, this.clients);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.backend.close();
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyQueues {
+        @Setup(Level.Invocation)
+        public void setUp(ServiceHotPathBenchmark benchmark) {
+            benchmark.seed.clearQueues(benchmark.backend);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FullQueues {
+        @Setup(Level.Invocation)
+        public void setUp(ServiceHotPathBenchmark benchmark) {
+            benchmark.seed.formQueues(benchmark.backend);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyCart {
+        @Setup(Level.Invocation)
+        public void setUp(ServiceHotPathBenchmark benchmark) {
+            benchmark.seed.emptyCart(benchmark.backend, benchmark.seed.clientIds().get(0));
+        }
+    }
+
+    @Benchmark
+    public String goToQueue(EmptyQueues queues) {
+        return this.backend.checkoutService().goToQueue(this.seed.shopId());
+    }
+
+    @Benchmark
+    public String buy(FullQueues queues) {
+        return this.backend.shopService().buy(this.seed.shopId());
+    }
+
+    @Benchmark
+    public String addProductToClient(EmptyCart cart) {
+        return this.backend.clientService().addProductToClient(this.seed.clientIds().get(0));
+    }
+
+    /**
+     * The product is already on the shelf, so this is the lookup and the shelf scan that every assignment pays.
+     */
+    @Benchmark
+    public String assignToShop() {
+        return this.backend.productService().assignToShop(this.seed.productIds().get(this.products - 1), this.seed.shopId());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ServiceHotPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.model.enums.SettlementMode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buy for a shop with 1 to 64 checkouts and {@link #CLIENTS_PER_CHECKOUT} queued clients per checkout, settled
+ * sequentially and in parallel. The queues are formed again before every invocation outside the measured time.
+ * Against the in-memory backend this shows what the settlement itself gains from parallel queues; against H2 how
+ * much of that is left once the statements of the merge are included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettlementBenchmark {
+    private static final int PRODUCTS = 1000;
+    private static final int CLIENTS_PER_CHECKOUT = 16;
+
+    @Param({"IN_MEMORY", "H2"})
+    private ServiceBackend.Type backendType;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    private SettlementMode mode;
+
+    @Param({"1", "4", "16", "64"})
+    private int checkouts;
+
+    private ServiceBackend backend;
+    private StoreSeed seed;
+
+    @Setup
+    public void setUp() {
+        this.backend = this.backendType == ServiceBackend.Type.IN_MEMORY
+                ? new InMemoryBackend(this.mode)
+                : new EmbeddedDatabaseBackend("shop.settlement.mode=" + this.mode);
+        this.seed = StoreSeed.create(this.backend, PRODUCTS, this.checkouts * CLIENTS_PER_CHECKOUT, this.checkouts);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.backend.close();
+    }
+
+    @State(Scope.Thread)
+    public static class FullQueues {
+        @Setup(Level.Invocation)
+        public void setUp(SettlementBenchmark benchmark) {
+            benchmark.seed.formQueues(benchmark.backend);
+        }
+    }
+
+    @Benchmark
+    public String buy(FullQueues queues) {
+        return this.backend.shopService().buy(this.seed.shopId());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SettlementBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.shopproject.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.shopproject.core.CommandDispatcher;
+import org.example.shopproject.server.ShopCommandSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of Buy commands from 8 concurrent sessions through the {@link ShopCommandSerializer}, spread over 1 to 64
+ * shops. The dispatcher is replaced by a fixed amount of CPU work, so only the lanes are measured: one lock stripe is
+ * a single global lock, 64 stripes let commands for different shops run side by side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ShopLaneBenchmark {
+
+    @Param({"1", "8", "64"})
+    private int shops;
+
+    @Param({"1", "64"})
+    private int stripes;
+
+    /**
+     * Roughly the CPU time of a command, in {@link Blackhole#consumeCPU} tokens.
+     */
+    @Param({"2000"})
+    private int work;
+
+    private ShopCommandSerializer serializer;
+    private String[][] commands;
+
+    @Setup
+    public void setUp() {
+        CommandDispatcher dispatcher = new CommandDispatcher(null) {
+            @Override
+            public String dispatch(String[] tokens) {
+                Blackhole.consumeCPU(work);
+                return tokens[1];
+            }
+        };
+        this.serializer = new ShopCommandSerializer(dispatcher, null, null, null, null, new SimpleMeterRegistry(),
+                this.stripes);
+        this.commands = new String[this.shops][];
+        for (int i = 0; i < this.shops; i++) {
+            this.commands[i] = new String[]{"Buy", String.valueOf(i + 1)};
+        }
+    }
+
+    @Benchmark
+    public String buy() {
+        return this.serializer.execute(this.commands[ThreadLocalRandom.current().nextInt(this.shops)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ShopLaneBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
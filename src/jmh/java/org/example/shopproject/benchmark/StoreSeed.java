@@ -0,0 +1,109 @@
+package org.example.shopproject.benchmark;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.Category;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One shop with staffed checkouts, a catalog and clients whose carts are already filled, persisted through a
+ * {@link ServiceBackend}. Stock and money are large enough that no operation runs out of either during a benchmark,
+ * and products expire far enough away that no discount is applied.
+ */
+record StoreSeed(long shopId, List<Long> clientIds, List<Long> productIds) {
+    static final int CHECKOUTS = 4;
+    static final int CART_SIZE = 5;
+
+    static StoreSeed create(ServiceBackend backend, int products, int clients) {
+        return create(backend, products, clients, CHECKOUTS);
+    }
+
+    static StoreSeed create(ServiceBackend backend, int products, int clients, int checkouts) {
+        List<Long> clientIds = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        long[] shopId = new long[1];
+        backend.inTransaction(() -> {
+            Shop shop = new Shop("Benchmark");
+            backend.persist(shop);
+            shopId[0] = shop.getId();
+            for (int i = 0; i < checkouts; i++) {
+                Cashier cashier = new Cashier("Cashier" + i, "Bench", 1500, null, shop);
+                Checkout checkout = new Checkout(0, cashier, shop);
+                backend.persist(cashier);
+                backend.persist(checkout);
+                cashier.setCheckout(checkout);
+                shop.getCashiers().add(cashier);
+                shop.getCheckouts().add(checkout);
+            }
+            LocalDate expireDate = LocalDate.now().plusYears(1);
+            for (int i = 0; i < products; i++) {
+                Product product = new Product("Product" + i, 1 + i % 50, 1.2 * (1 + i % 50), Category.EDIBLE.name(),
+                        expireDate, 1_000_000_000, false, shop);
+                backend.persist(product);
+                shop.getBoughtProducts().add(product);
+                productIds.add(product.getId());
+            }
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client("Client" + i, 1e15, null, shop);
+                fillCart(backend, shop, client, i, products);
+                backend.persist(client);
+                shop.getClients().add(client);
+                clientIds.add(client.getId());
+            }
+        });
+        return new StoreSeed(shopId[0], clientIds, productIds);
+    }
+
+    /**
+     * Takes every client out of the checkout queues, as before GoToQueue.
+     */
+    void clearQueues(ServiceBackend backend) {
+        backend.inTransaction(() -> {
+            for (Checkout checkout : backend.find(Shop.class, this.shopId).getCheckouts()) {
+                for (Client client : checkout.getClients()) {
+                    client.setCheckout(null);
+                }
+                checkout.getClients().clear();
+            }
+        });
+    }
+
+    /**
+     * Brings the clients served by the previous Buy back into the shop with a fresh cart and queues them.
+     * Receipts own the cart lines they were issued for, so the lines are never bought twice; sold products are cleared
+     * so the shop does not grow from one invocation to the next.
+     */
+    void formQueues(ServiceBackend backend) {
+        clearQueues(backend);
+        backend.inTransaction(() -> {
+            Shop shop = backend.find(Shop.class, this.shopId);
+            shop.getSoldProducts().clear();
+            for (int i = 0; i < this.clientIds.size(); i++) {
+                Client client = backend.find(Client.class, this.clientIds.get(i));
+                if (client.getShop() == null) {
+                    client.setShop(shop);
+                    shop.getClients().add(client);
+                }
+                client.getProducts().clear();
+                fillCart(backend, shop, client, i, this.productIds.size());
+            }
+        });
+        backend.checkoutService().goToQueue(this.shopId);
+    }
+
+    private static void fillCart(ServiceBackend backend, Shop shop, Client client, int clientIndex, int products) {
+        LocalDate expireDate = LocalDate.now().plusYears(1);
+        for (int j = 0; j < CART_SIZE; j++) {
+            ClientProduct line = new ClientProduct("Product" + (clientIndex + j) % products, 1 + j, Category.EDIBLE,
+                    expireDate, 1 + j, false, shop);
+            backend.persist(line);
+            client.getProducts().add(line);
+        }
+    }
+
+    void emptyCart(ServiceBackend backend, long clientId) {
+        backend.inTransaction(() -> backend.find(Client.class, clientId).getProducts().clear());
+    }
+}
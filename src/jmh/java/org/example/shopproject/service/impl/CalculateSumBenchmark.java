@@ -0,0 +1,54 @@
+package org.example.shopproject.service.impl;
+
+import org.example.shopproject.model.entity.Client;
+import org.example.shopproject.model.entity.ClientProduct;
+import org.example.shopproject.model.enums.Category;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cart total computed for every client at the checkout. It touches no repository, so there is no backend
+ * parameter; it lives in this package because {@link ShopServiceImpl#calculateSum} is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculateSumBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int cartSize;
+
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        this.client = new Client("Bench", 1e9, null, null);
+        // Far from expiring, so the discount never kicks in and the prices stay the same between calls
+        LocalDate expireDate = LocalDate.now().plusYears(1);
+        for (int i = 0; i < this.cartSize; i++) {
+            this.client.getProducts().add(new ClientProduct("Product" + i, 1.25 * (i + 1), Category.EDIBLE,
+                    expireDate, i % 5 + 1, false, null));
+        }
+    }
+
+    @Benchmark
+    public double calculateSum() {
+        return ShopServiceImpl.calculateSum(this.client);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CalculateSumBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
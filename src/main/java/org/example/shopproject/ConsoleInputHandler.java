@@ -1,108 +1,50 @@
 package org.example.shopproject;
 
-import org.example.shopproject.core.Controller;
-import org.example.shopproject.model.entity.*;
+import org.example.shopproject.core.BatchCommandRunner;
+import org.example.shopproject.core.CommandDispatcher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
+/**
+ * Reads commands from stdin, or replays the file given with {@code --shop.batch.file=<path>} and exits.
+ * The commands and their arguments are documented in {@link CommandDispatcher}.
+ */
 @Component
+@ConditionalOnProperty(name = "shop.console.enabled", havingValue = "true", matchIfMissing = true)
 public class ConsoleInputHandler implements CommandLineRunner {
-    private final Controller controller;
-
-
-    public ConsoleInputHandler(Controller controller) {
-        this.controller = controller;
+    private final CommandDispatcher dispatcher;
+    private final BatchCommandRunner batchCommandRunner;
+    private final String batchFile;
+
+    public ConsoleInputHandler(CommandDispatcher dispatcher, BatchCommandRunner batchCommandRunner,
+                               @Value("${shop.batch.file:}") String batchFile) {
+        this.dispatcher = dispatcher;
+        this.batchCommandRunner = batchCommandRunner;
+        this.batchFile = batchFile;
     }
 
     @Override
     public void run(String... args) throws Exception {
+        if (!this.batchFile.isBlank()) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 64 * 1024);
+            String summary = this.batchCommandRunner.run(Paths.get(this.batchFile), out);
+            out.write(summary);
+            out.flush();
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
         String[] tokens = scanner.nextLine().split(" ");
 
         while (!tokens[0].equals("Exit")) {
-            //tokens[0] -> command
-            String result;
-            try {
-                switch (tokens[0]) {
-                    case "AddProduct":
-                        // tokens[1] -> name, tokens[2] -> price, tokens[3] -> (EDIBLE or NON_EDIBLE),
-                        // tokens[4] -> date in format (YYYY-MM-DD), tokens[5] -> quantity
-                        boolean isExpired = LocalDate.now().isAfter(LocalDate.parse(tokens[4]));
-
-                        result = this.controller.addProduct(new Product(tokens[1], Double.parseDouble(tokens[2]),
-                                0, tokens[3], LocalDate.parse(tokens[4]),
-                                Integer.parseInt(tokens[5]), isExpired, null));
-
-                        break;
-
-                    case "AddCheckout":
-                        // Adds a checkout (Shop is assigned later)
-                        result = this.controller.addCheckout(new Checkout(0, null, null));
-                        break;
-
-                    case "AddCashier":
-                        // tokens[1] -> firstName, tokens[2] -> lastName, tokens[3] -> salary
-                        result = this.controller.addCashier(new Cashier(tokens[1], tokens[2],
-                                Double.parseDouble(tokens[3]), null, null));
-                        break;
-
-                    case "AddClient":
-                        // tokens[1] -> name, tokens[2] -> money
-                        result = this.controller.addClient(new Client(tokens[1],
-                                Double.parseDouble(tokens[2]), null, null));
-                        break;
-
-                    case "AddShop":
-                        // tokens[1] -> name
-                        result = this.controller.addShop(new Shop(tokens[1]));
-                        break;
-
-                    case "AssignToShop":
-                        // tokens[1] -> nameOfObject(Client, Cashier, Checkout, Product),
-                        // tokens[2] -> objectID, tokens[3] -> shopID
-                        result = this.controller.assignToShop(tokens[1], Long.parseLong(tokens[2]), Long.parseLong(tokens[3]));
-                        break;
-
-                    case "AddCashierToCheckout":
-                        // tokens[1] -> cashierId, tokens[2] -> checkoutId
-                        // Assigns a cashier to a checkout
-                        result = this.controller.addCashierToCheckout(Long.parseLong(tokens[1]), Long.parseLong(tokens[2]));
-                        break;
-
-                    case "AddProductToClient":
-                        // tokens[1] -> clientID
-                        // Adds a random product from the shop
-                        result = this.controller.addProductToClient(Long.parseLong(tokens[1]));
-                        break;
-
-                    case "GoToQueue":
-                        // tokens[1] -> shopID
-                        // assigns all clients with existing product/s to the checkouts
-                        // a client must go to a queue before the "Buy" case
-                        result = this.controller.goToQueue(Long.parseLong(tokens[1]));
-                        break;
-
-                    case "Buy":
-                        // tokens[1] -> shopId
-                        // note: after every call all clients are unassigned from the shop and the checkout
-                        // a .txt file is created in src/main/resources/generatedReceipts if products are bought
-                        result = this.controller.buy(Long.parseLong(tokens[1]));
-                        break;
-                    case "CalculateMoney":
-                        // returns all earnings and expenses for every shop in the database
-                        result = this.controller.calculateMoney();
-                        break;
-                    default:
-                        result = "Invalid input!\n";
-                        break;
-                }
-            } catch (Exception e) {
-                result = e.getMessage() + "\n";
-            }
-            System.out.print(result);
+            System.out.print(this.dispatcher.dispatch(tokens));
             tokens = scanner.nextLine().split(" ");
         }
     }
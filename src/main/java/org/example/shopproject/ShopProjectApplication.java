@@ -2,8 +2,10 @@ package org.example.shopproject;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ShopProjectApplication {
 
 	public static void main(String[] args) {
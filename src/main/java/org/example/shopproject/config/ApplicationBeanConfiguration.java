@@ -1,12 +1,27 @@
 package org.example.shopproject.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
+import org.example.shopproject.receipt.FileReceiptStore;
+import org.example.shopproject.receipt.JournalReceiptStore;
+import org.example.shopproject.receipt.ReceiptStorageMode;
+import org.example.shopproject.receipt.ReceiptStore;
+import org.example.shopproject.sql.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 @Configuration
 public class ApplicationBeanConfiguration {
@@ -15,7 +30,33 @@ public class ApplicationBeanConfiguration {
         return Validation.buildDefaultValidatorFactory().getValidator();
     }
     @Bean
-    public Random random() {
-        return new Random();
+    public Random random(@Value("${shop.random.seed:#{null}}") Long seed) {
+        // A fixed seed makes the products and quantities picked for clients reproducible, e.g. for simulations
+        return seed == null ? new Random() : new Random(seed);
+    }
+    @Bean
+    public MeterRegistry meterRegistry() {
+        // Keeps the meters in memory; the "PrometheusMetrics" command prints them in the Prometheus text format
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool settlementPool(@Value("${shop.settlement.parallelism:0}") int parallelism) {
+        // Only used when shop.settlement.mode is PARALLEL; one worker per core unless configured
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+    @Bean
+    public HibernatePropertiesCustomizer statementInspector(SqlStatementCounter counter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+    @Bean
+    public ReceiptStore receiptStore(@Value("${shop.receipts.storage:FILES}") ReceiptStorageMode storageMode,
+                                     @Value("${shop.receipts.directory:src/main/resources/generatedReceipts}") String directory,
+                                     @Value("${shop.receipts.journal.directory:src/main/resources/receiptJournal}") String journalDirectory,
+                                     @Value("${shop.receipts.journal.segment-size-bytes:67108864}") long segmentSizeBytes,
+                                     @Value("${shop.receipts.journal.roll-daily:true}") boolean rollDaily) throws IOException {
+        if (storageMode == ReceiptStorageMode.JOURNAL) {
+            return new JournalReceiptStore(Paths.get(journalDirectory), segmentSizeBytes, rollDaily, Clock.systemDefaultZone());
+        }
+        return new FileReceiptStore(Paths.get(directory));
     }
 }
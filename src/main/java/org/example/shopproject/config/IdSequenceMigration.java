@@ -0,0 +1,90 @@
+package org.example.shopproject.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves every entity's id sequence past the largest id already in its table, so that rows created while the ids were
+ * IDENTITY columns are never handed out again. The pooled optimizer turns a sequence value v into the ids
+ * v - increment + 1 .. v, so a sequence is safe once its next value is at least max(id) + increment.
+ * Runs once all singletons exist and before the console or any start-up task inserts a row; on a database whose
+ * sequences are already ahead it changes nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.ids.migrate-sequences", havingValue = "true", matchIfMissing = true)
+public class IdSequenceMigration implements SmartInitializingSingleton {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceMigration(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> moved = migrate();
+        if (!moved.isEmpty()) {
+            LOGGER.info("Moved id sequences past existing rows: {}", String.join(", ", moved));
+        }
+    }
+
+    /**
+     * Returns the sequences that were moved, as "name -> next value".
+     */
+    public List<String> migrate() {
+        SessionFactoryImplementor sessionFactory = this.entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        List<String> moved = new ArrayList<>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (!(persister.getGenerator() instanceof SequenceStyleGenerator generator)
+                    || !(persister instanceof AbstractEntityPersister entityPersister)) {
+                return;
+            }
+            Long maxId = this.jdbcTemplate.queryForObject(String.format("SELECT MAX(%s) FROM %s",
+                    entityPersister.getIdentifierColumnNames()[0], entityPersister.getTableName()), Long.class);
+            if (maxId == null) {
+                return;
+            }
+            DatabaseStructure structure = generator.getDatabaseStructure();
+            long target = maxId + structure.getIncrementSize();
+            String name = structure.getPhysicalName().render();
+            if (moveSequence(dialect, structure, name, maxId, target)) {
+                moved.add(name + " -> " + target);
+            }
+        });
+        return moved;
+    }
+
+    private boolean moveSequence(Dialect dialect, DatabaseStructure structure, String name, long maxId, long target) {
+        if (!structure.isPhysicalSequence()) {
+            // MySQL has no sequences, Hibernate keeps the next value in a one-row table instead
+            return this.jdbcTemplate.update(String.format("UPDATE %s SET %s = ? WHERE %s < ?",
+                    name, SequenceStyleGenerator.DEF_VALUE_COLUMN, SequenceStyleGenerator.DEF_VALUE_COLUMN),
+                    target, target) > 0;
+        }
+        // Sequences cannot be read without advancing them; the value taken here is at most one block of ids lost
+        Long next = this.jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(name), Long.class);
+        if (next == null || next >= maxId) {
+            return false;
+        }
+        this.jdbcTemplate.execute(String.format("ALTER SEQUENCE %s RESTART WITH %d", name, target));
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.shopproject.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in the shop of receipts issued before receipts kept their own shop column. The shop they were issued in was
+ * never stored, so the cashier's shop at the time of the migration is the closest record left.
+ * Runs once all singletons exist; once every receipt has a shop it changes nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.receipts.migrate-shops", havingValue = "true", matchIfMissing = true)
+public class ReceiptShopMigration implements SmartInitializingSingleton {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReceiptShopMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReceiptShopMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int filled = migrate();
+        if (filled > 0) {
+            LOGGER.info("Filled in the shop of {} receipts from their cashiers", filled);
+        }
+    }
+
+    /**
+     * Returns how many receipts got a shop.
+     */
+    public int migrate() {
+        return this.jdbcTemplate.update("UPDATE receipts SET shop_id = " +
+                "(SELECT c.shop_id FROM cashiers c WHERE c.id = receipts.cashier_id) " +
+                "WHERE shop_id IS NULL AND cashier_id IS NOT NULL");
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.shopproject.core;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Replays a command file through the {@link CommandDispatcher}.
+ * <p>
+ * The file is read line by line. Consecutive commands of the same kind that only add or assign data are grouped
+ * (up to the group size) into one transaction, so a run of a thousand {@code AddProduct} lines commits once instead
+ * of a thousand times. If a group cannot commit, it is rolled back as a whole and replayed with one transaction per
+ * command, which gives the same results the interactive console would have printed. Command metrics and other
+ * counters of the rolled back attempt are only recorded on commit, so a replayed command is counted once.
+ * AddProductToClient draws a random product and quantity, so a replay could not repeat its results; it runs on its
+ * own like every other command that is not grouped.
+ * Results go to the given writer; the returned summary has the throughput and per-command latencies.
+ */
+@Component
+public class BatchCommandRunner {
+    private static final Set<String> GROUPED_COMMANDS = Set.of("AddProduct", "AddCheckout", "AddCashier", "AddClient",
+            "AddShop", "AssignToShop", "AddCashierToCheckout");
+    private static final String COMMIT = "(commit)";
+
+    private final CommandDispatcher dispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final int groupSize;
+
+    public BatchCommandRunner(CommandDispatcher dispatcher, TransactionTemplate transactionTemplate,
+                              @Value("${shop.batch.group-size:500}") int groupSize) {
+        this.dispatcher = dispatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.groupSize = groupSize;
+    }
+
+    public String run(Path commandFile, Writer out) throws IOException {
+        Run run = new Run(out);
+        List<String[]> group = new ArrayList<>(this.groupSize);
+        long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(commandFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split(" ");
+                if (tokens[0].equals("Exit")) {
+                    break;
+                }
+                if (!group.isEmpty() && (!group.get(0)[0].equals(tokens[0]) || group.size() == this.groupSize)) {
+                    runGroup(group, run);
+                    group.clear();
+                }
+                if (GROUPED_COMMANDS.contains(tokens[0])) {
+                    group.add(tokens);
+                } else {
+                    runAlone(tokens, run);
+                }
+            }
+        }
+        runGroup(group, run);
+        return run.summary(System.nanoTime() - start);
+    }
+
+    private void runGroup(List<String[]> group, Run run) throws IOException {
+        if (group.size() <= 1) {
+            for (String[] tokens : group) {
+                runAlone(tokens, run);
+            }
+            return;
+        }
+        String[] results = new String[group.size()];
+        long[] latencies = new long[group.size()];
+        long commitStart;
+        try {
+            commitStart = this.transactionTemplate.execute(status -> {
+                for (int i = 0; i < results.length; i++) {
+                    long start = System.nanoTime();
+                    results[i] = this.dispatcher.dispatch(group.get(i));
+                    latencies[i] = System.nanoTime() - start;
+                }
+                return System.nanoTime();
+            });
+        } catch (RuntimeException e) {
+            run.replayedGroups++;
+            for (String[] tokens : group) {
+                runAlone(tokens, run);
+            }
+            return;
+        }
+        run.latency(COMMIT).add(System.nanoTime() - commitStart);
+        run.transactions++;
+        for (int i = 0; i < results.length; i++) {
+            run.latency(group.get(i)[0]).add(latencies[i]);
+            run.out.write(results[i]);
+        }
+        run.commands += results.length;
+    }
+
+    private void runAlone(String[] tokens, Run run) throws IOException {
+        long start = System.nanoTime();
+        String result = this.dispatcher.dispatch(tokens);
+        run.latency(tokens[0]).add(System.nanoTime() - start);
+        run.out.write(result);
+        run.commands++;
+        run.transactions++;
+    }
+
+    private static final class Run {
+        private final Writer out;
+        private final Map<String, LatencySamples> latencies = new TreeMap<>();
+        private long commands;
+        private long transactions;
+        private long replayedGroups;
+
+        private Run(Writer out) {
+            this.out = out;
+        }
+
+        private LatencySamples latency(String command) {
+            return this.latencies.computeIfAbsent(command, key -> new LatencySamples());
+        }
+
+        private String summary(long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder summary = new StringBuilder(String.format(
+                    "Batch finished: %d commands in %.3f s (%.0f commands/sec), %d transactions, %d groups replayed one by one\n",
+                    this.commands, seconds, seconds == 0 ? 0 : this.commands / seconds, this.transactions, this.replayedGroups));
+            summary.append(String.format("%-22s %10s %10s %10s\n", "Command", "Count", "p50 ms", "p99 ms"));
+            for (Map.Entry<String, LatencySamples> entry : this.latencies.entrySet()) {
+                LatencySamples latencies = entry.getValue();
+                summary.append(String.format("%-22s %10d %10.3f %10.3f\n", entry.getKey(), latencies.size(),
+                        latencies.percentile(0.50) / 1e6, latencies.percentile(0.99) / 1e6));
+            }
+            return summary.toString();
+        }
+    }
+}
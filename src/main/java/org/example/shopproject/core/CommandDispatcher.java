@@ -0,0 +1,160 @@
+package org.example.shopproject.core;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Turns one split command line into a {@link Controller} call. Shared by the interactive console and batch mode.
+ */
+@Component
+public class CommandDispatcher {
+    private final Controller controller;
+
+    public CommandDispatcher(Controller controller) {
+        this.controller = controller;
+    }
+
+    public String dispatch(String[] tokens) {
+        //tokens[0] -> command
+        String result;
+        try {
+            switch (tokens[0]) {
+                case "AddProduct":
+                    // tokens[1] -> name, tokens[2] -> price, tokens[3] -> (EDIBLE or NON_EDIBLE),
+                    // tokens[4] -> date in format (YYYY-MM-DD), tokens[5] -> quantity
+                    boolean isExpired = LocalDate.now().isAfter(LocalDate.parse(tokens[4]));
+
+                    result = this.controller.addProduct(new Product(tokens[1], Double.parseDouble(tokens[2]),
+                            0, tokens[3], LocalDate.parse(tokens[4]),
+                            Integer.parseInt(tokens[5]), isExpired, null));
+
+                    break;
+
+                case "ImportProducts":
+                    // tokens[1] -> path of a .csv file with lines name,price,category,expire_date,quantity,shop_id
+                    // (shop_id may be empty); adds every line that AddProduct would accept, in chunked transactions
+                    result = this.controller.importProducts(tokens[1]);
+                    break;
+
+                case "AddCheckout":
+                    // Adds a checkout (Shop is assigned later)
+                    result = this.controller.addCheckout(new Checkout(0, null, null));
+                    break;
+
+                case "AddCashier":
+                    // tokens[1] -> firstName, tokens[2] -> lastName, tokens[3] -> salary
+                    result = this.controller.addCashier(new Cashier(tokens[1], tokens[2],
+                            Double.parseDouble(tokens[3]), null, null));
+                    break;
+
+                case "AddClient":
+                    // tokens[1] -> name, tokens[2] -> money
+                    result = this.controller.addClient(new Client(tokens[1],
+                            Double.parseDouble(tokens[2]), null, null));
+                    break;
+
+                case "AddShop":
+                    // tokens[1] -> name
+                    result = this.controller.addShop(new Shop(tokens[1]));
+                    break;
+
+                case "AssignToShop":
+                    // tokens[1] -> nameOfObject(Client, Cashier, Checkout, Product),
+                    // tokens[2] -> objectID, tokens[3] -> shopID
+                    result = this.controller.assignToShop(tokens[1], Long.parseLong(tokens[2]), Long.parseLong(tokens[3]));
+                    break;
+
+                case "AddCashierToCheckout":
+                    // tokens[1] -> cashierId, tokens[2] -> checkoutId
+                    // Assigns a cashier to a checkout
+                    result = this.controller.addCashierToCheckout(Long.parseLong(tokens[1]), Long.parseLong(tokens[2]));
+                    break;
+
+                case "AddProductToClient":
+                    // tokens[1] -> clientID
+                    // Adds a random product from the shop
+                    result = this.controller.addProductToClient(Long.parseLong(tokens[1]));
+                    break;
+                case "ProductCatalog":
+                    // returns the size of the in-memory product catalog and its hit and miss counts
+                    result = this.controller.reportCatalog();
+                    break;
+                case "StockReservations":
+                    // returns how many stock reservations succeeded and how many lost the stock to another client
+                    result = this.controller.reportStockReservations();
+                    break;
+
+                case "GoToQueue":
+                    // tokens[1] -> shopID
+                    // assigns all clients with existing product/s to the checkouts
+                    // a client must go to a queue before the "Buy" case
+                    result = this.controller.goToQueue(Long.parseLong(tokens[1]));
+                    break;
+
+                case "Buy":
+                    // tokens[1] -> shopId
+                    // note: after every call all clients are unassigned from the shop and the checkout
+                    // a .txt file is created in src/main/resources/generatedReceipts if products are bought
+                    result = this.controller.buy(Long.parseLong(tokens[1]));
+                    break;
+                case "ExportReceipt":
+                    // tokens[1] -> receipt serial number
+                    // writes the stored receipt back as <cashier>_<serial>_receipt.txt in the receipts directory
+                    result = this.controller.exportReceipt(Long.parseLong(tokens[1]));
+                    break;
+                case "ReceiptHistory":
+                    // tokens[1] -> (CASHIER, SHOP or ALL), tokens[2] -> cashierId/shopId (0 for ALL),
+                    // tokens[3] -> from date, tokens[4] -> to date (YYYY-MM-DD, both inclusive), tokens[5] -> page size,
+                    // tokens[6] -> optional cursor printed as "Next page" by the previous call
+                    result = this.controller.receiptHistory(ReceiptHistoryScope.valueOf(tokens[1]),
+                            Long.parseLong(tokens[2]), LocalDate.parse(tokens[3]), LocalDate.parse(tokens[4]),
+                            Integer.parseInt(tokens[5]), tokens.length > 6 ? ReceiptCursor.parse(tokens[6]) : null);
+                    break;
+                case "ExportReceiptHistory":
+                    // tokens[1] -> (CASHIER, SHOP or ALL), tokens[2] -> cashierId/shopId (0 for ALL),
+                    // tokens[3] -> from date, tokens[4] -> to date (YYYY-MM-DD, both inclusive)
+                    // streams the receipts into a .csv file in the receipts directory
+                    result = this.controller.exportReceiptHistory(ReceiptHistoryScope.valueOf(tokens[1]),
+                            Long.parseLong(tokens[2]), LocalDate.parse(tokens[3]), LocalDate.parse(tokens[4]));
+                    break;
+                case "CalculateMoney":
+                    // returns all earnings and expenses for every shop in the database
+                    result = this.controller.calculateMoney();
+                    break;
+                case "ReconcileLedger":
+                    // recomputes every shop's expenses and earnings from scratch, reports and fixes any drift
+                    // of the running totals used by "CalculateMoney"
+                    result = this.controller.reconcileLedger();
+                    break;
+                case "CacheStats":
+                    // returns hits, misses and hit ratio per second-level cache region (profile "l2cache" only)
+                    result = this.controller.reportCacheStatistics();
+                    break;
+                case "SweepExpired":
+                    // marks every product past its expire date as expired now instead of waiting for the daily sweep
+                    // and returns what expired per shop
+                    result = this.controller.sweepExpiredProducts();
+                    break;
+                case "Metrics":
+                    // returns calls, failures, latency percentiles and running calls per command and shop,
+                    // the commands that took the most time first
+                    result = this.controller.reportCommandMetrics();
+                    break;
+                case "PrometheusMetrics":
+                    // returns the same meters in the Prometheus text exposition format
+                    result = this.controller.exportPrometheusMetrics();
+                    break;
+                default:
+                    result = "Invalid input!\n";
+                    break;
+            }
+        } catch (Exception e) {
+            result = e.getMessage() + "\n";
+        }
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.shopproject.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.example.shopproject.util.TransactionUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Latency, outcome and in-flight meters per command and shop. Services report errors as result strings, so a call
+ * counts as failed when it throws or when a line of its result is one of the error messages the services return,
+ * matched as a whole line with the formatted arguments as wildcards. Names that merely contain an error word
+ * ("Invalid Ink", "Already Salted") therefore do not turn a success into a failure. A Buy in which one client could
+ * not pay is a failure even if other clients got their receipts. New error messages must be added to
+ * {@code FAILURE_MESSAGES}.
+ * Calls that do not name a shop are tagged with shop "none". A call made inside a transaction (a batch group) is only
+ * timed and counted once that transaction commits, so a rolled back group that is replayed is counted once.
+ */
+@Component
+public class CommandMetrics {
+    static final String TIMER = "shop.command.duration";
+    static final String OUTCOMES = "shop.command.outcomes";
+    static final String IN_FLIGHT = "shop.command.in.flight";
+    static final String NO_SHOP = "none";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final List<FailureMessage> FAILURE_MESSAGES = Stream.of(
+            "Both Checkout and Cashier are not assigned to any shop!",
+            "Cashier %s %s is already assigned to another checkout!",
+            "Cashier %s %s is already assigned to shop %s!",
+            "Cashier and checkout are in different shops!",
+            "Cashier does not exist!",
+            "Cashier is not assigned to any shop!",
+            "Cashier with id: %d already exists!",
+            "Checkout does not exist!",
+            "Checkout does not have a cashier assigned to it!",
+            "Checkout is already assigned to another cashier!",
+            "Checkout is not assigned to any shop!",
+            "Checkout with id: %d already exists!",
+            "Checkout with id: %d is already assigned to shop %s!",
+            "Client %s already exists!",
+            "Client %s does not have enough money!",
+            "Client %s is already shopping in shop %s",
+            "Client already has every product of shop %s in his cart!",
+            "Client is not in any shop!",
+            "Client not found!",
+            "Client with id: %d does not exist!",
+            "Could not export receipt %d: %s",
+            "Could not export receipt history: %s",
+            "Could not import products: %s",
+            "Expired product!",
+            "Invalid %s!",
+            "Ledger of shop %s drifted! Expenses drift: %.2f, earnings drift: %.2f",
+            "Line %d: %s",
+            "No clients in shop %s!",
+            "Page size must be positive!",
+            "Product %s is already in shop %s!",
+            "Product %s is expired!",
+            "Product %s was taken by another client! Required quantity: %d",
+            "Product with id: %d does not exist!",
+            "Product with name %s already exists!",
+            "Prometheus export is not available!",
+            "Quantity not enough! Product: %s",
+            "Receipt already exists!",
+            "Receipt with serial number %d does not exist!",
+            "Second-level cache statistics are disabled!",
+            "Shop %s already exists!",
+            "Shop does not exist!",
+            "Shop doesn't exist!",
+            "Shop doesn't have any checkouts!",
+            "Shop with id: %d does not exist!",
+            "Wrong type of object!",
+            "shop is empty!").map(FailureMessage::of).toList();
+
+    private final MeterRegistry registry;
+    private final Map<Key, Meters> meters = new ConcurrentHashMap<>();
+
+    public CommandMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public String record(String command, Long shopId, Supplier<String> call) {
+        Meters commandMeters = this.meters.computeIfAbsent(
+                new Key(command, shopId == null ? NO_SHOP : Long.toString(shopId)), this::register);
+        commandMeters.inFlight().incrementAndGet();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String result = call.get();
+            failed = isFailure(result);
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Counter outcome = failed ? commandMeters.failures() : commandMeters.successes();
+            commandMeters.inFlight().decrementAndGet();
+            TransactionUtil.afterCommit(() -> {
+                commandMeters.timer().record(elapsed, TimeUnit.NANOSECONDS);
+                outcome.increment();
+            });
+        }
+    }
+
+    /**
+     * One line per command and shop, the commands that took the most time in total first.
+     */
+    public String report() {
+        List<Meters> snapshot = new ArrayList<>(this.meters.values());
+        if (snapshot.isEmpty()) {
+            return "No commands recorded!\n";
+        }
+        snapshot.sort(Comparator.comparingDouble((Meters m) -> m.timer().totalTime(TimeUnit.NANOSECONDS)).reversed());
+        StringBuilder sb = new StringBuilder(String.format("%-22s %-6s %8s %8s %10s %10s %10s %10s %10s %8s%n",
+                "Command", "Shop", "Calls", "Failed", "Total ms", "Mean ms", "p50 ms", "p95 ms", "p99 ms", "Running"));
+        for (Meters m : snapshot) {
+            HistogramSnapshot histogram = m.timer().takeSnapshot();
+            sb.append(String.format("%-22s %-6s %8d %8d %10.1f %10.3f", m.key().command(), m.key().shop(),
+                    histogram.count(), (long) m.failures().count(), histogram.total(TimeUnit.MILLISECONDS),
+                    histogram.mean(TimeUnit.MILLISECONDS)));
+            for (double percentile : PERCENTILES) {
+                sb.append(String.format(" %10.3f", valueAt(histogram, percentile)));
+            }
+            sb.append(String.format(" %8d%n", m.inFlight().get()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The meters in the Prometheus text exposition format, or a message when the registry is not a Prometheus one.
+     */
+    public String scrape() {
+        if (this.registry instanceof PrometheusMeterRegistry prometheusRegistry) {
+            return prometheusRegistry.scrape();
+        }
+        return "Prometheus export is not available!\n";
+    }
+
+    static boolean isFailure(String result) {
+        if (result == null) {
+            return false;
+        }
+        for (String line : result.split("\n")) {
+            for (FailureMessage message : FAILURE_MESSAGES) {
+                if (message.matches(line)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Meters register(Key key) {
+        Timer timer = Timer.builder(TIMER)
+                .tag("command", key.command()).tag("shop", key.shop())
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(this.registry);
+        Counter successes = Counter.builder(OUTCOMES)
+                .tag("command", key.command()).tag("shop", key.shop()).tag("outcome", "success")
+                .register(this.registry);
+        Counter failures = Counter.builder(OUTCOMES)
+                .tag("command", key.command()).tag("shop", key.shop()).tag("outcome", "failure")
+                .register(this.registry);
+        AtomicInteger inFlight = new AtomicInteger();
+        // The registry only keeps a weak reference to the gauge's object; this map keeps it alive
+        Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get)
+                .tag("command", key.command()).tag("shop", key.shop())
+                .register(this.registry);
+        return new Meters(key, timer, successes, failures, inFlight);
+    }
+
+    private static double valueAt(HistogramSnapshot histogram, double percentile) {
+        for (ValueAtPercentile value : histogram.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private record Key(String command, String shop) {
+    }
+
+    /**
+     * A service error message with its format specifiers turned into wildcards. The literal text before the first
+     * specifier is checked first, so most lines are dismissed without running the pattern.
+     */
+    private record FailureMessage(String prefix, Pattern pattern) {
+        private static final Pattern SPECIFIER = Pattern.compile("%(\\.\\d+)?[sdf]");
+
+        static FailureMessage of(String template) {
+            StringBuilder regex = new StringBuilder();
+            int start = 0;
+            Matcher specifier = SPECIFIER.matcher(template);
+            while (specifier.find()) {
+                regex.append(Pattern.quote(template.substring(start, specifier.start()))).append(".*?");
+                start = specifier.end();
+            }
+            regex.append(Pattern.quote(template.substring(start)));
+            int literalEnd = template.indexOf('%');
+            return new FailureMessage(literalEnd < 0 ? template : template.substring(0, literalEnd),
+                    Pattern.compile(regex.toString()));
+        }
+
+        boolean matches(String line) {
+            return line.startsWith(this.prefix) && this.pattern.matcher(line).matches();
+        }
+    }
+
+    private record Meters(Key key, Timer timer, Counter successes, Counter failures, AtomicInteger inFlight) {
+    }
+}
@@ -1,6 +1,10 @@
 package org.example.shopproject.core;
 
 import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
+
+import java.time.LocalDate;
 
 public interface Controller {
     String addShop(Shop shop);
@@ -11,19 +15,42 @@ public interface Controller {
 
     String addProduct(Product product);
 
+    String reportCatalog();
+
     String addCashier(Cashier cashier);
 
     String addReceipt(Receipt receipt);
 
+    String exportReceipt(long serialNumber);
+
+    String receiptHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to, int pageSize,
+                          ReceiptCursor after);
+
+    String exportReceiptHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to);
+
     String addCashierToCheckout(long cashierId, long checkoutId);
 
     String assignToShop(String nameOfObject, long objectId, long shopId);
 
-    String buy(long clientId);
+    String buy(long shopId);
 
     String addProductToClient(long clientId);
 
+    String reportStockReservations();
+
     String goToQueue(long shopId);
 
     String calculateMoney();
+
+    String reconcileLedger();
+
+    String reportCacheStatistics();
+
+    String sweepExpiredProducts();
+
+    String importProducts(String file);
+
+    String reportCommandMetrics();
+
+    String exportPrometheusMetrics();
 }
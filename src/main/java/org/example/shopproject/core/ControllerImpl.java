@@ -1,9 +1,14 @@
 package org.example.shopproject.core;
 
 import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
 import org.example.shopproject.service.*;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
 @Component
 public class ControllerImpl implements Controller {
     private final ShopService shopService;
@@ -12,14 +17,22 @@ public class ControllerImpl implements Controller {
     private final ProductService productService;
     private final ReceiptService receiptService;
     private final CashierService cashierService;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final ProductExpiryService productExpiryService;
+    private final ProductImportService productImportService;
+    private final CommandMetrics commandMetrics;
 
-    public ControllerImpl(ShopService shopService, CheckoutService checkoutService, ClientService clientService, ProductService productService, ReceiptService receiptService, CashierService cashierService) {
+    public ControllerImpl(ShopService shopService, CheckoutService checkoutService, ClientService clientService, ProductService productService, ReceiptService receiptService, CashierService cashierService, CacheStatisticsService cacheStatisticsService, ProductExpiryService productExpiryService, ProductImportService productImportService, CommandMetrics commandMetrics) {
         this.shopService = shopService;
         this.checkoutService = checkoutService;
         this.clientService = clientService;
         this.productService = productService;
         this.receiptService = receiptService;
         this.cashierService = cashierService;
+        this.cacheStatisticsService = cacheStatisticsService;
+        this.productExpiryService = productExpiryService;
+        this.productImportService = productImportService;
+        this.commandMetrics = commandMetrics;
     }
 
     @Override
@@ -42,6 +55,11 @@ public class ControllerImpl implements Controller {
         return this.productService.addProduct(product);
     }
 
+    @Override
+    public String reportCatalog() {
+        return this.productService.reportCatalog();
+    }
+
     @Override
     public String addCashier(Cashier cashier) {
         return this.cashierService.addCashier(cashier);
@@ -52,6 +70,22 @@ public class ControllerImpl implements Controller {
         return this.receiptService.addReceipt(receipt);
     }
 
+    @Override
+    public String exportReceipt(long serialNumber) {
+        return this.receiptService.exportReceipt(serialNumber);
+    }
+
+    @Override
+    public String receiptHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to, int pageSize,
+                                 ReceiptCursor after) {
+        return this.receiptService.printHistory(scope, ownerId, from, to, pageSize, after);
+    }
+
+    @Override
+    public String exportReceiptHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to) {
+        return this.receiptService.exportHistory(scope, ownerId, from, to);
+    }
+
     @Override
     public String addCashierToCheckout(long cashierId, long checkoutId) {
         return this.checkoutService.addCashierToCheckout(cashierId, checkoutId);
@@ -84,18 +118,53 @@ public class ControllerImpl implements Controller {
         return this.clientService.addProductToClient(clientId);
     }
 
+    @Override
+    public String reportStockReservations() {
+        return this.clientService.reportStockReservations();
+    }
+
     @Override
     public String goToQueue(long shopId) {
         return this.checkoutService.goToQueue(shopId);
     }
 
     @Override
-    public String buy(long clientId) {
-        return this.shopService.buy(clientId);
+    public String buy(long shopId) {
+        return this.shopService.buy(shopId);
     }
 
     @Override
     public String calculateMoney() {
         return this.shopService.calculateMoney();
     }
+
+    @Override
+    public String reconcileLedger() {
+        return this.shopService.reconcileLedger();
+    }
+
+    @Override
+    public String reportCacheStatistics() {
+        return this.cacheStatisticsService.report();
+    }
+
+    @Override
+    public String sweepExpiredProducts() {
+        return this.productExpiryService.sweep(LocalDate.now()) + this.productExpiryService.report();
+    }
+
+    @Override
+    public String importProducts(String file) {
+        return this.productImportService.importProducts(Paths.get(file));
+    }
+
+    @Override
+    public String reportCommandMetrics() {
+        return this.commandMetrics.report();
+    }
+
+    @Override
+    public String exportPrometheusMetrics() {
+        return this.commandMetrics.scrape();
+    }
 }
@@ -0,0 +1,42 @@
+package org.example.shopproject.core;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of nanosecond samples, sorted on demand when a percentile is asked for. Not thread-safe.
+ */
+public final class LatencySamples {
+    private long[] values = new long[64];
+    private int size;
+
+    public void add(long nanos) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size++] = nanos;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < this.size; i++) {
+            total += this.values[i];
+        }
+        return total;
+    }
+
+    /**
+     * Nearest-rank percentile, {@code percentile} between 0 and 1; 0 when there are no samples.
+     */
+    public long percentile(double percentile) {
+        if (this.size == 0) {
+            return 0;
+        }
+        Arrays.sort(this.values, 0, this.size);
+        int index = (int) Math.ceil(percentile * this.size) - 1;
+        return this.values[Math.max(index, 0)];
+    }
+}
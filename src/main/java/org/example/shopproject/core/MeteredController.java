@@ -0,0 +1,148 @@
+package org.example.shopproject.core;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Times every {@link Controller} call under the name of its console command and hands it to {@link ControllerImpl}.
+ * Only commands whose arguments include a shop id are tagged with that shop; looking the shop up for the others
+ * would add a query to the call being measured. The metrics reports themselves are not timed.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "shop.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MeteredController implements Controller {
+    private final ControllerImpl controller;
+    private final CommandMetrics metrics;
+
+    public MeteredController(ControllerImpl controller, CommandMetrics metrics) {
+        this.controller = controller;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String addShop(Shop shop) {
+        return this.metrics.record("AddShop", null, () -> this.controller.addShop(shop));
+    }
+
+    @Override
+    public String addCheckout(Checkout checkout) {
+        return this.metrics.record("AddCheckout", null, () -> this.controller.addCheckout(checkout));
+    }
+
+    @Override
+    public String addClient(Client client) {
+        return this.metrics.record("AddClient", null, () -> this.controller.addClient(client));
+    }
+
+    @Override
+    public String addProduct(Product product) {
+        return this.metrics.record("AddProduct", null, () -> this.controller.addProduct(product));
+    }
+
+    @Override
+    public String reportCatalog() {
+        return this.metrics.record("ProductCatalog", null, this.controller::reportCatalog);
+    }
+
+    @Override
+    public String addCashier(Cashier cashier) {
+        return this.metrics.record("AddCashier", null, () -> this.controller.addCashier(cashier));
+    }
+
+    @Override
+    public String addReceipt(Receipt receipt) {
+        return this.metrics.record("AddReceipt", null, () -> this.controller.addReceipt(receipt));
+    }
+
+    @Override
+    public String exportReceipt(long serialNumber) {
+        return this.metrics.record("ExportReceipt", null, () -> this.controller.exportReceipt(serialNumber));
+    }
+
+    @Override
+    public String receiptHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to, int pageSize,
+                                 ReceiptCursor after) {
+        return this.metrics.record("ReceiptHistory", scope == ReceiptHistoryScope.SHOP ? ownerId : null,
+                () -> this.controller.receiptHistory(scope, ownerId, from, to, pageSize, after));
+    }
+
+    @Override
+    public String exportReceiptHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to) {
+        return this.metrics.record("ExportReceiptHistory", scope == ReceiptHistoryScope.SHOP ? ownerId : null,
+                () -> this.controller.exportReceiptHistory(scope, ownerId, from, to));
+    }
+
+    @Override
+    public String addCashierToCheckout(long cashierId, long checkoutId) {
+        return this.metrics.record("AddCashierToCheckout", null,
+                () -> this.controller.addCashierToCheckout(cashierId, checkoutId));
+    }
+
+    @Override
+    public String assignToShop(String nameOfObject, long objectId, long shopId) {
+        return this.metrics.record("AssignToShop", shopId,
+                () -> this.controller.assignToShop(nameOfObject, objectId, shopId));
+    }
+
+    @Override
+    public String buy(long shopId) {
+        return this.metrics.record("Buy", shopId, () -> this.controller.buy(shopId));
+    }
+
+    @Override
+    public String addProductToClient(long clientId) {
+        return this.metrics.record("AddProductToClient", null, () -> this.controller.addProductToClient(clientId));
+    }
+
+    @Override
+    public String reportStockReservations() {
+        return this.metrics.record("StockReservations", null, this.controller::reportStockReservations);
+    }
+
+    @Override
+    public String goToQueue(long shopId) {
+        return this.metrics.record("GoToQueue", shopId, () -> this.controller.goToQueue(shopId));
+    }
+
+    @Override
+    public String calculateMoney() {
+        return this.metrics.record("CalculateMoney", null, this.controller::calculateMoney);
+    }
+
+    @Override
+    public String reconcileLedger() {
+        return this.metrics.record("ReconcileLedger", null, this.controller::reconcileLedger);
+    }
+
+    @Override
+    public String reportCacheStatistics() {
+        return this.metrics.record("CacheStats", null, this.controller::reportCacheStatistics);
+    }
+
+    @Override
+    public String sweepExpiredProducts() {
+        return this.metrics.record("SweepExpired", null, this.controller::sweepExpiredProducts);
+    }
+
+    @Override
+    public String importProducts(String file) {
+        return this.metrics.record("ImportProducts", null, () -> this.controller.importProducts(file));
+    }
+
+    @Override
+    public String reportCommandMetrics() {
+        return this.controller.reportCommandMetrics();
+    }
+
+    @Override
+    public String exportPrometheusMetrics() {
+        return this.controller.exportPrometheusMetrics();
+    }
+}
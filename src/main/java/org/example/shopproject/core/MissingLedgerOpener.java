@@ -0,0 +1,33 @@
+package org.example.shopproject.core;
+
+import org.example.shopproject.service.ShopLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens a ledger for every shop that does not have one yet (shops created before ledgers existed) when the
+ * application starts, so the ledger based CalculateMoney report covers them without a ReconcileLedger run.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.finance.open-missing-ledgers", havingValue = "true", matchIfMissing = true)
+public class MissingLedgerOpener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MissingLedgerOpener.class);
+
+    private final ShopLedgerService shopLedgerService;
+
+    public MissingLedgerOpener(ShopLedgerService shopLedgerService) {
+        this.shopLedgerService = shopLedgerService;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void openOnStartup() {
+        int opened = this.shopLedgerService.openMissingLedgers();
+        if (opened > 0) {
+            LOGGER.info("Opened ledgers for {} shops without one", opened);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.shopproject.core;
+
+import org.example.shopproject.service.ProductExpiryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Runs the expiry sweep when the application starts (catching up on days it was down) and then every day at the time
+ * given by {@code shop.expiry.cron}, midnight by default.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.expiry.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductExpirySweeper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductExpirySweeper.class);
+
+    private final ProductExpiryService productExpiryService;
+
+    public ProductExpirySweeper(ProductExpiryService productExpiryService) {
+        this.productExpiryService = productExpiryService;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void sweepOnStartup() {
+        sweep();
+    }
+
+    @Scheduled(cron = "${shop.expiry.cron:0 0 0 * * *}")
+    public void sweep() {
+        try {
+            LOGGER.info("Expiry sweep: {}", this.productExpiryService.sweep(LocalDate.now()).trim());
+        } catch (RuntimeException e) {
+            // The next run marks whatever this one missed
+            LOGGER.error("Expiry sweep failed", e);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.example.shopproject.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.stereotype.Service;
 
 import java.io.Serializable;
@@ -10,6 +12,10 @@ import java.util.List;
 
 @Entity
 @Table(name = "cashiers")
+@NamedEntityGraph(name = "Cashier.assignment",
+        attributeNodes = {@NamedAttributeNode("checkout"), @NamedAttributeNode("shop")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cashiers")
 public class Cashier extends BaseEntity {
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -19,7 +25,7 @@ public class Cashier extends BaseEntity {
     private double salary;
     @OneToOne
     private Checkout checkout;
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "cashier")
     private List<Receipt> receipts;
     @ManyToOne
     @JoinColumn(name = "shop_id", referencedColumnName = "id")
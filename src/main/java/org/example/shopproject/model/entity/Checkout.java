@@ -1,6 +1,8 @@
 package org.example.shopproject.model.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -8,16 +10,23 @@ import java.util.List;
 
 @Entity
 @Table(name = "checkouts")
+@NamedEntityGraph(name = "Checkout.assignment",
+        attributeNodes = {@NamedAttributeNode("cashier"), @NamedAttributeNode(value = "shop", subgraph = "shopCheckouts")},
+        subgraphs = @NamedSubgraph(name = "shopCheckouts", attributeNodes = @NamedAttributeNode("checkouts")))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "checkouts")
 public class Checkout extends BaseEntity {
     @Column
     private double earnings;
     @OneToOne
     private Cashier cashier;
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany
     private List<Client> clients;
     @ManyToOne
     @JoinColumn(name = "shop_id", referencedColumnName = "id")
     private Shop shop;
+    @Version
+    private long version;
 
     public Checkout(double earnings, Cashier cashier, Shop shop) {
         this.earnings = earnings;
@@ -60,4 +69,8 @@ public class Checkout extends BaseEntity {
     public void setShop(Shop shop) {
         this.shop = shop;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
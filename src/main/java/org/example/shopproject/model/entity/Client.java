@@ -13,7 +13,7 @@ public class Client extends BaseEntity {
     private String firstName;
     @Column(nullable = false)
     private double money;
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany
     private List<ClientProduct> products;
     @ManyToOne
     private Checkout checkout;
@@ -21,6 +21,9 @@ public class Client extends BaseEntity {
     @ManyToOne
     @JoinColumn(name = "shop_id", referencedColumnName = "id")
     private Shop shop;
+    // Also incremented when the cart changes, so a Buy never charges a cart that changed after it was read
+    @Version
+    private long version;
 
     public Client(String firstName, double money, Checkout checkout, Shop shop) {
         this.firstName = firstName;
@@ -72,4 +75,8 @@ public class Client extends BaseEntity {
     public void setShop(Shop shop) {
         this.shop = shop;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
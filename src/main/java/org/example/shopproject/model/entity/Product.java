@@ -7,7 +7,9 @@ import java.io.Serializable;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_expiry", columnList = "is_expired, expire_date"),
+        @Index(name = "idx_products_shop", columnList = "shop_id, id")})
 public class Product extends BaseEntity {
 
     @Column(nullable = false, unique = true)
@@ -28,6 +30,9 @@ public class Product extends BaseEntity {
     @ManyToOne
     @JoinColumn(name = "shop_id", referencedColumnName = "id")
     private Shop shop;
+    // The bulk stock and expiry updates in ProductRepository increment it as well
+    @Version
+    private long version;
 
 
     public Product(String name, double price, double clientPrice, String category, LocalDate expireDate, int quantity, boolean isExpired, Shop shop) {
@@ -109,4 +114,7 @@ public class Product extends BaseEntity {
         this.shop = shop;
     }
 
+    public long getVersion() {
+        return version;
+    }
 }
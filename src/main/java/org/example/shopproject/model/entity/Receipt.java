@@ -1,21 +1,22 @@
 package org.example.shopproject.model.entity;
 
 import jakarta.persistence.*;
+import org.example.shopproject.receipt.ReceiptRenderer;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Entity
-@Table(name = "receipts")
+@Table(name = "receipts", indexes = {
+        @Index(name = "idx_receipts_cashier_issued", columnList = "cashier_id, issued_date, id"),
+        @Index(name = "idx_receipts_shop_issued", columnList = "shop_id, issued_date, id"),
+        @Index(name = "idx_receipts_issued", columnList = "issued_date, id")
+})
 public class Receipt extends BaseEntity {
-    private static final String FILE_PATH = "src/main/resources/generatedReceipts";
-
+    // The shop the receipt was issued in, kept apart from the cashier's shop because cashiers move between shops
+    @ManyToOne
+    @JoinColumn(name = "shop_id", referencedColumnName = "id")
+    private Shop shop;
     @ManyToOne
     @JoinColumn(name = "cashier_id", referencedColumnName = "id")
     private Cashier cashier;
@@ -23,10 +24,11 @@ public class Receipt extends BaseEntity {
     private LocalDateTime issuedDate;
     @Column(nullable = false)
     private double price;
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany
     private List<ClientProduct> productList;
 
-    public Receipt(Cashier cashier, LocalDateTime issuedDate, List<ClientProduct> productList, double price) {
+    public Receipt(Shop shop, Cashier cashier, LocalDateTime issuedDate, List<ClientProduct> productList, double price) {
+        this.shop = shop;
         this.cashier = cashier;
         this.issuedDate = issuedDate;
         this.productList = productList;
@@ -36,6 +38,14 @@ public class Receipt extends BaseEntity {
     public Receipt() {
     }
 
+    public Shop getShop() {
+        return shop;
+    }
+
+    public void setShop(Shop shop) {
+        this.shop = shop;
+    }
+
     public Cashier getCashier() {
         return cashier;
     }
@@ -70,34 +80,11 @@ public class Receipt extends BaseEntity {
 
     @Override
     public String toString() {
-        StringBuilder boughtProductAndQ = new StringBuilder();
-        for (ClientProduct clientProduct : this.getProductList()) {
-            boughtProductAndQ.append(String.format("%s - %d\n", clientProduct.getName(), clientProduct.getQuantity()));
-        }
-
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        String formattedDateTime = this.issuedDate.format(formatter);
-
-        return String.format("%s\n" +
-                        "Cashier: %s %s\n" +
-                        "Serial number - %d\n" +
-                        "Bought products:\n" +
-                        "%s" +
-                        "Total price: %.2f\n" +
-                        "Issued on - %s %s\n" +
-                        "Thank you for supporting the local business!\n\n",
-                this.getCashier().getShop().getName(), this.getCashier().getFirstName(), this.getCashier().getLastName(),
-                this.getId(), boughtProductAndQ, this.getPrice(), issuedDate.getDayOfWeek().toString(), formattedDateTime);
+        return ReceiptRenderer.render(this.getCashier().getShop().getName(), this.getCashier().getFirstName(),
+                this.getCashier().getLastName(), this.getId(), this.getProductList(), this.getPrice(), this.getIssuedDate());
     }
 
-    public void saveReceiptToFile() {
-        String fileName = String.format("%s_%d_receipt.txt", this.getCashier().getFirstName(), this.getId());
-        Path filePath = Paths.get(FILE_PATH, fileName);
-        try (BufferedWriter writer = Files.newBufferedWriter(filePath)) {
-            writer.write(this.toString());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public String getFileName() {
+        return this.getCashier().getFirstName() + "_" + this.getId() + "_receipt.txt";
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package org.example.shopproject.model.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -8,12 +10,22 @@ import java.util.List;
 
 @Entity
 @Table(name = "shops")
+// Only one bag per graph can be fetched with a join, the remaining collections are batch-fetched on first access
+@NamedEntityGraph(name = "Shop.settlement",
+        attributeNodes = @NamedAttributeNode(value = "checkouts", subgraph = "checkoutWithCashier"),
+        subgraphs = @NamedSubgraph(name = "checkoutWithCashier", attributeNodes = @NamedAttributeNode("cashier")))
+@NamedEntityGraph(name = "Shop.queues", attributeNodes = @NamedAttributeNode("clients"))
+@NamedEntityGraph(name = "Shop.finance", attributeNodes = @NamedAttributeNode("boughtProducts"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "shops")
 public class Shop extends BaseEntity {
     @Column(nullable = false, unique = true)
     private String name;
     @OneToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "shop-cashiers")
     private List<Cashier> cashiers;
     @OneToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "shop-checkouts")
     private List<Checkout> checkouts;
     @OneToMany
     private List<Product> boughtProducts;
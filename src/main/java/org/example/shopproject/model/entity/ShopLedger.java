@@ -0,0 +1,63 @@
+package org.example.shopproject.model.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "shop_ledgers")
+public class ShopLedger extends BaseEntity {
+    @OneToOne(optional = false)
+    @JoinColumn(name = "shop_id", referencedColumnName = "id", nullable = false, unique = true)
+    private Shop shop;
+    @Column(name = "bought_stock", nullable = false)
+    private double boughtStock;
+    @Column(nullable = false)
+    private double salaries;
+    @Column(name = "checkout_earnings", nullable = false)
+    private double checkoutEarnings;
+
+    public ShopLedger(Shop shop, double boughtStock, double salaries, double checkoutEarnings) {
+        this.shop = shop;
+        this.boughtStock = boughtStock;
+        this.salaries = salaries;
+        this.checkoutEarnings = checkoutEarnings;
+    }
+
+    public ShopLedger() {
+    }
+
+    public Shop getShop() {
+        return shop;
+    }
+
+    public void setShop(Shop shop) {
+        this.shop = shop;
+    }
+
+    public double getBoughtStock() {
+        return boughtStock;
+    }
+
+    public void setBoughtStock(double boughtStock) {
+        this.boughtStock = boughtStock;
+    }
+
+    public double getSalaries() {
+        return salaries;
+    }
+
+    public void setSalaries(double salaries) {
+        this.salaries = salaries;
+    }
+
+    public double getCheckoutEarnings() {
+        return checkoutEarnings;
+    }
+
+    public void setCheckoutEarnings(double checkoutEarnings) {
+        this.checkoutEarnings = checkoutEarnings;
+    }
+
+    public double getExpenses() {
+        return boughtStock + salaries;
+    }
+}
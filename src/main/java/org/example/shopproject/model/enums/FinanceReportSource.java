@@ -0,0 +1,10 @@
+package org.example.shopproject.model.enums;
+
+public enum FinanceReportSource {
+    // Running totals kept in the shop_ledgers table
+    LEDGER,
+    // SUM ... GROUP BY shop queries evaluated by the database
+    AGGREGATE,
+    // Loads every shop with its products, cashiers and checkouts and sums them in Java
+    ENTITIES
+}
@@ -0,0 +1,5 @@
+package org.example.shopproject.model.enums;
+
+public enum ReceiptHistoryScope {
+    CASHIER, SHOP, ALL
+}
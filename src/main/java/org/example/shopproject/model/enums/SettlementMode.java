@@ -0,0 +1,8 @@
+package org.example.shopproject.model.enums;
+
+public enum SettlementMode {
+    // Buy settles the checkout queues one after another on the calling thread
+    SEQUENTIAL,
+    // Buy settles each checkout queue on a worker of the settlement pool and merges the results in checkout order
+    PARALLEL
+}
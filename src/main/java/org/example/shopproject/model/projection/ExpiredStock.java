@@ -0,0 +1,7 @@
+package org.example.shopproject.model.projection;
+
+/**
+ * Products of one shop that a sweep marked as expired; {@code shopId} is null for products not assigned to a shop.
+ */
+public record ExpiredStock(Long shopId, long products, long units) {
+}
@@ -0,0 +1,7 @@
+package org.example.shopproject.model.projection;
+
+/**
+ * Smallest and largest id of a set of rows; both are null when the set is empty.
+ */
+public record IdRange(Long min, Long max) {
+}
@@ -0,0 +1,4 @@
+package org.example.shopproject.model.projection;
+
+public record ProductSummary(long id, String name, double price, Long shopId) {
+}
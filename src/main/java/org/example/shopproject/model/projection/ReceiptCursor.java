@@ -0,0 +1,19 @@
+package org.example.shopproject.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position after the last receipt of a history page, written as {@code <issuedDate>/<serialNumber>} on the console.
+ */
+public record ReceiptCursor(LocalDateTime issuedDate, long serialNumber) {
+    public static ReceiptCursor parse(String value) {
+        int separator = value.lastIndexOf('/');
+        return new ReceiptCursor(LocalDateTime.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+    }
+
+    @Override
+    public String toString() {
+        return this.issuedDate + "/" + this.serialNumber;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.shopproject.model.projection;
+
+import java.util.List;
+
+/**
+ * One page of receipt history; {@code next} is null on the last page.
+ */
+public record ReceiptHistoryPage(List<ReceiptSummary> receipts, ReceiptCursor next) {
+}
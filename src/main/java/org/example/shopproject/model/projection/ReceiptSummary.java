@@ -0,0 +1,7 @@
+package org.example.shopproject.model.projection;
+
+import java.time.LocalDateTime;
+
+public record ReceiptSummary(long serialNumber, LocalDateTime issuedDate, double price, long cashierId,
+                             String cashierFirstName, String cashierLastName) {
+}
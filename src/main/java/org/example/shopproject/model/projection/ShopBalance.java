@@ -0,0 +1,7 @@
+package org.example.shopproject.model.projection;
+
+/**
+ * Ledger totals of one shop, zero for a shop whose ledger has not been opened yet.
+ */
+public record ShopBalance(long shopId, String name, double expenses, double earnings) {
+}
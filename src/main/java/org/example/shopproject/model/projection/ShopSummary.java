@@ -0,0 +1,4 @@
+package org.example.shopproject.model.projection;
+
+public record ShopSummary(long id, String name) {
+}
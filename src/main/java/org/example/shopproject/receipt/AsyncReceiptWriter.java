@@ -0,0 +1,178 @@
+package org.example.shopproject.receipt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hands receipts to the {@link ReceiptStore} on a dedicated thread so that checkout latency does not depend on disk latency.
+ * Receipts wait in a bounded queue; the writer thread takes everything that is queued (up to the batch size)
+ * and writes it as one group. When the queue is full, {@link #submit} blocks until the writer catches up.
+ * Submitters hold the read side of {@code closeLock} from the closed check until their receipt is queued, so
+ * {@link #destroy} only queues the poison pill once no submit can slip in behind it.
+ */
+@Component
+public class AsyncReceiptWriter implements ReceiptWriter, DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncReceiptWriter.class);
+    private static final StoredReceipt POISON_PILL = new StoredReceipt(-1, null, null);
+
+    private final ReceiptStore store;
+    private final int batchSize;
+    private final ReceiptDurability durability;
+    private final BlockingQueue<StoredReceipt> queue;
+    private final Thread writerThread;
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong backpressureCount = new AtomicLong();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public AsyncReceiptWriter(ReceiptStore store,
+                              @Value("${shop.receipts.queue-capacity:1024}") int queueCapacity,
+                              @Value("${shop.receipts.batch-size:64}") int batchSize,
+                              @Value("${shop.receipts.durability:NONE}") ReceiptDurability durability) {
+        this.store = store;
+        this.batchSize = batchSize;
+        this.durability = durability;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::writeLoop, "receipt-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void submit(long serialNumber, String fileName, String content) {
+        StoredReceipt receipt = new StoredReceipt(serialNumber, fileName, content);
+        this.closeLock.readLock().lock();
+        try {
+            if (this.closed) {
+                throw new IllegalStateException("Receipt writer is already shut down!");
+            }
+            if (this.queue.offer(receipt)) {
+                return;
+            }
+            this.backpressureCount.incrementAndGet();
+            // The writer thread may have died (interrupted), so never wait on a queue nobody drains
+            while (!this.queue.offer(receipt, 100, TimeUnit.MILLISECONDS)) {
+                if (!this.writerThread.isAlive()) {
+                    this.failedCount.incrementAndGet();
+                    LOGGER.error("Receipt writer stopped, dropping receipt {}", fileName);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failedCount.incrementAndGet();
+            LOGGER.error("Interrupted while queueing receipt {}", fileName);
+        } finally {
+            this.closeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return this.writtenCount.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return this.failedCount.get();
+    }
+
+    @Override
+    public long getBackpressureCount() {
+        return this.backpressureCount.get();
+    }
+
+    /**
+     * Stops accepting receipts and waits until everything already queued is written.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        this.closeLock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        } finally {
+            this.closeLock.writeLock().unlock();
+        }
+        // No submit is in flight any more, so the pill is the last element ever queued
+        while (!this.queue.offer(POISON_PILL, 100, TimeUnit.MILLISECONDS) && this.writerThread.isAlive()) {
+            // The writer is still draining a full queue
+        }
+        this.writerThread.join();
+    }
+
+    private void writeLoop() {
+        List<StoredReceipt> batch = new ArrayList<>(this.batchSize);
+        while (true) {
+            try {
+                StoredReceipt first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                this.queue.drainTo(batch, this.batchSize - 1);
+
+                boolean stop = batch.remove(POISON_PILL);
+                writeBatch(batch);
+                batch.clear();
+                if (stop) {
+                    // Anything still queued was submitted before destroy() flipped the flag
+                    this.queue.drainTo(batch);
+                    writeBatch(batch);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(List<StoredReceipt> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int pending = 0;
+        for (StoredReceipt receipt : batch) {
+            try {
+                this.store.append(receipt);
+            } catch (IOException e) {
+                this.failedCount.incrementAndGet();
+                LOGGER.error("Could not write receipt {}", receipt.fileName(), e);
+                continue;
+            }
+            if (this.durability == ReceiptDurability.RECEIPT) {
+                flushStore(1, true);
+            } else {
+                pending++;
+            }
+        }
+        flushStore(pending, this.durability == ReceiptDurability.BATCH);
+    }
+
+    private void flushStore(int receipts, boolean force) {
+        try {
+            this.store.flush(force);
+            this.writtenCount.addAndGet(receipts);
+        } catch (IOException e) {
+            this.failedCount.addAndGet(receipts);
+            LOGGER.error("Could not flush receipt store", e);
+        }
+    }
+}
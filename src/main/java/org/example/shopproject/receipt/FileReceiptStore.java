@@ -0,0 +1,75 @@
+package org.example.shopproject.receipt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores every receipt in its own {@code <cashier>_<serial>_receipt.txt} file.
+ */
+public class FileReceiptStore implements ReceiptStore {
+    private final Path directory;
+    private final List<FileChannel> unflushed = new ArrayList<>();
+
+    public FileReceiptStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public synchronized void append(StoredReceipt receipt) throws IOException {
+        FileChannel channel = FileChannel.open(this.directory.resolve(receipt.fileName()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(receipt.content().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.unflushed.add(channel);
+    }
+
+    @Override
+    public synchronized void flush(boolean force) throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : this.unflushed) {
+            try (channel) {
+                if (force) {
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        this.unflushed.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public synchronized Optional<StoredReceipt> read(long serialNumber) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*_" + serialNumber + "_receipt.txt")) {
+            for (Path file : files) {
+                return Optional.of(new StoredReceipt(serialNumber, file.getFileName().toString(), Files.readString(file)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush(false);
+    }
+}
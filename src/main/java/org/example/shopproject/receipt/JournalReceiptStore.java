@@ -0,0 +1,316 @@
+package org.example.shopproject.receipt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Appends receipts to rolling segment files instead of creating one file per receipt.
+ * <p>
+ * Segment record: {@code [int length][int crc32][long serial][int nameLength][name][content]}, where length and
+ * crc cover everything after the header. A sidecar index of fixed-size {@code [long serial][int segment][long offset]}
+ * entries is loaded into a hash map on start-up, so a receipt is found with one map lookup and one positional read.
+ * A new segment is started when the current one would grow past the size limit or when the date changes.
+ * Records that reached the segment but not the index (a crash between the two writes) are re-indexed on open,
+ * and a torn record at the end of the last segment is cut off, together with index entries that point past the
+ * intact records.
+ */
+public class JournalReceiptStore implements ReceiptStore {
+    private static final String SEGMENT_PREFIX = "receipts-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String INDEX_FILE = "receipts.index";
+    private static final DateTimeFormatter SEGMENT_DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final boolean rollDaily;
+    private final Clock clock;
+    private final Map<Long, Location> index = new HashMap<>();
+    private final TreeMap<Integer, Path> segments = new TreeMap<>();
+    private final ByteBuffer segmentBuffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(INDEX_ENTRY_BYTES * 1024);
+    private final FileChannel indexChannel;
+    private FileChannel segmentChannel;
+    private int segmentId;
+    private LocalDate segmentDate;
+    private long segmentPosition;
+
+    public JournalReceiptStore(Path directory, long maxSegmentBytes, boolean rollDaily, Clock clock) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.rollDaily = rollDaily;
+        this.clock = clock;
+        Files.createDirectories(directory);
+        this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+        openLastSegment();
+    }
+
+    @Override
+    public synchronized void append(StoredReceipt receipt) throws IOException {
+        byte[] fileName = receipt.fileName().getBytes(StandardCharsets.UTF_8);
+        byte[] content = receipt.content().getBytes(StandardCharsets.UTF_8);
+        int payloadLength = Long.BYTES + Integer.BYTES + fileName.length + content.length;
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadLength);
+        record.position(RECORD_HEADER_BYTES);
+        record.putLong(receipt.serialNumber()).putInt(fileName.length).put(fileName).put(content);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_BYTES, payloadLength);
+        record.putInt(0, payloadLength).putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+
+        rollIfNeeded(record.remaining());
+        Location location = new Location(this.segmentId, this.segmentPosition);
+        if (record.remaining() > this.segmentBuffer.remaining()) {
+            flushBuffers();
+        }
+        if (record.remaining() > this.segmentBuffer.capacity()) {
+            writeFully(this.segmentChannel, record);
+        } else {
+            this.segmentBuffer.put(record);
+        }
+        this.segmentPosition += RECORD_HEADER_BYTES + payloadLength;
+
+        if (this.indexBuffer.remaining() < INDEX_ENTRY_BYTES) {
+            flushBuffers();
+        }
+        this.indexBuffer.putLong(receipt.serialNumber()).putInt(location.segmentId()).putLong(location.offset());
+        this.index.put(receipt.serialNumber(), location);
+    }
+
+    @Override
+    public synchronized void flush(boolean force) throws IOException {
+        flushBuffers();
+        if (force) {
+            this.segmentChannel.force(false);
+            this.indexChannel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized Optional<StoredReceipt> read(long serialNumber) throws IOException {
+        Location location = this.index.get(serialNumber);
+        if (location == null) {
+            return Optional.empty();
+        }
+        flushBuffers();
+        if (location.segmentId() == this.segmentId) {
+            return Optional.ofNullable(readRecord(this.segmentChannel, location.offset()));
+        }
+        Path segment = this.segments.get(location.segmentId());
+        if (segment == null) {
+            throw new IOException(String.format("Receipt %d is indexed in segment %d, which is missing from %s!",
+                    serialNumber, location.segmentId(), this.directory));
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return Optional.ofNullable(readRecord(channel, location.offset()));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flushBuffers();
+        } finally {
+            this.segmentChannel.close();
+            this.indexChannel.close();
+        }
+    }
+
+    private void rollIfNeeded(int recordLength) throws IOException {
+        LocalDate today = LocalDate.now(this.clock);
+        boolean full = this.segmentPosition > 0 && this.segmentPosition + recordLength > this.maxSegmentBytes;
+        boolean outdated = this.rollDaily && !today.equals(this.segmentDate);
+        if (full || outdated) {
+            flushBuffers();
+            this.segmentChannel.close();
+            if (this.segmentPosition == 0) {
+                // Nothing was written under the old date, so the empty segment is replaced instead of kept
+                Files.delete(this.segments.remove(this.segmentId));
+                openSegment(this.segmentId, today);
+            } else {
+                openSegment(this.segmentId + 1, today);
+            }
+        }
+    }
+
+    private void flushBuffers() throws IOException {
+        // The segment always goes first so that the index never points past the data
+        this.segmentBuffer.flip();
+        writeFully(this.segmentChannel, this.segmentBuffer);
+        this.segmentBuffer.clear();
+        this.indexBuffer.flip();
+        writeFully(this.indexChannel, this.indexBuffer);
+        this.indexBuffer.clear();
+    }
+
+    private void loadIndex() throws IOException {
+        long validBytes = this.indexChannel.size() - this.indexChannel.size() % INDEX_ENTRY_BYTES;
+        this.indexChannel.truncate(validBytes);
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_ENTRY_BYTES * 1024);
+        long position = 0;
+        while (position < validBytes) {
+            buffer.clear();
+            int read = this.indexChannel.read(buffer, position);
+            buffer.flip();
+            while (buffer.remaining() >= INDEX_ENTRY_BYTES) {
+                this.index.put(buffer.getLong(), new Location(buffer.getInt(), buffer.getLong()));
+            }
+            position += read - buffer.remaining();
+        }
+        this.indexChannel.position(validBytes);
+    }
+
+    private void openLastSegment() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String[] parts = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()).split("-");
+                this.segments.put(Integer.parseInt(parts[0]), file);
+            }
+        }
+        if (this.segments.isEmpty()) {
+            openSegment(1, LocalDate.now(this.clock));
+            return;
+        }
+        Map.Entry<Integer, Path> last = this.segments.lastEntry();
+        String name = last.getValue().getFileName().toString();
+        this.segmentId = last.getKey();
+        this.segmentDate = LocalDate.parse(name.substring(name.lastIndexOf('-') + 1, name.length() - SEGMENT_SUFFIX.length()),
+                SEGMENT_DATE_FORMATTER);
+        this.segmentChannel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segmentPosition = recoverSegment();
+        if (this.index.values().removeIf(location ->
+                location.segmentId() == this.segmentId && location.offset() >= this.segmentPosition)) {
+            rewriteIndex();
+        }
+        this.segmentChannel.truncate(this.segmentPosition);
+        this.segmentChannel.position(this.segmentPosition);
+        flushBuffers();
+    }
+
+    /**
+     * Walks the active segment from its last indexed record that lies within the segment, re-indexes records the
+     * index missed and returns the offset right after the last intact record.
+     */
+    private long recoverSegment() throws IOException {
+        // Without a forced flush the index can outlive the segment data it points to, so entries past the end of
+        // the segment are not a starting point; the caller drops them
+        long size = this.segmentChannel.size();
+        long position = 0;
+        for (Location location : this.index.values()) {
+            if (location.segmentId() == this.segmentId && location.offset() > position && location.offset() < size) {
+                position = location.offset();
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (position + RECORD_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(this.segmentChannel, header, position);
+            int payloadLength = header.getInt(0);
+            int expectedCrc = header.getInt(Integer.BYTES);
+            if (payloadLength < Long.BYTES + Integer.BYTES || position + RECORD_HEADER_BYTES + payloadLength > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+            readFully(this.segmentChannel, payload, position + RECORD_HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+            long serialNumber = payload.getLong(0);
+            Location location = new Location(this.segmentId, position);
+            if (!location.equals(this.index.get(serialNumber))) {
+                this.index.put(serialNumber, location);
+                this.indexBuffer.putLong(serialNumber).putInt(this.segmentId).putLong(position);
+                if (this.indexBuffer.remaining() < INDEX_ENTRY_BYTES) {
+                    this.indexBuffer.flip();
+                    writeFully(this.indexChannel, this.indexBuffer);
+                    this.indexBuffer.clear();
+                }
+            }
+            position += RECORD_HEADER_BYTES + payloadLength;
+        }
+        return position;
+    }
+
+    /**
+     * Replaces the index file with the entries in memory, after entries pointing at lost records were dropped.
+     */
+    private void rewriteIndex() throws IOException {
+        this.indexBuffer.clear();
+        this.indexChannel.truncate(0);
+        for (Map.Entry<Long, Location> entry : this.index.entrySet()) {
+            if (this.indexBuffer.remaining() < INDEX_ENTRY_BYTES) {
+                this.indexBuffer.flip();
+                writeFully(this.indexChannel, this.indexBuffer);
+                this.indexBuffer.clear();
+            }
+            this.indexBuffer.putLong(entry.getKey()).putInt(entry.getValue().segmentId())
+                    .putLong(entry.getValue().offset());
+        }
+    }
+
+    private void openSegment(int id, LocalDate date) throws IOException {
+        Path file = this.directory.resolve(String.format("%s%06d-%s%s",
+                SEGMENT_PREFIX, id, date.format(SEGMENT_DATE_FORMATTER), SEGMENT_SUFFIX));
+        this.segmentChannel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segments.put(id, file);
+        this.segmentId = id;
+        this.segmentDate = date;
+        this.segmentPosition = 0;
+    }
+
+    private static StoredReceipt readRecord(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(channel, header, offset);
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+        readFully(channel, payload, offset + RECORD_HEADER_BYTES);
+        payload.flip();
+
+        long serialNumber = payload.getLong();
+        byte[] fileName = new byte[payload.getInt()];
+        payload.get(fileName);
+        byte[] content = new byte[payload.remaining()];
+        payload.get(content);
+        return new StoredReceipt(serialNumber, new String(fileName, StandardCharsets.UTF_8),
+                new String(content, StandardCharsets.UTF_8));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of receipt journal segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record Location(int segmentId, long offset) {
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.shopproject.receipt;
+
+public enum ReceiptDurability {
+    // Leave flushing to the operating system
+    NONE,
+    // Force every file of a written batch to disk once the whole batch is written
+    BATCH,
+    // Force every receipt to disk right after it is written
+    RECEIPT
+}
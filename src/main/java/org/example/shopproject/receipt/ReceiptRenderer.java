@@ -0,0 +1,87 @@
+package org.example.shopproject.receipt;
+
+import org.example.shopproject.model.entity.ClientProduct;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders the receipt text without {@code String.format}.
+ * The literal parts of the template are constants, the date formatter is built once, money is written digit by digit
+ * into the target buffer, and shop and cashier names are passed in by the caller instead of being read from the
+ * receipt's associations. The output is identical to the original {@code String.format} template.
+ */
+public final class ReceiptRenderer {
+    private static final DateTimeFormatter ISSUED_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final char DECIMAL_SEPARATOR =
+            DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+    private static final String CASHIER = "Cashier: ";
+    private static final String SERIAL_NUMBER = "Serial number - ";
+    private static final String BOUGHT_PRODUCTS = "Bought products:\n";
+    private static final String QUANTITY_SEPARATOR = " - ";
+    private static final String TOTAL_PRICE = "Total price: ";
+    private static final String ISSUED_ON = "Issued on - ";
+    private static final String FOOTER = "Thank you for supporting the local business!\n\n";
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private ReceiptRenderer() {
+    }
+
+    public static String render(String shopName, String cashierFirstName, String cashierLastName, long serialNumber,
+                                List<ClientProduct> products, double price, LocalDateTime issuedDate) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        render(buffer, shopName, cashierFirstName, cashierLastName, serialNumber, products, price, issuedDate);
+        return buffer.toString();
+    }
+
+    public static void render(StringBuilder out, String shopName, String cashierFirstName, String cashierLastName,
+                              long serialNumber, List<ClientProduct> products, double price, LocalDateTime issuedDate) {
+        out.append(shopName).append('\n')
+                .append(CASHIER).append(cashierFirstName).append(' ').append(cashierLastName).append('\n')
+                .append(SERIAL_NUMBER).append(serialNumber).append('\n')
+                .append(BOUGHT_PRODUCTS);
+        for (ClientProduct product : products) {
+            out.append(product.getName()).append(QUANTITY_SEPARATOR).append(product.getQuantity()).append('\n');
+        }
+        out.append(TOTAL_PRICE);
+        appendMoney(out, price);
+        out.append('\n').append(ISSUED_ON).append(issuedDate.getDayOfWeek().name()).append(' ');
+        ISSUED_DATE_FORMATTER.formatTo(issuedDate, out);
+        out.append('\n').append(FOOTER);
+    }
+
+    /**
+     * Appends the value the way {@code String.format("%.2f", value)} prints it: rounded half-up on the shortest
+     * decimal representation of the double. Values that sit on a rounding tie take the exact BigDecimal path.
+     */
+    static void appendMoney(StringBuilder out, double value) {
+        double magnitude = Math.abs(value);
+        if (Double.isNaN(value) || magnitude >= 1e13) {
+            out.append(String.format("%.2f", value));
+            return;
+        }
+        double shifted = magnitude * 100;
+        double fraction = shifted - Math.floor(shifted);
+        long cents;
+        if (Math.abs(fraction - 0.5) <= Math.ulp(shifted) * 8) {
+            cents = BigDecimal.valueOf(magnitude).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        } else {
+            cents = Math.round(shifted);
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            out.append('-');
+        }
+        long remainder = cents % 100;
+        out.append(cents / 100).append(DECIMAL_SEPARATOR);
+        if (remainder < 10) {
+            out.append('0');
+        }
+        out.append(remainder);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.shopproject.receipt;
+
+public enum ReceiptStorageMode {
+    // One <cashier>_<serial>_receipt.txt file per receipt
+    FILES,
+    // Rolling append-only segment files with a serial number index
+    JOURNAL
+}
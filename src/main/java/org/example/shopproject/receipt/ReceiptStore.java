@@ -0,0 +1,16 @@
+package org.example.shopproject.receipt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Optional;
+
+public interface ReceiptStore extends Closeable {
+    void append(StoredReceipt receipt) throws IOException;
+
+    /**
+     * Makes every appended receipt visible to readers; with {@code force} the data is also synced to disk.
+     */
+    void flush(boolean force) throws IOException;
+
+    Optional<StoredReceipt> read(long serialNumber) throws IOException;
+}
@@ -0,0 +1,11 @@
+package org.example.shopproject.receipt;
+
+public interface ReceiptWriter {
+    void submit(long serialNumber, String fileName, String content);
+
+    long getWrittenCount();
+
+    long getFailedCount();
+
+    long getBackpressureCount();
+}
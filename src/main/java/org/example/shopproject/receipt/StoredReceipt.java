@@ -0,0 +1,4 @@
+package org.example.shopproject.receipt;
+
+public record StoredReceipt(long serialNumber, String fileName, String content) {
+}
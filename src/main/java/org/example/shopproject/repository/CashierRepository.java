@@ -1,12 +1,26 @@
 package org.example.shopproject.repository;
 
 import org.example.shopproject.model.entity.Cashier;
+import org.example.shopproject.model.projection.ShopTotal;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CashierRepository extends JpaRepository<Cashier, Long> {
 
+    @EntityGraph("Cashier.assignment")
+    Optional<Cashier> findForAssignmentById(long id);
+
+    @Query("SELECT c.shop.id FROM Cashier c WHERE c.id = :cashierId")
+    Optional<Long> findShopIdById(@Param("cashierId") long cashierId);
+
+    @Query("SELECT new org.example.shopproject.model.projection.ShopTotal(c.shop.id, SUM(c.salary)) " +
+            "FROM Cashier c WHERE c.shop IS NOT NULL GROUP BY c.shop.id")
+    List<ShopTotal> sumSalariesByShop();
 }
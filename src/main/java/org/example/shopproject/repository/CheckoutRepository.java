@@ -1,9 +1,26 @@
 package org.example.shopproject.repository;
 
 import org.example.shopproject.model.entity.Checkout;
+import org.example.shopproject.model.projection.ShopTotal;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CheckoutRepository extends JpaRepository<Checkout, Long> {
+
+    @EntityGraph("Checkout.assignment")
+    Optional<Checkout> findForAssignmentById(long id);
+
+    @Query("SELECT new org.example.shopproject.model.projection.ShopTotal(c.shop.id, SUM(c.earnings)) " +
+            "FROM Checkout c WHERE c.shop IS NOT NULL GROUP BY c.shop.id")
+    List<ShopTotal> sumEarningsByShop();
+
+    @Query("SELECT c.shop.id FROM Checkout c WHERE c.id = :checkoutId")
+    Optional<Long> findShopIdById(@Param("checkoutId") long checkoutId);
 }
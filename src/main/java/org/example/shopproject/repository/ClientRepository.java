@@ -2,8 +2,15 @@ package org.example.shopproject.repository;
 
 import org.example.shopproject.model.entity.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
+
+    @Query("SELECT c.shop.id FROM Client c WHERE c.id = :clientId")
+    Optional<Long> findShopIdById(@Param("clientId") long clientId);
 }
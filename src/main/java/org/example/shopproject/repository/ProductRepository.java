@@ -1,13 +1,74 @@
 package org.example.shopproject.repository;
 
 import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.model.projection.ExpiredStock;
+import org.example.shopproject.model.projection.IdRange;
+import org.example.shopproject.model.projection.ShopTotal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findByName(String name);
+
+    @Query("SELECT p.name FROM Product p")
+    List<String> findAllNames();
+
+    @Query("SELECT p.shop.id FROM Product p WHERE p.id = :productId")
+    Optional<Long> findShopIdById(@Param("productId") long productId);
+
+    @Query("SELECT new org.example.shopproject.model.projection.ShopTotal(p.shop.id, SUM(p.price * p.quantity)) " +
+            "FROM Product p WHERE p.shop IS NOT NULL GROUP BY p.shop.id")
+    List<ShopTotal> sumStockValueByShop();
+
+    /**
+     * Both ends come straight from the (shop_id, id) index.
+     */
+    @Query("SELECT new org.example.shopproject.model.projection.IdRange(MIN(p.id), MAX(p.id)) FROM Product p " +
+            "WHERE p.shop.id = :shopId")
+    IdRange findIdRangeInShop(@Param("shopId") long shopId);
+
+    /**
+     * Available products of the shop from {@code fromId} on, in id order; with a page of size one this seeks into the
+     * (shop_id, id) index instead of skipping rows like an offset would. The rows it passes over are only the
+     * unavailable ones right after {@code fromId}.
+     */
+    @Query("SELECT p FROM Product p WHERE p.shop.id = :shopId AND p.id >= :fromId " +
+            "AND p.quantity > 0 AND p.isExpired = false AND p.name NOT IN :excludedNames ORDER BY p.id")
+    List<Product> findAvailableInShopFrom(@Param("shopId") long shopId, @Param("fromId") long fromId,
+                                          @Param("excludedNames") Collection<String> excludedNames, Pageable pageable);
+
+    // The sampled Product is managed by the caller's persistence context; clearing it after the update keeps later
+    // reads in the same transaction (batch groups) from seeing the quantity and version from before the reservation
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount, p.version = p.version + 1 " +
+            "WHERE p.id = :productId AND p.quantity >= :amount")
+    int reserveStock(@Param("productId") long productId, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :amount, p.version = p.version + 1 " +
+            "WHERE p.id = :productId")
+    int returnStock(@Param("productId") long productId, @Param("amount") int amount);
+
+    /**
+     * Products that are past their expire date but not yet marked, per shop. Uses the (is_expired, expire_date) index.
+     */
+    @Query("SELECT new org.example.shopproject.model.projection.ExpiredStock(s.id, COUNT(p), SUM(p.quantity)) " +
+            "FROM Product p LEFT JOIN p.shop s WHERE p.isExpired = false AND p.expireDate < :today GROUP BY s.id")
+    List<ExpiredStock> findExpiring(@Param("today") LocalDate today);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.isExpired = true, p.version = p.version + 1 " +
+            "WHERE p.isExpired = false AND p.expireDate < :today")
+    int markExpired(@Param("today") LocalDate today);
 }
@@ -1,9 +1,60 @@
 package org.example.shopproject.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.shopproject.model.entity.Receipt;
+import org.example.shopproject.model.projection.ReceiptSummary;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * History queries seek past the last (issuedDate, id) pair of the previous page instead of using an offset,
+ * so every page is an index range scan on the receipts indexes no matter how deep into the history it is.
+ * Shop history filters on the shop the receipt was issued in, not on the cashier's current shop.
+ */
 @Repository
 public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
+    String SUMMARY = "SELECT new org.example.shopproject.model.projection.ReceiptSummary(" +
+            "r.id, r.issuedDate, r.price, c.id, c.firstName, c.lastName) FROM Receipt r JOIN r.cashier c ";
+    String SEEK = " AND r.issuedDate < :to " +
+            "AND (r.issuedDate > :afterDate OR (r.issuedDate = :afterDate AND r.id > :afterId)) " +
+            "ORDER BY r.issuedDate, r.id";
+    String RANGE = " AND r.issuedDate >= :from AND r.issuedDate < :to ORDER BY r.issuedDate, r.id";
+    String STREAM_FETCH_SIZE = "500";
+
+    @Query(SUMMARY + "WHERE c.id = :ownerId" + SEEK)
+    List<ReceiptSummary> findPageByCashier(@Param("ownerId") long cashierId, @Param("to") LocalDateTime to,
+                                           @Param("afterDate") LocalDateTime afterDate, @Param("afterId") long afterId,
+                                           Limit limit);
+
+    @Query(SUMMARY + "WHERE r.shop.id = :ownerId" + SEEK)
+    List<ReceiptSummary> findPageByShop(@Param("ownerId") long shopId, @Param("to") LocalDateTime to,
+                                        @Param("afterDate") LocalDateTime afterDate, @Param("afterId") long afterId,
+                                        Limit limit);
+
+    @Query(SUMMARY + "WHERE 1 = 1" + SEEK)
+    List<ReceiptSummary> findPage(@Param("to") LocalDateTime to, @Param("afterDate") LocalDateTime afterDate,
+                                  @Param("afterId") long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SUMMARY + "WHERE c.id = :ownerId" + RANGE)
+    Stream<ReceiptSummary> streamByCashier(@Param("ownerId") long cashierId, @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SUMMARY + "WHERE r.shop.id = :ownerId" + RANGE)
+    Stream<ReceiptSummary> streamByShop(@Param("ownerId") long shopId, @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SUMMARY + "WHERE 1 = 1" + RANGE)
+    Stream<ReceiptSummary> streamAll(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
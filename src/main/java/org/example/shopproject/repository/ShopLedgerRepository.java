@@ -0,0 +1,48 @@
+package org.example.shopproject.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.shopproject.model.entity.ShopLedger;
+import org.example.shopproject.model.projection.ShopBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ShopLedgerRepository extends JpaRepository<ShopLedger, Long> {
+    Optional<ShopLedger> findByShopId(long shopId);
+
+    // A locking read sees rows committed after the transaction's snapshot (MySQL REPEATABLE READ)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM ShopLedger l WHERE l.shop.id = :shopId")
+    Optional<ShopLedger> findLockedByShopId(@Param("shopId") long shopId);
+
+    @Query("SELECT new org.example.shopproject.model.projection.ShopBalance(s.id, s.name, " +
+            "COALESCE(l.boughtStock + l.salaries, 0.0), COALESCE(l.checkoutEarnings, 0.0)) " +
+            "FROM Shop s LEFT JOIN ShopLedger l ON l.shop = s ORDER BY s.id")
+    List<ShopBalance> findAllBalances();
+
+    @Modifying
+    @Query("UPDATE ShopLedger l SET l.boughtStock = l.boughtStock + CAST(:amount AS double) WHERE l.shop.id = :shopId")
+    int addBoughtStock(@Param("shopId") long shopId, @Param("amount") double amount);
+
+    @Modifying
+    @Query("UPDATE ShopLedger l SET l.salaries = l.salaries + CAST(:amount AS double) WHERE l.shop.id = :shopId")
+    int addSalaries(@Param("shopId") long shopId, @Param("amount") double amount);
+
+    @Modifying
+    @Query("UPDATE ShopLedger l SET l.checkoutEarnings = l.checkoutEarnings + CAST(:amount AS double) WHERE l.shop.id = :shopId")
+    int addCheckoutEarnings(@Param("shopId") long shopId, @Param("amount") double amount);
+
+    @Modifying
+    @Query("UPDATE ShopLedger l SET l.boughtStock = l.boughtStock + CAST(:boughtStock AS double), " +
+            "l.salaries = l.salaries + CAST(:salaries AS double), " +
+            "l.checkoutEarnings = l.checkoutEarnings + CAST(:checkoutEarnings AS double) WHERE l.shop.id = :shopId")
+    int addCorrection(@Param("shopId") long shopId, @Param("boughtStock") double boughtStock,
+                      @Param("salaries") double salaries, @Param("checkoutEarnings") double checkoutEarnings);
+}
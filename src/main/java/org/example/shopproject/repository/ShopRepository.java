@@ -1,16 +1,46 @@
 package org.example.shopproject.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.example.shopproject.model.entity.Product;
 import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.projection.ShopSummary;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 
 public interface ShopRepository extends JpaRepository<Shop, Long> {
+    // The cacheable hints only take effect when the query cache is enabled (see application-l2cache.properties)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Shop> findByName(String name);
 
+    @EntityGraph("Shop.settlement")
+    Optional<Shop> findForSettlementById(long id);
+
+    @EntityGraph("Shop.queues")
+    Optional<Shop> findForQueuesById(long id);
+
+    @EntityGraph("Shop.finance")
+    @Query("SELECT s FROM Shop s ORDER BY s.id")
+    List<Shop> findAllForFinance();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("SELECT new org.example.shopproject.model.projection.ShopSummary(s.id, s.name) FROM Shop s ORDER BY s.id")
+    List<ShopSummary> findAllSummaries();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Shop s WHERE s.id = :id")
+    Optional<Shop> findLockedById(@Param("id") long id);
+
+    @Query("SELECT s FROM Shop s WHERE NOT EXISTS (SELECT l FROM ShopLedger l WHERE l.shop = s) ORDER BY s.id")
+    List<Shop> findAllWithoutLedger();
 }
@@ -0,0 +1,103 @@
+package org.example.shopproject.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnConflict} methods whose transaction lost an optimistic lock race, up to
+ * {@code shop.retry.max-attempts} attempts in total. The n-th retry waits a random time between half and all of
+ * {@code shop.retry.initial-backoff-ms} * 2^(n-1), capped at {@code shop.retry.max-backoff-ms}, so colliding callers
+ * do not collide again. The aspect runs outside the transaction (but inside the statement budget), so every attempt
+ * gets a fresh transaction and persistence context. A call made inside an already running transaction is not
+ * retried: the conflict belongs to the outer transaction, which has to start over as a whole.
+ * Conflicts, retries and calls that gave up are counted per method as {@code shop.optimistic.conflicts},
+ * {@code shop.optimistic.retries} and {@code shop.optimistic.exhausted}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "shop.retry.enabled", havingValue = "true", matchIfMissing = true)
+public class OptimisticRetryAspect {
+    static final String CONFLICTS = "shop.optimistic.conflicts";
+    static final String RETRIES = "shop.optimistic.retries";
+    static final String EXHAUSTED = "shop.optimistic.exhausted";
+    private static final Logger LOGGER = LoggerFactory.getLogger(OptimisticRetryAspect.class);
+
+    private final MeterRegistry registry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryAspect(MeterRegistry registry,
+                                 @Value("${shop.retry.max-attempts:5}") int maxAttempts,
+                                 @Value("${shop.retry.initial-backoff-ms:5}") long initialBackoffMillis,
+                                 @Value("${shop.retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.registry = registry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @Around("@annotation(org.example.shopproject.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                counter(CONFLICTS, method).increment();
+                if (attempt >= this.maxAttempts) {
+                    counter(EXHAUSTED, method).increment();
+                    LOGGER.warn("{} gave up after {} optimistic lock conflicts", method, attempt);
+                    throw e;
+                }
+                counter(RETRIES, method).increment();
+                if (!backOff(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    long backoffCeiling(int attempt) {
+        long ceiling = this.initialBackoffMillis << Math.min(attempt - 1, 30);
+        return Math.min(ceiling, this.maxBackoffMillis);
+    }
+
+    private boolean backOff(int attempt) {
+        long ceiling = backoffCeiling(attempt);
+        if (ceiling <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter counter(String name, String method) {
+        return Counter.builder(name).tag("method", method).register(this.registry);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.shopproject.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method that changes versioned entities. When its transaction fails on an optimistic
+ * lock conflict, {@link OptimisticRetryAspect} runs the whole method again in a new transaction after a backoff.
+ * The method must not have effects outside the transaction that a retry would repeat.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,120 @@
+package org.example.shopproject.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Opens N sessions against a running {@link CommandServer} and sends the same script through each of them.
+ * Every occurrence of {@code {session}} in the script is replaced with the session number (1..N), so each
+ * session can work on its own shop. Usage: {@code CommandLoadClient <host> <port> <sessions> <script file>}.
+ */
+public final class CommandLoadClient {
+    private static final String SESSION_PLACEHOLDER = "{session}";
+
+    private CommandLoadClient() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> script = Files.readAllLines(Paths.get(args[3]));
+        System.out.println(run(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]), script));
+    }
+
+    public static LoadReport run(String host, int port, int sessions, List<String> script)
+            throws InterruptedException, ExecutionException {
+        List<List<String>> sessionScripts = new ArrayList<>(sessions);
+        for (int session = 1; session <= sessions; session++) {
+            sessionScripts.add(personalize(script, session));
+        }
+        return run(host, port, sessionScripts);
+    }
+
+    /**
+     * Runs one session per script, for callers that already know which ids each session works on.
+     */
+    public static LoadReport run(String host, int port, List<List<String>> sessionScripts)
+            throws InterruptedException, ExecutionException {
+        int sessions = sessionScripts.size();
+        ExecutorService executor = Executors.newFixedThreadPool(sessions);
+        CountDownLatch connected = new CountDownLatch(sessions);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<Long>> results = new ArrayList<>(sessions);
+            for (List<String> lines : sessionScripts) {
+                results.add(executor.submit(() -> runSession(host, port, lines, connected, go)));
+            }
+            // Connections are opened before the clock starts, so the number is command throughput only
+            connected.await();
+            long start = System.nanoTime();
+            go.countDown();
+            long commands = 0;
+            for (Future<Long> result : results) {
+                commands += result.get();
+            }
+            return new LoadReport(sessions, commands, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long runSession(String host, int port, List<String> lines, CountDownLatch connected,
+                                   CountDownLatch go) throws IOException, InterruptedException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            connected.countDown();
+            go.await();
+            long commands = 0;
+            for (String line : lines) {
+                out.write(line);
+                out.write('\n');
+                out.flush();
+                if (CommandProtocol.readResponse(in) == null) {
+                    throw new UncheckedIOException(new IOException("Server closed the session"));
+                }
+                commands++;
+            }
+            out.write(CommandProtocol.EXIT);
+            out.write('\n');
+            out.flush();
+            return commands;
+        }
+    }
+
+    private static List<String> personalize(List<String> script, int session) {
+        List<String> lines = new ArrayList<>(script.size());
+        for (String line : script) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                lines.add(line.replace(SESSION_PLACEHOLDER, String.valueOf(session)));
+            }
+        }
+        return lines;
+    }
+
+    public record LoadReport(int sessions, long commands, long elapsedNanos) {
+        public double commandsPerSecond() {
+            return this.commands / (this.elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sessions: %d, commands: %d, elapsed: %.3f s, throughput: %.0f commands/sec",
+                    this.sessions, this.commands, this.elapsedNanos / 1e9, commandsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.shopproject.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Line protocol shared by {@link CommandServer} and {@link CommandLoadClient}.
+ * <p>
+ * Requests are console command lines. Every response is the console output followed by a line holding a single
+ * {@code .}; response lines that start with a dot get one more dot in front, as in SMTP.
+ */
+final class CommandProtocol {
+    static final String END_OF_RESPONSE = ".";
+    static final String EXIT = "Exit";
+
+    private CommandProtocol() {
+    }
+
+    static void writeResponse(Writer out, String result) throws IOException {
+        int start = 0;
+        while (start < result.length()) {
+            int end = result.indexOf('\n', start);
+            end = end < 0 ? result.length() : end;
+            if (result.charAt(start) == '.') {
+                out.write('.');
+            }
+            out.write(result, start, end - start);
+            out.write('\n');
+            start = end + 1;
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Returns the response text, or null if the server closed the connection.
+     */
+    static String readResponse(BufferedReader in) throws IOException {
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(END_OF_RESPONSE)) {
+                return response.toString();
+            }
+            response.append(line.startsWith(".") ? line.substring(1) : line).append('\n');
+        }
+        return null;
+    }
+}
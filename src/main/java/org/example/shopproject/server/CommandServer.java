@@ -0,0 +1,148 @@
+package org.example.shopproject.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts console commands over TCP on the loopback interface, one session per connection.
+ * Each session gets its own thread from a pool of {@code shop.server.max-sessions}. A connection beyond that is
+ * answered with {@link #BUSY} and closed straight away, and logged, instead of waiting unseen behind sessions that
+ * may never end. Commands go through the {@link ShopCommandSerializer}.
+ */
+@Component
+@ConditionalOnProperty(name = "shop.server.enabled", havingValue = "true")
+public class CommandServer implements DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandServer.class);
+    static final String BUSY = "Server is busy, too many sessions!\n";
+
+    private final ShopCommandSerializer serializer;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Thread acceptThread;
+    private final Semaphore sessionPermits;
+    private final int maxSessions;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final AtomicLong commandCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private volatile boolean closed;
+
+    public CommandServer(ShopCommandSerializer serializer,
+                         @Value("${shop.server.port:7070}") int port,
+                         @Value("${shop.server.max-sessions:64}") int maxSessions) throws IOException {
+        this.serializer = serializer;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.maxSessions = maxSessions;
+        this.sessionPermits = new Semaphore(maxSessions);
+        AtomicInteger sessionNumber = new AtomicInteger();
+        this.sessions = Executors.newFixedThreadPool(maxSessions,
+                runnable -> new Thread(runnable, "command-session-" + sessionNumber.incrementAndGet()));
+        this.acceptThread = new Thread(this::acceptLoop, "command-server");
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+        LOGGER.info("Command server listening on port {}", getPort());
+    }
+
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    public long getCommandCount() {
+        return this.commandCount.get();
+    }
+
+    public int getActiveSessionCount() {
+        return this.maxSessions - this.sessionPermits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        this.closed = true;
+        this.serverSocket.close();
+        for (Socket socket : this.openSockets) {
+            socket.close();
+        }
+        this.sessions.shutdown();
+        this.sessions.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void acceptLoop() {
+        while (!this.closed) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                if (!this.sessionPermits.tryAcquire()) {
+                    reject(socket);
+                    continue;
+                }
+                this.openSockets.add(socket);
+                this.sessions.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!this.closed) {
+                    LOGGER.error("Could not accept command connection", e);
+                }
+            }
+        }
+    }
+
+    private void reject(Socket socket) {
+        this.rejectedCount.incrementAndGet();
+        LOGGER.warn("Rejecting command connection from {}, all {} sessions are in use",
+                socket.getRemoteSocketAddress(), this.maxSessions);
+        try (socket;
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            CommandProtocol.writeResponse(out, BUSY);
+        } catch (IOException e) {
+            // The client is gone already
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.strip().split(" ");
+                if (tokens[0].equals(CommandProtocol.EXIT)) {
+                    break;
+                }
+                CommandProtocol.writeResponse(out, this.serializer.execute(tokens));
+                this.commandCount.incrementAndGet();
+            }
+        } catch (SocketException e) {
+            // Client went away or the server is shutting down
+        } catch (IOException e) {
+            LOGGER.error("Command session failed", e);
+        } finally {
+            this.openSockets.remove(socket);
+            this.sessionPermits.release();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.shopproject.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.shopproject.core.CommandDispatcher;
+import org.example.shopproject.repository.CashierRepository;
+import org.example.shopproject.repository.CheckoutRepository;
+import org.example.shopproject.repository.ClientRepository;
+import org.example.shopproject.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs commands from concurrent sessions so that commands touching the same shop never overlap,
+ * while commands for different shops run in parallel. Commands that do not belong to a shop yet
+ * (adding shops, products, clients...) and reports run without a lock.
+ * <p>
+ * Each shop id is hashed to one of {@code shop.server.lock-stripes} locks (its lane), so the number of locks stays
+ * fixed however many shops there are. Two shops that share a stripe are serialized as well; the
+ * {@code shop.lane.acquisitions} counter (tagged contended true/false) and the {@code shop.lane.wait} timer show how
+ * often a command had to wait for its lane and for how long, so more stripes can be configured when that grows.
+ * <p>
+ * AssignToShop touches two shops, the one the object leaves and the one it joins, so it holds both lanes. Lanes are
+ * always taken in stripe index order, which keeps two such commands moving objects in opposite directions from
+ * deadlocking each other. The shops are looked up again once their lanes are held, and the lanes are released and
+ * taken anew if the object changed shops in the meantime.
+ */
+@Component
+public class ShopCommandSerializer {
+    static final String ACQUISITIONS = "shop.lane.acquisitions";
+    static final String WAIT = "shop.lane.wait";
+
+    private final CommandDispatcher dispatcher;
+    private final ClientRepository clientRepository;
+    private final CheckoutRepository checkoutRepository;
+    private final CashierRepository cashierRepository;
+    private final ProductRepository productRepository;
+    private final ReentrantLock[] stripes;
+    private final Counter uncontended;
+    private final Counter contended;
+    private final Timer waitTimer;
+
+    public ShopCommandSerializer(CommandDispatcher dispatcher, ClientRepository clientRepository,
+                                 CheckoutRepository checkoutRepository, CashierRepository cashierRepository,
+                                 ProductRepository productRepository, MeterRegistry registry,
+                                 @Value("${shop.server.lock-stripes:64}") int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("The number of lock stripes must be a power of two!");
+        }
+        this.dispatcher = dispatcher;
+        this.clientRepository = clientRepository;
+        this.checkoutRepository = checkoutRepository;
+        this.cashierRepository = cashierRepository;
+        this.productRepository = productRepository;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.uncontended = Counter.builder(ACQUISITIONS).tag("contended", "false").register(registry);
+        this.contended = Counter.builder(ACQUISITIONS).tag("contended", "true").register(registry);
+        this.waitTimer = Timer.builder(WAIT).register(registry);
+    }
+
+    public String execute(String[] tokens) {
+        TreeSet<Integer> lanes = lanesOf(tokens);
+        while (true) {
+            for (int lane : lanes) {
+                acquire(this.stripes[lane]);
+            }
+            TreeSet<Integer> current;
+            try {
+                // The owning shop was looked up before its lane was held, so another command may have moved the
+                // object in between; the command only runs if the lanes still match the shops that own it now
+                current = lanesOf(tokens);
+                if (current.equals(lanes)) {
+                    return this.dispatcher.dispatch(tokens);
+                }
+            } finally {
+                for (int lane : lanes.descendingSet()) {
+                    this.stripes[lane].unlock();
+                }
+            }
+            lanes = current;
+        }
+    }
+
+    private TreeSet<Integer> lanesOf(String[] tokens) {
+        List<Long> shopIds;
+        try {
+            shopIds = resolveShopIds(tokens);
+        } catch (RuntimeException e) {
+            // Malformed arguments: let the dispatcher report them the way the console does
+            shopIds = List.of();
+        }
+        TreeSet<Integer> lanes = new TreeSet<>();
+        for (long shopId : shopIds) {
+            lanes.add(stripeIndexOf(shopId));
+        }
+        return lanes;
+    }
+
+    /**
+     * The shops whose state the command changes; empty for commands that run without a lock.
+     */
+    List<Long> resolveShopIds(String[] tokens) {
+        return switch (tokens[0]) {
+            case "GoToQueue", "Buy" -> List.of(Long.parseLong(tokens[1]));
+            case "AssignToShop" -> {
+                long target = Long.parseLong(tokens[3]);
+                Optional<Long> current = currentShopOf(tokens[1], Long.parseLong(tokens[2]));
+                yield current.isEmpty() || current.get() == target ? List.of(target) : List.of(current.get(), target);
+            }
+            case "AddProductToClient" -> this.clientRepository.findShopIdById(Long.parseLong(tokens[1]))
+                    .map(List::of).orElse(List.of());
+            case "AddCashierToCheckout" -> this.checkoutRepository.findShopIdById(Long.parseLong(tokens[2]))
+                    .map(List::of).orElse(List.of());
+            default -> List.of();
+        };
+    }
+
+    private Optional<Long> currentShopOf(String nameOfObject, long objectId) {
+        return switch (nameOfObject) {
+            case "Client" -> this.clientRepository.findShopIdById(objectId);
+            case "Product" -> this.productRepository.findShopIdById(objectId);
+            case "Cashier" -> this.cashierRepository.findShopIdById(objectId);
+            case "Checkout" -> this.checkoutRepository.findShopIdById(objectId);
+            default -> Optional.empty();
+        };
+    }
+
+    ReentrantLock stripeOf(long shopId) {
+        return this.stripes[stripeIndexOf(shopId)];
+    }
+
+    private int stripeIndexOf(long shopId) {
+        // Ids are sequential, so the high bits are mixed in before masking to spread neighbouring shops
+        long hash = shopId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (this.stripes.length - 1);
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            this.uncontended.increment();
+            return;
+        }
+        this.contended.increment();
+        long start = System.nanoTime();
+        lock.lock();
+        this.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
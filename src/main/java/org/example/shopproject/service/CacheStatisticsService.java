@@ -0,0 +1,5 @@
+package org.example.shopproject.service;
+
+public interface CacheStatisticsService {
+    String report();
+}
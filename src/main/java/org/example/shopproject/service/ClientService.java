@@ -8,4 +8,6 @@ public interface ClientService {
     String assignToShop(long objectId, long shopId);
 
     String addProductToClient(long clientId);
+
+    String reportStockReservations();
 }
@@ -0,0 +1,22 @@
+package org.example.shopproject.service;
+
+import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.model.projection.ProductSummary;
+
+import java.util.Optional;
+
+public interface ProductCatalog {
+    Optional<ProductSummary> findByName(String name);
+
+    Optional<ProductSummary> findById(long productId);
+
+    void put(Product product);
+
+    void evict(long productId);
+
+    long getHitCount();
+
+    long getMissCount();
+
+    String report();
+}
@@ -0,0 +1,11 @@
+package org.example.shopproject.service;
+
+import java.time.LocalDate;
+
+public interface ProductExpiryService {
+    String sweep(LocalDate today);
+
+    long getExpiredCount();
+
+    String report();
+}
@@ -0,0 +1,7 @@
+package org.example.shopproject.service;
+
+import java.nio.file.Path;
+
+public interface ProductImportService {
+    String importProducts(Path file);
+}
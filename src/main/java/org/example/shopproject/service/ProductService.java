@@ -6,4 +6,6 @@ public interface ProductService {
     String addProduct(Product product);
 
     String assignToShop(long objectId, long shopId);
+
+    String reportCatalog();
 }
@@ -1,7 +1,35 @@
 package org.example.shopproject.service;
 
 import org.example.shopproject.model.entity.Receipt;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
+import org.example.shopproject.model.projection.ReceiptHistoryPage;
+import org.example.shopproject.model.projection.ReceiptSummary;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
 
 public interface ReceiptService {
     String addReceipt(Receipt receipt);
+
+    String exportReceipt(long serialNumber);
+
+    /**
+     * Returns up to {@code pageSize} receipts issued in [from, to) after the given cursor, oldest first.
+     * Pass a null cursor for the first page; {@code ownerId} is ignored for {@link ReceiptHistoryScope#ALL}.
+     */
+    ReceiptHistoryPage findHistory(ReceiptHistoryScope scope, long ownerId, LocalDateTime from, LocalDateTime to,
+                                   ReceiptCursor after, int pageSize);
+
+    /**
+     * Feeds every receipt issued in [from, to) to the consumer one row at a time and returns how many there were.
+     */
+    long streamHistory(ReceiptHistoryScope scope, long ownerId, LocalDateTime from, LocalDateTime to,
+                       Consumer<ReceiptSummary> consumer);
+
+    String printHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to, int pageSize,
+                        ReceiptCursor after);
+
+    String exportHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to);
 }
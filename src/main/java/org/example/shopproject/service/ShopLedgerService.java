@@ -0,0 +1,17 @@
+package org.example.shopproject.service;
+
+import org.example.shopproject.model.entity.Shop;
+
+public interface ShopLedgerService {
+    void openLedger(Shop shop);
+
+    int openMissingLedgers();
+
+    void recordBoughtStock(Shop shop, double amount);
+
+    void recordSalary(Shop shop, double salary);
+
+    void recordCheckoutEarnings(Shop shop, double amount);
+
+    String reconcile();
+}
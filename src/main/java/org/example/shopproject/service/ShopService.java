@@ -5,7 +5,9 @@ import org.example.shopproject.model.entity.Shop;
 public interface ShopService {
     String addShop(Shop shop);
 
-    String buy(long clientId);
+    String buy(long shopId);
 
     String calculateMoney();
+
+    String reconcileLedger();
 }
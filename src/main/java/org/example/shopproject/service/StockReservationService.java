@@ -0,0 +1,11 @@
+package org.example.shopproject.service;
+
+public interface StockReservationService {
+    boolean reserve(long productId, int quantity);
+
+    long getReservedCount();
+
+    long getContendedCount();
+
+    String report();
+}
@@ -0,0 +1,54 @@
+package org.example.shopproject.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.shopproject.service.CacheStatisticsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+
+/**
+ * Reports hits, misses and puts of every second-level cache region and of the query cache.
+ * The numbers are only collected when the "l2cache" profile is active.
+ */
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+    private final SessionFactory sessionFactory;
+
+    public CacheStatisticsServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    public String report() {
+        Statistics statistics = this.sessionFactory.getStatistics();
+        if (!isSecondLevelCacheEnabled() || !statistics.isStatisticsEnabled()) {
+            return "Second-level cache statistics are disabled!\n";
+        }
+        StringBuilder sb = new StringBuilder();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            appendRegion(sb, regionName, region.getHitCount(), region.getMissCount(), region.getPutCount());
+        }
+        appendRegion(sb, "query cache", statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount());
+        return sb.toString();
+    }
+
+    private boolean isSecondLevelCacheEnabled() {
+        // The setting may arrive as a String from the properties files or as a Boolean set in code
+        Object setting = this.sessionFactory.getProperties().get(AvailableSettings.USE_SECOND_LEVEL_CACHE);
+        return setting != null && Boolean.parseBoolean(setting.toString());
+    }
+
+    private static void appendRegion(StringBuilder sb, String name, long hits, long misses, long puts) {
+        long lookups = hits + misses;
+        double hitRatio = lookups == 0 ? 0 : 100.0 * hits / lookups;
+        sb.append(String.format("%s: hits %d, misses %d, puts %d, hit ratio %.2f%%\n", name, hits, misses, puts, hitRatio));
+    }
+}
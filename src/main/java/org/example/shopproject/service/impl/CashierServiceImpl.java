@@ -6,8 +6,10 @@ import org.example.shopproject.repository.CheckoutRepository;
 import org.example.shopproject.repository.ClientRepository;
 import org.example.shopproject.repository.ShopRepository;
 import org.example.shopproject.service.CashierService;
+import org.example.shopproject.service.ShopLedgerService;
 import org.example.shopproject.util.ValidationUtil;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -18,11 +20,13 @@ public class CashierServiceImpl implements CashierService {
     private final CashierRepository cashierRepository;
     private final ValidationUtil validationUtil;
     private final ShopRepository shopRepository;
+    private final ShopLedgerService shopLedgerService;
 
-    public CashierServiceImpl(CashierRepository cashierRepository, ValidationUtil validationUtil, ShopRepository shopRepository, CheckoutRepository checkoutRepository, ClientRepository clientRepository) {
+    public CashierServiceImpl(CashierRepository cashierRepository, ValidationUtil validationUtil, ShopRepository shopRepository, CheckoutRepository checkoutRepository, ClientRepository clientRepository, ShopLedgerService shopLedgerService) {
         this.cashierRepository = cashierRepository;
         this.validationUtil = validationUtil;
         this.shopRepository = shopRepository;
+        this.shopLedgerService = shopLedgerService;
     }
 
     @Override
@@ -39,6 +43,7 @@ public class CashierServiceImpl implements CashierService {
     }
 
     @Override
+    @Transactional
     public String assignToShop(long cashierId, long shopId) {
         Optional<Cashier> optionalCashier = this.cashierRepository.findById(cashierId);
         if (optionalCashier.isEmpty()) {
@@ -59,6 +64,7 @@ public class CashierServiceImpl implements CashierService {
 
         this.cashierRepository.save(cashier);
         this.shopRepository.save(shop);
+        this.shopLedgerService.recordSalary(shop, cashier.getSalary());
         return String.format("Successfully assigned cashier %s %s to shop %s!\n",
                 cashier.getFirstName(), cashier.getLastName(), shop.getName());
     }
@@ -5,12 +5,19 @@ import org.example.shopproject.repository.CashierRepository;
 import org.example.shopproject.repository.CheckoutRepository;
 import org.example.shopproject.repository.ClientRepository;
 import org.example.shopproject.repository.ShopRepository;
+import org.example.shopproject.retry.RetryOnConflict;
 import org.example.shopproject.service.CheckoutService;
 import org.example.shopproject.util.ValidationUtil;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Random;
+import java.util.Set;
 
 @Service
 public class CheckoutServiceImpl implements CheckoutService {
@@ -42,12 +49,14 @@ public class CheckoutServiceImpl implements CheckoutService {
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public String addCashierToCheckout(long cashierId, long checkoutId) {
-        Optional<Cashier> optionalCashier = this.cashierRepository.findById(cashierId);
+        Optional<Cashier> optionalCashier = this.cashierRepository.findForAssignmentById(cashierId);
         if (optionalCashier.isEmpty()) {
             return "Cashier does not exist!\n";
         }
-        Optional<Checkout> optionalCheckout = this.checkoutRepository.findById(checkoutId);
+        Optional<Checkout> optionalCheckout = this.checkoutRepository.findForAssignmentById(checkoutId);
         if (optionalCheckout.isEmpty()) {
             return "Checkout does not exist!\n";
         }
@@ -85,6 +94,8 @@ public class CheckoutServiceImpl implements CheckoutService {
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public String assignToShop(long checkoutId, long shopId) {
         Optional<Checkout> optionalCheckout = this.checkoutRepository.findById(checkoutId);
         if (optionalCheckout.isEmpty()) {
@@ -111,40 +122,68 @@ public class CheckoutServiceImpl implements CheckoutService {
         return String.format("Checkout with id: %d successfully assigned to shop %s!\n", checkout.getId(), shop.getName());
     }
 
+    /**
+     * Sends every client with a non-empty cart to the checkout with the shortest queue.
+     * Checkouts sit in a min-heap keyed by (queue length, checkout number), which picks the same checkout
+     * as a linear scan for the shortest queue (ties go to the lowest number) in O(log checkouts) per client.
+     * All assignments are written with one saveAll per repository.
+     */
     @Override
+    @Transactional
+    @RetryOnConflict
     public String goToQueue(long shopId) {
-        Optional<Shop> optionalShop = this.shopRepository.findById(shopId);
-        if (optionalShop.isPresent()) {
-            Shop shop = optionalShop.get();
-            if (!shop.getCheckouts().isEmpty()) {
-                StringBuilder sb = new StringBuilder();
-                for (Client client : shop.getClients()) {
-                    if (!client.getProducts().isEmpty()) {
-
-                        Checkout checkoutWithLeastClients = shop.getCheckouts().get(0);
-                        for (Checkout checkout : shop.getCheckouts()) {
-                            if (checkout.getCashier() != null) {
-                                if (checkout.getClients().size() < checkoutWithLeastClients.getClients().size()) {
-                                    checkoutWithLeastClients = checkout;
-                                }
-                            } else {
-                                return "Checkout does not have a cashier assigned to it!\n";
-                            }
-                        }
-                        client.setCheckout(checkoutWithLeastClients);
-                        checkoutWithLeastClients.getClients().add(client);
-                        sb.append(String.format("Client: %d assigned to checkout: %d",
-                                        client.getId(), shop.getCheckouts().indexOf(checkoutWithLeastClients) + 1))
-                                .append(System.lineSeparator());
-                        this.checkoutRepository.save(checkoutWithLeastClients);
-                        this.clientRepository.save(client);
-                    }
-                }
-                return sb.toString();
-            }
+        Optional<Shop> optionalShop = this.shopRepository.findForQueuesById(shopId);
+        if (optionalShop.isEmpty()) {
+            return "Shop doesn't exist!\n";
+        }
+        Shop shop = optionalShop.get();
+        List<Checkout> checkouts = shop.getCheckouts();
+        if (checkouts.isEmpty()) {
             return "Shop doesn't have any checkouts!\n";
         }
-        return "Shop doesn't exist!\n";
+
+        List<Client> waitingClients = new ArrayList<>();
+        for (Client client : shop.getClients()) {
+            if (!client.getProducts().isEmpty()) {
+                waitingClients.add(client);
+            }
+        }
+        if (waitingClients.isEmpty()) {
+            return "";
+        }
+        PriorityQueue<CheckoutLoad> checkoutLoads = new PriorityQueue<>(checkouts.size());
+        for (int i = 0; i < checkouts.size(); i++) {
+            Checkout checkout = checkouts.get(i);
+            if (checkout.getCashier() == null) {
+                return "Checkout does not have a cashier assigned to it!\n";
+            }
+            checkoutLoads.add(new CheckoutLoad(checkout, i + 1, checkout.getClients().size()));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        Set<Checkout> assignedCheckouts = new LinkedHashSet<>();
+        for (Client client : waitingClients) {
+            CheckoutLoad leastLoaded = checkoutLoads.poll();
+            Checkout checkout = leastLoaded.checkout();
+            client.setCheckout(checkout);
+            checkout.getClients().add(client);
+            assignedCheckouts.add(checkout);
+            checkoutLoads.add(new CheckoutLoad(checkout, leastLoaded.number(), leastLoaded.clients() + 1));
+
+            sb.append("Client: ").append(client.getId())
+                    .append(" assigned to checkout: ").append(leastLoaded.number())
+                    .append(System.lineSeparator());
+        }
+        this.checkoutRepository.saveAll(assignedCheckouts);
+        this.clientRepository.saveAll(waitingClients);
+        return sb.toString();
     }
 
-}
\ No newline at end of file
+    private record CheckoutLoad(Checkout checkout, int number, int clients) implements Comparable<CheckoutLoad> {
+        @Override
+        public int compareTo(CheckoutLoad other) {
+            int byClients = Integer.compare(this.clients, other.clients);
+            return byClients != 0 ? byClients : Integer.compare(this.number, other.number);
+        }
+    }
+}
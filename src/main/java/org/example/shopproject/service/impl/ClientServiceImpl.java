@@ -1,16 +1,25 @@
 package org.example.shopproject.service.impl;
 
 import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.projection.IdRange;
 import org.example.shopproject.repository.ClientProductRepository;
 import org.example.shopproject.repository.ClientRepository;
 import org.example.shopproject.repository.ProductRepository;
 import org.example.shopproject.repository.ShopRepository;
+import org.example.shopproject.retry.RetryOnConflict;
 import org.example.shopproject.util.ValidationUtil;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.example.shopproject.service.ClientService;
+import org.example.shopproject.service.ShopLedgerService;
+import org.example.shopproject.service.StockReservationService;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 
 @Service
 public class ClientServiceImpl implements ClientService {
@@ -20,14 +29,18 @@ public class ClientServiceImpl implements ClientService {
     private final ShopRepository shopRepository;
     private final ProductRepository productRepository;
     private final ClientProductRepository clientProductRepository;
+    private final ShopLedgerService shopLedgerService;
+    private final StockReservationService stockReservationService;
 
-    public ClientServiceImpl(Random random, ClientRepository clientRepository, ValidationUtil validationUtil, ShopRepository shopRepository, ProductRepository productRepository, ClientProductRepository clientProductRepository) {
+    public ClientServiceImpl(Random random, ClientRepository clientRepository, ValidationUtil validationUtil, ShopRepository shopRepository, ProductRepository productRepository, ClientProductRepository clientProductRepository, ShopLedgerService shopLedgerService, StockReservationService stockReservationService) {
         this.random = random;
         this.clientRepository = clientRepository;
         this.validationUtil = validationUtil;
         this.shopRepository = shopRepository;
         this.productRepository = productRepository;
         this.clientProductRepository = clientProductRepository;
+        this.shopLedgerService = shopLedgerService;
+        this.stockReservationService = stockReservationService;
     }
 
     @Override
@@ -44,6 +57,8 @@ public class ClientServiceImpl implements ClientService {
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public String assignToShop(long clientId, long shopId) {
         Optional<Client> optionalClient = this.clientRepository.findById(clientId);
         Optional<Shop> optionalShop = this.shopRepository.findById(shopId);
@@ -70,6 +85,8 @@ public class ClientServiceImpl implements ClientService {
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public String addProductToClient(long clientId) {
         Optional<Client> optionalClient = this.clientRepository.findById(clientId);
 
@@ -77,34 +94,48 @@ public class ClientServiceImpl implements ClientService {
             Client client = optionalClient.get();
 
             if (client.getShop() != null) {
-                Shop shop = shopRepository.findById(client.getShop().getId()).get();
-                if (shop.getBoughtProducts().isEmpty()){
+                Shop shop = client.getShop();
+                // Products already in the cart are left out by the query, so a draw never hits a duplicate
+                Set<String> cartNames = new HashSet<>();
+                for (ClientProduct cartProduct : client.getProducts()) {
+                    cartNames.add(cartProduct.getName());
+                }
+                IdRange ids = this.productRepository.findIdRangeInShop(shop.getId());
+                if (ids.min() == null) {
                     return "shop is empty!\n";
                 }
-                long randomProductPos = random.nextLong(shop.getBoughtProducts().size());
-                if (randomProductPos >= shop.getBoughtProducts().size() || randomProductPos < 0) {
-                    return "Invalid product position!\n";
+                // Seek to the first available product from a random id on, wrapping around to the start of the shop
+                long fromId = ids.min() + random.nextLong(ids.max() - ids.min() + 1);
+                List<Product> sample = this.productRepository.findAvailableInShopFrom(shop.getId(), fromId, cartNames,
+                        PageRequest.of(0, 1));
+                if (sample.isEmpty() && fromId > ids.min()) {
+                    sample = this.productRepository.findAvailableInShopFrom(shop.getId(), ids.min(), cartNames,
+                            PageRequest.of(0, 1));
+                }
+                if (sample.isEmpty()) {
+                    return cartNames.isEmpty() ? "shop is empty!\n"
+                            : String.format("Client already has every product of shop %s in his cart!\n", shop.getName());
                 }
 
-                Product product = shop.getBoughtProducts().get(Math.toIntExact(randomProductPos));
+                Product product = sample.get(0);
                 ClientProduct clientProduct = new ClientProduct(product.getName(), product.getPrice(), product.getCategory(),
                         product.getExpireDate(), 0, product.isExpired(), product.getShop());
 
-                if (productExists(client, clientProduct)) {
-                    return String.format("Client already has product %s in his cart!\n", product.getName());
-                }
-
                 int requiredQuantity = random.nextInt(product.getQuantity() + 3) + 1;
 
                 if (requiredQuantity <= product.getQuantity()) {
-
+                    // The stock is taken in the database, the quantity read above may already be out of date.
+                    // The reservation clears the persistence context, so client and shop are detached from here on.
+                    if (!this.stockReservationService.reserve(product.getId(), requiredQuantity)) {
+                        return String.format("Product %s was taken by another client! Required quantity: %d\n",
+                                product.getName(), requiredQuantity);
+                    }
                     clientProduct.setQuantity(requiredQuantity);
-                    product.setQuantity(product.getQuantity() - clientProduct.getQuantity());
                     client.getProducts().add(clientProduct);
 
                     this.clientProductRepository.save(clientProduct);
-                    this.productRepository.save(product);
                     this.clientRepository.save(client);
+                    this.shopLedgerService.recordBoughtStock(shop, -product.getPrice() * requiredQuantity);
                     return String.format("Successfully added product %s to the client!\n", product.getName());
                 }
                 return String.format("Quantity not enough! Product: %s\n" +
@@ -119,14 +150,11 @@ public class ClientServiceImpl implements ClientService {
     }
 
 
-    private boolean productExists(Client client, ClientProduct product) {
-        for (ClientProduct currentProduct : client.getProducts()) {
-            if (currentProduct.getName().equals(product.getName())) {
-                return true;
-            }
-        }
-        return false;
+    @Override
+    public String reportStockReservations() {
+        return this.stockReservationService.report();
     }
 
 
+
 }
@@ -0,0 +1,113 @@
+package org.example.shopproject.service.impl;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.FinanceReportSource;
+import org.example.shopproject.model.projection.ShopBalance;
+import org.example.shopproject.model.projection.ShopSummary;
+import org.example.shopproject.model.projection.ShopTotal;
+import org.example.shopproject.repository.*;
+import org.example.shopproject.service.FinanceReportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the CalculateMoney report from the source selected by {@code shop.finance.source}.
+ * All sources print the same "expenses" and "earnings" lines per shop.
+ */
+@Service
+public class FinanceReportServiceImpl implements FinanceReportService {
+    private final ShopLedgerRepository shopLedgerRepository;
+    private final ShopRepository shopRepository;
+    private final ProductRepository productRepository;
+    private final CashierRepository cashierRepository;
+    private final CheckoutRepository checkoutRepository;
+    private final FinanceReportSource source;
+
+    public FinanceReportServiceImpl(ShopLedgerRepository shopLedgerRepository, ShopRepository shopRepository,
+                                    ProductRepository productRepository, CashierRepository cashierRepository,
+                                    CheckoutRepository checkoutRepository,
+                                    @Value("${shop.finance.source:LEDGER}") FinanceReportSource source) {
+        this.shopLedgerRepository = shopLedgerRepository;
+        this.shopRepository = shopRepository;
+        this.productRepository = productRepository;
+        this.cashierRepository = cashierRepository;
+        this.checkoutRepository = checkoutRepository;
+        this.source = source;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String calculateMoney() {
+        return switch (this.source) {
+            case LEDGER -> fromLedger();
+            case AGGREGATE -> fromAggregates();
+            case ENTITIES -> fromEntities();
+        };
+    }
+
+    /**
+     * Walks the shops rather than the ledgers, so a shop whose ledger is not open yet is still listed.
+     */
+    private String fromLedger() {
+        StringBuilder sb = new StringBuilder();
+        for (ShopBalance balance : this.shopLedgerRepository.findAllBalances()) {
+            appendShop(sb, balance.name(), balance.expenses(), balance.earnings());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lets the database sum stock value, salaries and earnings per shop, so no entity is loaded at all.
+     */
+    private String fromAggregates() {
+        Map<Long, Double> stockValues = toMap(this.productRepository.sumStockValueByShop());
+        Map<Long, Double> salaries = toMap(this.cashierRepository.sumSalariesByShop());
+        Map<Long, Double> earnings = toMap(this.checkoutRepository.sumEarningsByShop());
+
+        StringBuilder sb = new StringBuilder();
+        for (ShopSummary shop : this.shopRepository.findAllSummaries()) {
+            double expenses = stockValues.getOrDefault(shop.id(), 0.0) + salaries.getOrDefault(shop.id(), 0.0);
+            appendShop(sb, shop.name(), expenses, earnings.getOrDefault(shop.id(), 0.0));
+        }
+        return sb.toString();
+    }
+
+    private String fromEntities() {
+        StringBuilder sb = new StringBuilder();
+        for (Shop shop : this.shopRepository.findAllForFinance()) {
+            double expensesSum = 0;
+            for (Product boughtProduct : shop.getBoughtProducts()) {
+                expensesSum += boughtProduct.getPrice() * boughtProduct.getQuantity();
+            }
+            for (Cashier cashier : shop.getCashiers()) {
+                expensesSum += cashier.getSalary();
+            }
+            double earnings = 0;
+            for (Checkout checkout : shop.getCheckouts()) {
+                earnings += checkout.getEarnings();
+            }
+            appendShop(sb, shop.getName(), expensesSum, earnings);
+        }
+        return sb.toString();
+    }
+
+    private static Map<Long, Double> toMap(List<ShopTotal> totals) {
+        Map<Long, Double> map = new HashMap<>();
+        for (ShopTotal total : totals) {
+            map.put(total.shopId(), total.total());
+        }
+        return map;
+    }
+
+    private static void appendShop(StringBuilder sb, String shopName, double expenses, double earnings) {
+        sb.append(String.format("%s expenses: ", shopName));
+        sb.append(String.format("%.2f", expenses)).append(System.lineSeparator());
+        sb.append(String.format("%s earnings: ", shopName));
+        sb.append(String.format("%.2f", earnings)).append(System.lineSeparator());
+    }
+}
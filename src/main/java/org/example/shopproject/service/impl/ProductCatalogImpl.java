@@ -0,0 +1,128 @@
+package org.example.shopproject.service.impl;
+
+import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.model.projection.ProductSummary;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.ProductCatalog;
+import org.example.shopproject.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the id, name, price and shop of recently used products in memory, indexed by name and by id.
+ * Entries are immutable snapshots, never managed entities, so they can be shared between transactions;
+ * stock quantities are deliberately not cached because they change on every purchase.
+ * The least recently used entry is dropped once the catalog holds {@code shop.catalog.max-size} products.
+ * Writes go through: a changed product is evicted at once and re-cached only after its transaction commits,
+ * so a rolled back change never becomes visible. Rows loaded on a miss wait for the commit as well, because inside a
+ * transaction the query also sees that transaction's own uncommitted rows.
+ */
+@Service
+public class ProductCatalogImpl implements ProductCatalog {
+    private final ProductRepository productRepository;
+    private final LinkedHashMap<String, ProductSummary> byName;
+    private final Map<Long, String> nameById = new HashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public ProductCatalogImpl(ProductRepository productRepository,
+                              @Value("${shop.catalog.max-size:10000}") int maxSize) {
+        this.productRepository = productRepository;
+        this.byName = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProductSummary> eldest) {
+                if (size() > maxSize) {
+                    nameById.remove(eldest.getValue().id());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Optional<ProductSummary> findByName(String name) {
+        synchronized (this) {
+            ProductSummary cached = this.byName.get(name);
+            if (cached != null) {
+                this.hitCount.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+        this.missCount.incrementAndGet();
+        return this.productRepository.findByName(name).map(this::cache);
+    }
+
+    @Override
+    public Optional<ProductSummary> findById(long productId) {
+        synchronized (this) {
+            String name = this.nameById.get(productId);
+            if (name != null) {
+                this.hitCount.incrementAndGet();
+                return Optional.of(this.byName.get(name));
+            }
+        }
+        this.missCount.incrementAndGet();
+        return this.productRepository.findById(productId).map(this::cache);
+    }
+
+    @Override
+    public void put(Product product) {
+        ProductSummary summary = summarize(product);
+        evict(summary.id());
+        TransactionUtil.afterCommit(() -> store(summary));
+    }
+
+    @Override
+    public void evict(long productId) {
+        remove(productId);
+        // A concurrent reader may re-cache the old row before this transaction commits
+        TransactionUtil.afterCommit(() -> remove(productId));
+    }
+
+    @Override
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    @Override
+    public synchronized String report() {
+        return String.format("Catalog size: %d\nCatalog hits: %d\nCatalog misses: %d\n",
+                this.byName.size(), getHitCount(), getMissCount());
+    }
+
+    private ProductSummary cache(Product product) {
+        ProductSummary summary = summarize(product);
+        TransactionUtil.afterCommit(() -> store(summary));
+        return summary;
+    }
+
+    private synchronized void store(ProductSummary summary) {
+        remove(summary.id());
+        this.byName.put(summary.name(), summary);
+        this.nameById.put(summary.id(), summary.name());
+    }
+
+    private synchronized void remove(long productId) {
+        String name = this.nameById.remove(productId);
+        if (name != null) {
+            this.byName.remove(name);
+        }
+    }
+
+    private static ProductSummary summarize(Product product) {
+        Long shopId = product.getShop() == null ? null : product.getShop().getId();
+        return new ProductSummary(product.getId(), product.getName(), product.getPrice(), shopId);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.shopproject.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.shopproject.model.projection.ExpiredStock;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.ProductExpiryService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Marks every product whose expire date has passed with one set-based {@code UPDATE}, so the rest of the application
+ * only reads the {@code is_expired} flag. What expired is counted per shop first (with the same predicate, in the same
+ * transaction) and published as the {@code shop.products.expired} counter.
+ */
+@Service
+public class ProductExpiryServiceImpl implements ProductExpiryService {
+    static final String EXPIRED_PRODUCTS = "shop.products.expired";
+    private final ProductRepository productRepository;
+    private final MeterRegistry registry;
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong sweepCount = new AtomicLong();
+    private final AtomicReference<LocalDate> lastSweep = new AtomicReference<>();
+
+    public ProductExpiryServiceImpl(ProductRepository productRepository, MeterRegistry registry) {
+        this.productRepository = productRepository;
+        this.registry = registry;
+    }
+
+    @Override
+    @Transactional
+    public String sweep(LocalDate today) {
+        List<ExpiredStock> expiring = this.productRepository.findExpiring(today);
+        int marked = this.productRepository.markExpired(today);
+        this.expiredCount.addAndGet(marked);
+        this.sweepCount.incrementAndGet();
+        this.lastSweep.set(today);
+        if (marked == 0) {
+            return "No products expired!\n";
+        }
+
+        StringBuilder sb = new StringBuilder(String.format("Marked %d products as expired!\n", marked));
+        for (ExpiredStock stock : expiring) {
+            String shop = stock.shopId() == null ? "none" : stock.shopId().toString();
+            Counter.builder(EXPIRED_PRODUCTS).tag("shop", shop).register(this.registry).increment(stock.products());
+            sb.append(String.format("Shop %s: %d products, %d units\n", shop, stock.products(), stock.units()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long getExpiredCount() {
+        return this.expiredCount.get();
+    }
+
+    @Override
+    public String report() {
+        return String.format("Expiry sweeps: %d\nProducts marked as expired: %d\nLast sweep: %s\n",
+                this.sweepCount.get(), getExpiredCount(), this.lastSweep.get() == null ? "never" : this.lastSweep.get());
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.shopproject.service.impl;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.projection.ShopSummary;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.repository.ShopRepository;
+import org.example.shopproject.service.ProductImportService;
+import org.example.shopproject.service.ShopLedgerService;
+import org.example.shopproject.sql.BulkOperation;
+import org.example.shopproject.util.ValidationUtil;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a supplier price list, one product per CSV line: {@code name,price,category,expire_date,quantity,shop_id}
+ * (an optional header line, shop id left empty for products that are not in a shop yet). The file is read line by
+ * line and every line goes through the checks of AddProduct, with duplicates looked up in the product names loaded
+ * once at the start. Accepted products are written {@code shop.import.chunk-size} at a time, one transaction per
+ * chunk; products with a shop are assigned and booked as bought stock like AssignToShop does. Lines are checked
+ * against the column limits as well before they join a chunk. A chunk the database still refuses is rolled back and
+ * saved again one product per transaction, so only the lines that cannot be saved are rejected. The in-memory product
+ * catalog is not filled, new products are cached when they are first looked up.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+    private static final int FIELDS = 6;
+    private static final int MAX_REPORTED_REJECTIONS = 20;
+    // The default length of the products.name column
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final String BOUGHT_PRODUCTS_ROLE = Shop.class.getName() + ".boughtProducts";
+
+    private final ProductRepository productRepository;
+    private final ShopRepository shopRepository;
+    private final ValidationUtil validationUtil;
+    private final ShopLedgerService shopLedgerService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int progressRows;
+
+    public ProductImportServiceImpl(ProductRepository productRepository, ShopRepository shopRepository,
+                                    ValidationUtil validationUtil, ShopLedgerService shopLedgerService,
+                                    EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${shop.import.chunk-size:500}") int chunkSize,
+                                    @Value("${shop.import.progress-rows:10000}") int progressRows) {
+        this.productRepository = productRepository;
+        this.shopRepository = shopRepository;
+        this.validationUtil = validationUtil;
+        this.shopLedgerService = shopLedgerService;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.progressRows = progressRows;
+    }
+
+    @Override
+    @BulkOperation
+    public String importProducts(Path file) {
+        long start = System.nanoTime();
+        Set<String> names = new HashSet<>(this.productRepository.findAllNames());
+        Set<Long> shopIds = this.shopRepository.findAllSummaries().stream()
+                .map(ShopSummary::id)
+                .collect(Collectors.toSet());
+        Run run = new Run(start);
+        List<ImportedProduct> chunk = new ArrayList<>(this.chunkSize);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && line.startsWith("name,"))) {
+                    continue;
+                }
+                run.lines++;
+                ImportedProduct product = parse(line, lineNumber, shopIds, names, run);
+                if (product == null) {
+                    continue;
+                }
+                names.add(product.product().getName());
+                chunk.add(product);
+                if (chunk.size() == this.chunkSize) {
+                    writeChunk(chunk, names, run);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            return String.format("Could not import products: %s\n", e.getMessage());
+        }
+        writeChunk(chunk, names, run);
+        return run.summary(file);
+    }
+
+    private ImportedProduct parse(String line, int lineNumber, Set<Long> shopIds, Set<String> names, Run run) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != FIELDS) {
+            run.reject(lineNumber, String.format("Expected %d fields but got %d!\n", FIELDS, fields.length));
+            return null;
+        }
+        Product product;
+        Long shopId;
+        try {
+            LocalDate expireDate = LocalDate.parse(fields[3].strip());
+            // Same as the AddProduct command
+            boolean isExpired = LocalDate.now().isAfter(expireDate);
+            product = new Product(fields[0].strip(), Double.parseDouble(fields[1].strip()), 0, fields[2].strip(),
+                    expireDate, Integer.parseInt(fields[4].strip()), isExpired, null);
+            shopId = fields[5].isBlank() ? null : Long.parseLong(fields[5].strip());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            run.reject(lineNumber, "Invalid product!\n");
+            return null;
+        }
+        if (!this.validationUtil.isValid(product) || product.getName().isEmpty()
+                || product.getName().length() > MAX_NAME_LENGTH || !Double.isFinite(product.getPrice())) {
+            run.reject(lineNumber, "Invalid product!\n");
+            return null;
+        }
+        if (names.contains(product.getName())) {
+            run.reject(lineNumber, String.format("Product with name %s already exists!\n", product.getName()));
+            return null;
+        }
+        String rejection = ProductServiceImpl.checkPriceAndExpiry(product);
+        if (rejection != null) {
+            run.reject(lineNumber, rejection);
+            return null;
+        }
+        if (shopId != null && !shopIds.contains(shopId)) {
+            run.reject(lineNumber, String.format("Shop with id: %d does not exist!\n", shopId));
+            return null;
+        }
+        ProductServiceImpl.giveClientProductPrice(product);
+        return new ImportedProduct(lineNumber, product, shopId);
+    }
+
+    private void writeChunk(List<ImportedProduct> chunk, Set<String> names, Run run) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            save(chunk);
+            run.imported += chunk.size();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not save lines {} to {}, saving them one by one", chunk.get(0).lineNumber(),
+                    chunk.get(chunk.size() - 1).lineNumber(), e);
+            for (ImportedProduct imported : chunk) {
+                saveAlone(imported, names, run);
+            }
+        }
+        run.reportProgress(this.progressRows);
+    }
+
+    private void saveAlone(ImportedProduct imported, Set<String> names, Run run) {
+        // The rolled back chunk left a sequence id on the product, which would make it look detached
+        imported.product().setId(0);
+        try {
+            save(List.of(imported));
+            run.imported++;
+        } catch (RuntimeException e) {
+            // Lets a later line with this name through, as it was not saved
+            names.remove(imported.product().getName());
+            run.reject(imported.lineNumber(), String.format("Could not save product %s: %s\n",
+                    imported.product().getName(), e.getMessage()));
+        }
+    }
+
+    private void save(List<ImportedProduct> chunk) {
+        Set<Long> shopIds = this.transactionTemplate.execute(status -> insert(chunk));
+        // The join rows were written with plain JDBC, so Hibernate does not know the shops' product lists changed
+        Cache cache = this.entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        shopIds.forEach(shopId -> cache.evictCollectionData(BOUGHT_PRODUCTS_ROLE, shopId));
+    }
+
+    /**
+     * Returns the ids of the shops that got products.
+     */
+    private Set<Long> insert(List<ImportedProduct> chunk) {
+        Map<Long, Shop> shops = new HashMap<>();
+        Map<Long, Double> boughtStock = new HashMap<>();
+        for (ImportedProduct imported : chunk) {
+            Product product = imported.product();
+            if (imported.shopId() != null) {
+                product.setShop(shops.computeIfAbsent(imported.shopId(),
+                        id -> this.entityManager.getReference(Shop.class, id)));
+                boughtStock.merge(imported.shopId(), product.getPrice() * product.getQuantity(), Double::sum);
+            }
+            this.entityManager.persist(product);
+        }
+        // The products must be in the table before the shop's join rows point at them
+        this.entityManager.flush();
+        // Adding to Shop.boughtProducts would load the whole collection of every shop, once per chunk
+        List<Object[]> joinRows = chunk.stream()
+                .filter(imported -> imported.shopId() != null)
+                .map(imported -> new Object[]{imported.shopId(), imported.product().getId()})
+                .toList();
+        this.jdbcTemplate.batchUpdate("INSERT INTO shops_bought_products (shop_id, bought_products_id) VALUES (?, ?)",
+                joinRows);
+        boughtStock.forEach((shopId, amount) -> this.shopLedgerService.recordBoughtStock(shops.get(shopId), amount));
+        return shops.keySet();
+    }
+
+    private record ImportedProduct(int lineNumber, Product product, Long shopId) {
+    }
+
+    private static final class Run {
+        private final long start;
+        private final List<String> rejections = new ArrayList<>();
+        private long lines;
+        private long imported;
+        private long rejected;
+        private long nextProgress;
+
+        private Run(long start) {
+            this.start = start;
+        }
+
+        private void reject(int lineNumber, String reason) {
+            this.rejected++;
+            if (this.rejections.size() < MAX_REPORTED_REJECTIONS) {
+                this.rejections.add(String.format("Line %d: %s", lineNumber, reason));
+            }
+        }
+
+        private void reportProgress(int progressRows) {
+            if (this.lines < this.nextProgress || progressRows <= 0) {
+                return;
+            }
+            this.nextProgress = this.lines + progressRows;
+            LOGGER.info("Product import: {} lines read, {} products imported, {} rejected, {} rows/s",
+                    this.lines, this.imported, this.rejected, String.format("%.0f", rowsPerSecond()));
+        }
+
+        private double rowsPerSecond() {
+            double seconds = (System.nanoTime() - this.start) / 1e9;
+            return seconds == 0 ? 0 : this.lines / seconds;
+        }
+
+        private String summary(Path file) {
+            StringBuilder result = new StringBuilder(String.format(
+                    "Imported %d products from %s, %d of %d lines rejected (%.0f rows/s)!\n",
+                    this.imported, file, this.rejected, this.lines, rowsPerSecond()));
+            this.rejections.forEach(result::append);
+            if (this.rejected > this.rejections.size()) {
+                result.append(String.format("... %d more rejected lines\n", this.rejected - this.rejections.size()));
+            }
+            return result.toString();
+        }
+    }
+}
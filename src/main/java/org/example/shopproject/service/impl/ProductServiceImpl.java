@@ -5,11 +5,16 @@ import org.example.shopproject.model.entity.Shop;
 import org.example.shopproject.model.enums.Category;
 import org.example.shopproject.repository.ProductRepository;
 import org.example.shopproject.repository.ShopRepository;
+import org.example.shopproject.retry.RetryOnConflict;
 import org.example.shopproject.util.ValidationUtil;
 import org.springframework.stereotype.Service;
+import org.example.shopproject.service.ProductCatalog;
 import org.example.shopproject.service.ProductService;
+import org.example.shopproject.service.ShopLedgerService;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.example.shopproject.model.projection.ProductSummary;
 
-import java.time.LocalDate;
 import java.util.Optional;
 
 @Service
@@ -19,11 +24,16 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ValidationUtil validationUtil;
     private final ShopRepository shopRepository;
+    private final ShopLedgerService shopLedgerService;
+    private final ProductCatalog productCatalog;
 
-    public ProductServiceImpl(ProductRepository productRepository, ValidationUtil validationUtil, ShopRepository shopRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, ValidationUtil validationUtil, ShopRepository shopRepository,
+                              ShopLedgerService shopLedgerService, ProductCatalog productCatalog) {
         this.productRepository = productRepository;
         this.validationUtil = validationUtil;
         this.shopRepository = shopRepository;
+        this.shopLedgerService = shopLedgerService;
+        this.productCatalog = productCatalog;
     }
 
     @Override
@@ -32,23 +42,34 @@ public class ProductServiceImpl implements ProductService {
             return "Invalid product!\n";
         }
 
-        Optional<Product> optionalProduct = productRepository.findByName(product.getName());
+        Optional<ProductSummary> optionalProduct = this.productCatalog.findByName(product.getName());
         if (optionalProduct.isPresent()) {
             return String.format("Product with name %s already exists!\n", product.getName());
         }
+        String rejection = checkPriceAndExpiry(product);
+        if (rejection != null) {
+            return rejection;
+        }
+        giveClientProductPrice(product);
+        this.productRepository.save(product);
+        this.productCatalog.put(product);
+        return String.format("Successfully added product %s!\n", product.getName());
+    }
+
+    /**
+     * The rules every new product has to pass, shared with the CSV import. Returns null for a product that passes.
+     */
+    static String checkPriceAndExpiry(Product product) {
         if (product.getPrice() < 0) {
             return "Invalid price!\n";
         }
-
         if (product.isExpired()) {
             return "Expired product!\n";
         }
-        giveClientProductPrice(product);
-        this.productRepository.save(product);
-        return String.format("Successfully added product %s!\n", product.getName());
+        return null;
     }
 
-    private void giveClientProductPrice(Product product) {
+    static void giveClientProductPrice(Product product) {
         if (product.getCategory().equals(Category.EDIBLE)) {
             product.setClientPrice(product.getPrice() * EDIBLE_MARKUP_PERCENT_PRICE);
         }
@@ -56,6 +77,8 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public String assignToShop(long productId, long shopId) {
         Optional<Product> optionalProduct = this.productRepository.findById(productId);
         Optional<Shop> optionalShop = this.shopRepository.findById(shopId);
@@ -68,10 +91,10 @@ public class ProductServiceImpl implements ProductService {
         }
         Product product = optionalProduct.get();
 
-        checkExpireDate(product);
-
+        // Kept up to date by the daily expiry sweep
         if (product.isExpired()) {
             this.productRepository.deleteById(productId);
+            this.productCatalog.evict(productId);
             return String.format("Product %s is expired!\n", product.getName());
         }
         Shop shop = optionalShop.get();
@@ -88,13 +111,14 @@ public class ProductServiceImpl implements ProductService {
 
         this.productRepository.save(product);
         this.shopRepository.save(shop);
+        this.productCatalog.put(product);
+        this.shopLedgerService.recordBoughtStock(shop, product.getPrice() * product.getQuantity());
 
         return String.format("Product %s successfully added to shop %s!\n", product.getName(), shop.getName());
     }
 
-    private static void checkExpireDate(Product product) {
-        if (product.getExpireDate().isBefore(LocalDate.now())) {
-            product.setExpired(true);
-        }
+    @Override
+    public String reportCatalog() {
+        return this.productCatalog.report();
     }
 }
@@ -1,21 +1,46 @@
 package org.example.shopproject.service.impl;
 
 import org.example.shopproject.model.entity.Receipt;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
+import org.example.shopproject.model.projection.ReceiptHistoryPage;
+import org.example.shopproject.model.projection.ReceiptSummary;
+import org.example.shopproject.receipt.ReceiptStore;
+import org.example.shopproject.receipt.StoredReceipt;
 import org.example.shopproject.repository.ReceiptRepository;
 import org.example.shopproject.util.ValidationUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.example.shopproject.service.ReceiptService;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ReceiptServiceImpl implements ReceiptService {
     private final ReceiptRepository receiptRepository;
     private final ValidationUtil validationUtil;
+    private final ReceiptStore receiptStore;
+    private final String exportDirectory;
 
-    public ReceiptServiceImpl(ReceiptRepository receiptRepository, ValidationUtil validationUtil) {
+    public ReceiptServiceImpl(ReceiptRepository receiptRepository, ValidationUtil validationUtil, ReceiptStore receiptStore,
+                              @Value("${shop.receipts.directory:src/main/resources/generatedReceipts}") String exportDirectory) {
         this.receiptRepository = receiptRepository;
         this.validationUtil = validationUtil;
+        this.receiptStore = receiptStore;
+        this.exportDirectory = exportDirectory;
     }
 
     @Override
@@ -30,4 +55,114 @@ public class ReceiptServiceImpl implements ReceiptService {
         this.receiptRepository.save(receipt);
         return "Successfully added receipt!\n";
     }
+
+    @Override
+    public String exportReceipt(long serialNumber) {
+        try {
+            Optional<StoredReceipt> optionalReceipt = this.receiptStore.read(serialNumber);
+            if (optionalReceipt.isEmpty()) {
+                return String.format("Receipt with serial number %d does not exist!\n", serialNumber);
+            }
+            StoredReceipt receipt = optionalReceipt.get();
+            Path directory = Paths.get(this.exportDirectory);
+            Files.createDirectories(directory);
+            Path file = directory.resolve(receipt.fileName());
+            Files.writeString(file, receipt.content());
+            return String.format("Receipt %d exported to %s!\n", serialNumber, file);
+        } catch (IOException e) {
+            return String.format("Could not export receipt %d: %s\n", serialNumber, e.getMessage());
+        }
+    }
+
+    @Override
+    public ReceiptHistoryPage findHistory(ReceiptHistoryScope scope, long ownerId, LocalDateTime from,
+                                          LocalDateTime to, ReceiptCursor after, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive!");
+        }
+        // Ids start at 1, so (from, 0) seeks to the first receipt issued at or after "from"
+        LocalDateTime afterDate = after == null ? from : after.issuedDate();
+        long afterId = after == null ? 0 : after.serialNumber();
+        // One extra row tells whether another page follows without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        List<ReceiptSummary> receipts = switch (scope) {
+            case CASHIER -> this.receiptRepository.findPageByCashier(ownerId, to, afterDate, afterId, limit);
+            case SHOP -> this.receiptRepository.findPageByShop(ownerId, to, afterDate, afterId, limit);
+            case ALL -> this.receiptRepository.findPage(to, afterDate, afterId, limit);
+        };
+        if (receipts.size() <= pageSize) {
+            return new ReceiptHistoryPage(receipts, null);
+        }
+        ReceiptSummary last = receipts.get(pageSize - 1);
+        return new ReceiptHistoryPage(List.copyOf(receipts.subList(0, pageSize)),
+                new ReceiptCursor(last.issuedDate(), last.serialNumber()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long streamHistory(ReceiptHistoryScope scope, long ownerId, LocalDateTime from, LocalDateTime to,
+                              Consumer<ReceiptSummary> consumer) {
+        long count = 0;
+        try (Stream<ReceiptSummary> receipts = openHistoryStream(scope, ownerId, from, to)) {
+            for (ReceiptSummary receipt : (Iterable<ReceiptSummary>) receipts::iterator) {
+                consumer.accept(receipt);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String printHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to, int pageSize,
+                               ReceiptCursor after) {
+        ReceiptHistoryPage page = findHistory(scope, ownerId, from.atStartOfDay(), to.plusDays(1).atStartOfDay(),
+                after, pageSize);
+        if (page.receipts().isEmpty()) {
+            return "No receipts found!\n";
+        }
+        StringBuilder result = new StringBuilder();
+        for (ReceiptSummary receipt : page.receipts()) {
+            result.append(String.format("Receipt %d - %s - %s %s - %.2f\n", receipt.serialNumber(),
+                    receipt.issuedDate(), receipt.cashierFirstName(), receipt.cashierLastName(), receipt.price()));
+        }
+        result.append(page.next() == null ? "End of receipt history.\n" : String.format("Next page: %s\n", page.next()));
+        return result.toString();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String exportHistory(ReceiptHistoryScope scope, long ownerId, LocalDate from, LocalDate to) {
+        Path file = Paths.get(this.exportDirectory).resolve(String.format("receipt_history_%s_%d_%s_%s.csv",
+                scope.name().toLowerCase(), ownerId, from, to));
+        try {
+            Files.createDirectories(file.getParent());
+            long count;
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                writer.write("serial_number,issued_date,price,cashier_id,cashier_first_name,cashier_last_name\n");
+                count = streamHistory(scope, ownerId, from.atStartOfDay(), to.plusDays(1).atStartOfDay(),
+                        receipt -> writeCsvLine(writer, receipt));
+            }
+            return String.format("%d receipts exported to %s!\n", count, file);
+        } catch (IOException | UncheckedIOException e) {
+            return String.format("Could not export receipt history: %s\n", e.getMessage());
+        }
+    }
+
+    private Stream<ReceiptSummary> openHistoryStream(ReceiptHistoryScope scope, long ownerId, LocalDateTime from,
+                                                     LocalDateTime to) {
+        return switch (scope) {
+            case CASHIER -> this.receiptRepository.streamByCashier(ownerId, from, to);
+            case SHOP -> this.receiptRepository.streamByShop(ownerId, from, to);
+            case ALL -> this.receiptRepository.streamAll(from, to);
+        };
+    }
+
+    private static void writeCsvLine(BufferedWriter writer, ReceiptSummary receipt) {
+        try {
+            writer.write(String.format("%d,%s,%.2f,%d,%s,%s\n", receipt.serialNumber(), receipt.issuedDate(),
+                    receipt.price(), receipt.cashierId(), receipt.cashierFirstName(), receipt.cashierLastName()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
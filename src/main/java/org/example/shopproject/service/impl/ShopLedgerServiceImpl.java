@@ -0,0 +1,125 @@
+package org.example.shopproject.service.impl;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.repository.ShopLedgerRepository;
+import org.example.shopproject.repository.ShopRepository;
+import org.example.shopproject.service.ShopLedgerService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Keeps running expense and earnings totals per shop so that CalculateMoney is a single read.
+ * Every change is applied as an atomic {@code UPDATE ... SET total = total + ?} that joins the caller's transaction,
+ * so the totals commit or roll back together with the change they record (a caller without a transaction gets one
+ * per write). A shop without a ledger row (created before ledgers existed) gets one built from its current entities
+ * on start-up or the first time it is touched, whichever comes first.
+ */
+@Service
+public class ShopLedgerServiceImpl implements ShopLedgerService {
+    private static final double DRIFT_TOLERANCE = 0.005;
+    private final ShopLedgerRepository shopLedgerRepository;
+    private final ShopRepository shopRepository;
+
+    public ShopLedgerServiceImpl(ShopLedgerRepository shopLedgerRepository, ShopRepository shopRepository) {
+        this.shopLedgerRepository = shopLedgerRepository;
+        this.shopRepository = shopRepository;
+    }
+
+    @Override
+    @Transactional
+    public void openLedger(Shop shop) {
+        // Two first touches of the same shop queue up on its row, so the second one finds the ledger
+        // instead of hitting the unique shop_id constraint. The locked copy is managed even if the caller's is not.
+        Shop locked = this.shopRepository.findLockedById(shop.getId()).orElse(shop);
+        if (this.shopLedgerRepository.findLockedByShopId(shop.getId()).isEmpty()) {
+            this.shopLedgerRepository.save(recompute(locked));
+        }
+    }
+
+    @Override
+    @Transactional
+    public int openMissingLedgers() {
+        int opened = 0;
+        for (Shop shop : this.shopRepository.findAllWithoutLedger()) {
+            openLedger(shop);
+            opened++;
+        }
+        return opened;
+    }
+
+    @Override
+    @Transactional
+    public void recordBoughtStock(Shop shop, double amount) {
+        if (this.shopLedgerRepository.addBoughtStock(shop.getId(), amount) == 0) {
+            openLedger(shop);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordSalary(Shop shop, double salary) {
+        if (this.shopLedgerRepository.addSalaries(shop.getId(), salary) == 0) {
+            openLedger(shop);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordCheckoutEarnings(Shop shop, double amount) {
+        if (this.shopLedgerRepository.addCheckoutEarnings(shop.getId(), amount) == 0) {
+            openLedger(shop);
+        }
+    }
+
+    /**
+     * The drift is measured on the ledger and the entities as this transaction reads them, and is added back as an
+     * atomic delta instead of overwriting the totals, so increments committed by other transactions in the meantime
+     * are kept.
+     */
+    @Override
+    @Transactional
+    public String reconcile() {
+        StringBuilder sb = new StringBuilder();
+        for (Shop shop : this.shopRepository.findAll()) {
+            ShopLedger expected = recompute(shop);
+            Optional<ShopLedger> optionalLedger = this.shopLedgerRepository.findByShopId(shop.getId());
+            if (optionalLedger.isEmpty()) {
+                openLedger(shop);
+                sb.append(String.format("Created missing ledger for shop %s!\n", shop.getName()));
+                continue;
+            }
+            ShopLedger ledger = optionalLedger.get();
+            double expensesDrift = ledger.getExpenses() - expected.getExpenses();
+            double earningsDrift = ledger.getCheckoutEarnings() - expected.getCheckoutEarnings();
+            if (Math.abs(expensesDrift) < DRIFT_TOLERANCE && Math.abs(earningsDrift) < DRIFT_TOLERANCE) {
+                sb.append(String.format("Ledger of shop %s is consistent!\n", shop.getName()));
+                continue;
+            }
+            sb.append(String.format("Ledger of shop %s drifted! Expenses drift: %.2f, earnings drift: %.2f\n",
+                    shop.getName(), expensesDrift, earningsDrift));
+            this.shopLedgerRepository.addCorrection(shop.getId(),
+                    expected.getBoughtStock() - ledger.getBoughtStock(),
+                    expected.getSalaries() - ledger.getSalaries(),
+                    -earningsDrift);
+        }
+        return sb.toString();
+    }
+
+    private static ShopLedger recompute(Shop shop) {
+        double boughtStock = 0;
+        for (Product boughtProduct : shop.getBoughtProducts()) {
+            boughtStock += boughtProduct.getPrice() * boughtProduct.getQuantity();
+        }
+        double salaries = 0;
+        for (Cashier cashier : shop.getCashiers()) {
+            salaries += cashier.getSalary();
+        }
+        double earnings = 0;
+        for (Checkout checkout : shop.getCheckouts()) {
+            earnings += checkout.getEarnings();
+        }
+        return new ShopLedger(shop, boughtStock, salaries, earnings);
+    }
+}
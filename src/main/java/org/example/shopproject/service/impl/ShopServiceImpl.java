@@ -2,10 +2,21 @@ package org.example.shopproject.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.SettlementMode;
+import org.example.shopproject.receipt.ReceiptRenderer;
+import org.example.shopproject.receipt.ReceiptWriter;
 import org.example.shopproject.repository.*;
+import org.example.shopproject.retry.RetryOnConflict;
+import org.example.shopproject.model.projection.ProductSummary;
+import org.example.shopproject.service.FinanceReportService;
+import org.example.shopproject.service.ProductCatalog;
+import org.example.shopproject.service.ShopLedgerService;
 import org.example.shopproject.service.ShopService;
+import org.example.shopproject.util.TransactionUtil;
 import org.example.shopproject.util.ValidationUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -14,8 +25,12 @@ import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 @Service
 public class ShopServiceImpl implements ShopService {
@@ -27,19 +42,36 @@ public class ShopServiceImpl implements ShopService {
     private final CheckoutRepository checkoutRepository;
     private final ReceiptRepository receiptRepository;
     private final ValidationUtil validationUtil;
+    private final ReceiptWriter receiptWriter;
+    private final ShopLedgerService shopLedgerService;
+    private final FinanceReportService financeReportService;
+    private final ProductCatalog productCatalog;
+    private final SettlementMode settlementMode;
+    private final ForkJoinPool settlementPool;
 
     public ShopServiceImpl(ShopRepository shopRepository, ClientRepository clientRepository,
                            ProductRepository productRepository, CheckoutRepository checkoutRepository,
-                           ReceiptRepository receiptRepository, ValidationUtil validationUtil) {
+                           ReceiptRepository receiptRepository, ValidationUtil validationUtil,
+                           ReceiptWriter receiptWriter, ShopLedgerService shopLedgerService,
+                           FinanceReportService financeReportService, ProductCatalog productCatalog,
+                           @Value("${shop.settlement.mode:SEQUENTIAL}") SettlementMode settlementMode,
+                           ForkJoinPool settlementPool) {
         this.shopRepository = shopRepository;
         this.clientRepository = clientRepository;
         this.productRepository = productRepository;
         this.checkoutRepository = checkoutRepository;
         this.receiptRepository = receiptRepository;
         this.validationUtil = validationUtil;
+        this.receiptWriter = receiptWriter;
+        this.shopLedgerService = shopLedgerService;
+        this.financeReportService = financeReportService;
+        this.productCatalog = productCatalog;
+        this.settlementMode = settlementMode;
+        this.settlementPool = settlementPool;
     }
 
     @Override
+    @Transactional
     public String addShop(Shop shop) {
         if (!validationUtil.isValid(shop)) {
             return "Invalid shop!\n";
@@ -49,57 +81,20 @@ public class ShopServiceImpl implements ShopService {
             return String.format("Shop %s already exists!\n", shop.getName());
         }
         this.shopRepository.save(shop);
+        this.shopLedgerService.openLedger(shop);
         return "Shop added successfully!\n";
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public String buy(long shopId) {
-        Optional<Shop> optionalShop = this.shopRepository.findById(shopId);
+        Optional<Shop> optionalShop = this.shopRepository.findForSettlementById(shopId);
         StringBuilder sb = new StringBuilder();
         if (optionalShop.isPresent()) {
             Shop shop = optionalShop.get();
             if (!shop.getClients().isEmpty()) {
-
-                List<Long> clientIdsToRemove = new ArrayList<>();
-                for (Checkout checkout : shop.getCheckouts()) {
-                    for (Client client : checkout.getClients()) {
-
-                        double requiredSum = calculateSum(client);
-                        if (requiredSum <= client.getMoney()) {
-                            checkout.setEarnings(checkout.getEarnings() + requiredSum);
-                            client.setMoney(client.getMoney() - requiredSum);
-                            for (ClientProduct clientProduct : client.getProducts()) {
-                                shop.getSoldProducts().add(clientProduct);
-                            }
-                            Receipt receipt = new Receipt(checkout.getCashier(), LocalDateTime.now(), client.getProducts(), requiredSum);
-                            this.receiptRepository.save(receipt);
-                            checkout.getCashier().getReceipts().add(receipt);
-                            receipt.saveReceiptToFile();
-                            sb.append(receipt);
-                        } else {
-                            // Return the products back to the productRepository if not bought
-                            returnProducts(client);
-                            sb.append(String.format("Client %s does not have enough money!\n\n", client.getFirstName()));
-                        }
-                        clientIdsToRemove.add(client.getId());
-                        this.clientRepository.save(client);
-                        this.checkoutRepository.save(checkout);
-                    }
-                }
-                for (Long currentClientId : clientIdsToRemove) {
-                    Client client = clientRepository.findById(currentClientId).get();
-                    Checkout checkout = client.getCheckout();
-                    Shop currentShop = client.getShop();
-
-                    // Remove the client from the checkout -> shop
-                    client.setShop(null);
-                    client.setCheckout(null);
-                    checkout.getClients().remove(client);
-                    currentShop.getClients().remove(client);
-                    this.clientRepository.save(client);
-                    this.checkoutRepository.save(checkout);
-                    this.shopRepository.save(currentShop);
-                }
+                settle(shop, sb);
             } else {
                 sb.append(String.format("No clients in shop %s!\n", shop.getName()));
             }
@@ -107,53 +102,168 @@ public class ShopServiceImpl implements ShopService {
         return sb.toString();
     }
 
-    private static double calculateSum(Client client) {
+    /**
+     * Settles every queued client of the shop inside the surrounding transaction.
+     * Each checkout's queue is settled on its own, in parallel on the settlement pool when {@code shop.settlement.mode}
+     * is PARALLEL. Settling a queue only changes that checkout, its clients and their carts in memory and keeps its
+     * own earnings, so the workers share no state. Everything that needs the persistence context (loading carts,
+     * returning unpaid products, sold products, saving) happens on the calling thread, merged in checkout order, so
+     * receipts, ids and output are the same in both modes.
+     * Dirty clients, checkouts and receipts are written with one saveAll per repository, so the JDBC driver can batch
+     * the statements. Clients are detached from their checkout and the shop in memory instead of being re-read.
+     */
+    private void settle(Shop shop, StringBuilder sb) {
+        List<Checkout> queues = new ArrayList<>();
+        for (Checkout checkout : shop.getCheckouts()) {
+            if (checkout.getClients().isEmpty()) {
+                continue;
+            }
+            // Loads the carts here (in batches), the workers must not touch the session
+            for (Client client : checkout.getClients()) {
+                client.getProducts().size();
+            }
+            queues.add(checkout);
+        }
+        List<QueueSettlement> settlements = inOrder(queues, ShopServiceImpl::settleQueue);
+
+        List<SettlementLine> lines = new ArrayList<>();
+        Set<Client> settledClients = new LinkedHashSet<>();
+        List<Receipt> receipts = new ArrayList<>();
+        double earnings = 0;
+        for (QueueSettlement settlement : settlements) {
+            lines.addAll(settlement.lines());
+            receipts.addAll(settlement.receipts());
+            settledClients.addAll(settlement.clients());
+            earnings += settlement.earnings();
+            // Return the products back to the productRepository if not bought
+            settlement.unpaidClients().forEach(this::returnProducts);
+        }
+        for (Receipt receipt : receipts) {
+            shop.getSoldProducts().addAll(receipt.getProductList());
+        }
+        shop.getClients().removeIf(settledClients::contains);
+
+        // Receipts need their generated serial number before they can be printed
+        this.receiptRepository.saveAll(receipts);
+        this.clientRepository.saveAll(settledClients);
+        this.checkoutRepository.saveAll(queues);
+        this.shopRepository.save(shop);
+        if (earnings > 0) {
+            this.shopLedgerService.recordCheckoutEarnings(shop, earnings);
+        }
+
+        List<String> texts = inOrder(lines, line -> line.receipt() == null ? line.message() : render(shop, line.receipt()));
+        for (String text : texts) {
+            sb.append(text);
+        }
+        // Receipts of a Buy that is rolled back (and retried on a conflict) must never be written
+        TransactionUtil.afterCommit(() -> {
+            for (int i = 0; i < lines.size(); i++) {
+                Receipt receipt = lines.get(i).receipt();
+                if (receipt != null) {
+                    this.receiptWriter.submit(receipt.getId(), receipt.getFileName(), texts.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Serves the clients of one checkout queue. Runs on a settlement worker, so it only changes this checkout,
+     * its clients and their carts, which were all loaded beforehand.
+     */
+    private static QueueSettlement settleQueue(Checkout checkout) {
+        List<SettlementLine> lines = new ArrayList<>();
+        List<Receipt> receipts = new ArrayList<>();
+        List<Client> unpaidClients = new ArrayList<>();
+        List<Client> clients = new ArrayList<>(checkout.getClients());
+        double earnings = 0;
+        for (Client client : clients) {
+            double requiredSum = calculateSum(client);
+            if (requiredSum <= client.getMoney()) {
+                checkout.setEarnings(checkout.getEarnings() + requiredSum);
+                earnings += requiredSum;
+                client.setMoney(client.getMoney() - requiredSum);
+
+                Receipt receipt = new Receipt(checkout.getShop(), checkout.getCashier(), LocalDateTime.now(),
+                        new ArrayList<>(client.getProducts()), requiredSum);
+                receipts.add(receipt);
+                lines.add(new SettlementLine(receipt, null));
+            } else {
+                unpaidClients.add(client);
+                lines.add(new SettlementLine(null,
+                        String.format("Client %s does not have enough money!\n\n", client.getFirstName())));
+            }
+            client.setShop(null);
+            client.setCheckout(null);
+        }
+        // Every client in the queue has been served, so the checkout is emptied in one step
+        checkout.getClients().clear();
+        return new QueueSettlement(lines, receipts, clients, unpaidClients, earnings);
+    }
+
+    private static String render(Shop shop, Receipt receipt) {
+        Cashier cashier = receipt.getCashier();
+        return ReceiptRenderer.render(shop.getName(), cashier.getFirstName(), cashier.getLastName(),
+                receipt.getId(), receipt.getProductList(), receipt.getPrice(), receipt.getIssuedDate());
+    }
+
+    /**
+     * Maps the items on the settlement pool in PARALLEL mode, otherwise on the calling thread.
+     * Either way the results are in the order of the items.
+     */
+    private <T, R> List<R> inOrder(List<T> items, Function<T, R> task) {
+        if (this.settlementMode != SettlementMode.PARALLEL || items.size() < 2) {
+            return items.stream().map(task).toList();
+        }
+        return this.settlementPool.submit(() -> items.parallelStream().map(task).toList()).join();
+    }
+
+    static double calculateSum(Client client) {
+        // Lines expiring before this date are sold at a discount; computed once per cart instead of per line
+        LocalDate discountedBefore = LocalDate.now().plusDays(DAYS_TO_ACTIVATE_DISCOUNT);
         double sum = 0;
         for (ClientProduct clientProduct : client.getProducts()) {
-            checkExpireDate(clientProduct);
+            if (clientProduct.getExpireDate().isBefore(discountedBefore)) {
+                clientProduct.setPrice(clientProduct.getPrice() * DISCOUNT);
+            }
             sum += clientProduct.getPrice() * clientProduct.getQuantity();
         }
         return sum;
     }
 
-    private static void checkExpireDate(ClientProduct product) {
-        if (product.getExpireDate().minusDays(DAYS_TO_ACTIVATE_DISCOUNT).isBefore(LocalDate.now())) {
-            product.setPrice(product.getPrice() * DISCOUNT);
-        }
-    }
-
+    /**
+     * Puts the cart back on the shelves. Products are looked up in the catalog instead of the database and the stock
+     * is added back with an atomic increment, so concurrent reservations of the same product are never overwritten.
+     */
     private void returnProducts(Client client) {
         for (ClientProduct currentProduct : client.getProducts()) {
-            Optional<Product> optionalProduct = this.productRepository.findByName(currentProduct.getName());
+            Optional<ProductSummary> optionalProduct = this.productCatalog.findByName(currentProduct.getName());
             if (optionalProduct.isPresent()) {
-                Product product = optionalProduct.get();
-                product.setQuantity(product.getQuantity() + currentProduct.getQuantity());
+                ProductSummary product = optionalProduct.get();
+                this.productRepository.returnStock(product.id(), currentProduct.getQuantity());
+                if (product.shopId() != null) {
+                    this.shopLedgerService.recordBoughtStock(this.shopRepository.getReferenceById(product.shopId()),
+                            product.price() * currentProduct.getQuantity());
+                }
             }
         }
         client.getProducts().clear();
     }
 
+    private record SettlementLine(Receipt receipt, String message) {
+    }
+
+    private record QueueSettlement(List<SettlementLine> lines, List<Receipt> receipts, List<Client> clients,
+                                   List<Client> unpaidClients, double earnings) {
+    }
+
     @Override
     public String calculateMoney() {
-        StringBuilder sb = new StringBuilder();
-        for (Shop shop : this.shopRepository.findAll()) {
-            double expensesSum = 0;
-            sb.append(String.format("%s expenses: ", shop.getName()));
+        return this.financeReportService.calculateMoney();
+    }
 
-            for (Product boughtProduct : shop.getBoughtProducts()) {
-                expensesSum += boughtProduct.getPrice() * boughtProduct.getQuantity();
-            }
-            for (Cashier cashier : shop.getCashiers()) {
-                expensesSum += cashier.getSalary();
-            }
-            sb.append(String.format("%.2f", expensesSum)).append(System.lineSeparator());
-            sb.append(String.format("%s earnings: ", shop.getName()));
-            double earnings = 0;
-            for (Checkout checkout : shop.getCheckouts()) {
-                earnings += checkout.getEarnings();
-            }
-            sb.append(String.format("%.2f", earnings)).append(System.lineSeparator());
-        }
-        return sb.toString();
+    @Override
+    public String reconcileLedger() {
+        return this.shopLedgerService.reconcile();
     }
 }
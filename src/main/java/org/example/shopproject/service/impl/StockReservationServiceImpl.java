@@ -0,0 +1,55 @@
+package org.example.shopproject.service.impl;
+
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.StockReservationService;
+import org.example.shopproject.util.TransactionUtil;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Takes units out of a product's stock with a single conditional {@code UPDATE ... WHERE quantity >= ?}.
+ * The database checks and decrements in one statement under its row lock, so two shoppers can never take the same
+ * units and shoppers of different products never wait for each other.
+ * A reservation that finds too little stock is counted as contended: the caller only asks for quantities it saw
+ * in stock, so someone else got there first. Both counts are taken when the caller's transaction commits, so a
+ * rolled back and replayed attempt is counted once.
+ */
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+    private final ProductRepository productRepository;
+    private final AtomicLong reservedCount = new AtomicLong();
+    private final AtomicLong contendedCount = new AtomicLong();
+
+    public StockReservationServiceImpl(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    @Transactional
+    public boolean reserve(long productId, int quantity) {
+        if (this.productRepository.reserveStock(productId, quantity) == 1) {
+            TransactionUtil.afterCommit(this.reservedCount::incrementAndGet);
+            return true;
+        }
+        TransactionUtil.afterCommit(this.contendedCount::incrementAndGet);
+        return false;
+    }
+
+    @Override
+    public long getReservedCount() {
+        return this.reservedCount.get();
+    }
+
+    @Override
+    public long getContendedCount() {
+        return this.contendedCount.get();
+    }
+
+    @Override
+    public String report() {
+        return String.format("Stock reservations succeeded: %d\nStock reservations contended: %d\n",
+                getReservedCount(), getContendedCount());
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.shopproject.sql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method whose statement count grows with its input by design, e.g. a file import.
+ * {@link SqlBudgetAspect} does not count it; the services it calls are counted on their own.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BulkOperation {
+}
@@ -0,0 +1,77 @@
+package org.example.shopproject.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the statements of every public service call and logs calls that go over the statement budget or repeat
+ * one statement more often than allowed. The aspect runs outside the transaction so that the statements flushed on
+ * commit are counted too. A service called by another service is counted as part of the outer call.
+ * The statements per call are also recorded as the {@code shop.service.statements} distribution per method.
+ * Methods marked {@link BulkOperation} are left out.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "shop.sql.budget.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetAspect {
+    static final String STATEMENTS = "shop.service.statements";
+    static final String BUDGET_EXCEEDED = "shop.service.statement.budget.exceeded";
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlBudgetAspect.class);
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry registry;
+    private final int statementBudget;
+    private final int repeatBudget;
+
+    public SqlBudgetAspect(SqlStatementCounter counter, MeterRegistry registry,
+                           @Value("${shop.sql.budget.statements:50}") int statementBudget,
+                           @Value("${shop.sql.budget.repeated-statements:10}") int repeatBudget) {
+        this.counter = counter;
+        this.registry = registry;
+        this.statementBudget = statementBudget;
+        this.repeatBudget = repeatBudget;
+    }
+
+    @Around("execution(public * org.example.shopproject.service..*(..)) "
+            + "&& !@annotation(org.example.shopproject.sql.BulkOperation)")
+    public Object countStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+        StatementTally tally = this.counter.start();
+        if (tally == null) {
+            return joinPoint.proceed();
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            this.counter.stop(tally);
+            check(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName(),
+                    tally);
+        }
+    }
+
+    private void check(String method, StatementTally tally) {
+        DistributionSummary.builder(STATEMENTS).tag("method", method).register(this.registry).record(tally.count());
+        Map<String, Integer> repeated = tally.repeated(this.repeatBudget);
+        if (tally.count() <= this.statementBudget && repeated.isEmpty()) {
+            return;
+        }
+        Counter.builder(BUDGET_EXCEEDED).tag("method", method).register(this.registry).increment();
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("{} issued {} SQL statements (budget {}, at most {} of the same statement):\n{}",
+                    method, tally.count(), this.statementBudget, this.repeatBudget, tally.describe());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.shopproject.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sees every SQL statement Hibernate prepares and adds it to the tally of the calling thread, if that thread is
+ * being counted. Unlike Hibernate's statistics the tally is per thread, so concurrent calls (e.g. sessions of the
+ * command server) do not mix. Statements issued through plain JDBC or a {@code JdbcTemplate} are not seen.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+    private final ThreadLocal<StatementTally> current = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        StatementTally tally = this.current.get();
+        if (tally != null) {
+            tally.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Starts counting on the calling thread. Returns null when an outer call is already counting,
+     * in which case the statements go to the outer tally.
+     */
+    public StatementTally start() {
+        if (this.current.get() != null) {
+            return null;
+        }
+        StatementTally tally = new StatementTally();
+        this.current.set(tally);
+        return tally;
+    }
+
+    public void stop(StatementTally tally) {
+        if (tally != null) {
+            this.current.remove();
+        }
+    }
+
+    public StatementTally measure(Runnable operation) {
+        StatementTally tally = start();
+        if (tally == null) {
+            throw new IllegalStateException("Statements are already being counted on this thread!");
+        }
+        try {
+            operation.run();
+        } finally {
+            stop(tally);
+        }
+        return tally;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.shopproject.sql;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The JDBC statements one thread prepared while it was being counted. A JDBC batch is prepared once, so it counts
+ * as one statement, the same as Hibernate's prepare statement count.
+ */
+public class StatementTally {
+    private final Map<String, Integer> statements = new HashMap<>();
+    private int count;
+
+    void add(String sql) {
+        this.count++;
+        this.statements.merge(sql, 1, Integer::sum);
+    }
+
+    public int count() {
+        return this.count;
+    }
+
+    /**
+     * Statements that were prepared more than {@code threshold} times with the same SQL, the most frequent first.
+     * The same query repeated once per row of an earlier result is what an N+1 looks like from here.
+     */
+    public Map<String, Integer> repeated(int threshold) {
+        return this.statements.entrySet().stream()
+                .filter(entry -> entry.getValue() > threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * Every distinct statement with the number of times it was prepared, the most frequent first.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        repeated(0).forEach((sql, times) -> sb.append(String.format("%5d x %s%n", times, sql)));
+        return sb.toString();
+    }
+}
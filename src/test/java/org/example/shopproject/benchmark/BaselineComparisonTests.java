@@ -0,0 +1,107 @@
+package org.example.shopproject.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BaselineComparisonTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadKeysRunsByBenchmarkAndParams() throws IOException {
+        Path file = write("""
+                [
+                  {"benchmark": "a.B.buy", "mode": "avgt", "params": {"products": "1000", "backendType": "H2"},
+                   "primaryMetric": {"score": 2.5, "scoreUnit": "us/op"},
+                   "secondaryMetrics": {"gc.alloc.rate.norm": {"score": 4096.0, "scoreUnit": "B/op"}}},
+                  {"benchmark": "a.B.render", "mode": "thrpt",
+                   "primaryMetric": {"score": 100.0, "scoreUnit": "ops/ms"}}
+                ]
+                """);
+
+        Map<String, BaselineComparison.Score> scores = BaselineComparison.read(file);
+
+        assertEquals(new BaselineComparison.Score("avgt", 2.5, "us/op", 4096.0),
+                scores.get("a.B.buy{backendType=H2, products=1000}"));
+        assertEquals(new BaselineComparison.Score("thrpt", 100.0, "ops/ms", null), scores.get("a.B.render"));
+    }
+
+    @Test
+    void testCompareWithinTolerance() {
+        List<String> report = new ArrayList<>();
+        List<String> regressions = BaselineComparison.compare(
+                Map.of("buy", new BaselineComparison.Score("avgt", 10, "us/op", 1000.0)),
+                Map.of("buy", new BaselineComparison.Score("avgt", 10.5, "us/op", 1010.0)), 0.10, report::add);
+
+        assertTrue(regressions.isEmpty());
+        assertEquals(1, report.size());
+    }
+
+    @Test
+    void testCompareSlowerAverageTime() {
+        List<String> regressions = BaselineComparison.compare(
+                Map.of("buy", new BaselineComparison.Score("avgt", 10, "us/op", null)),
+                Map.of("buy", new BaselineComparison.Score("avgt", 12, "us/op", null)), 0.10, line -> {
+                });
+
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).startsWith("buy: "));
+    }
+
+    @Test
+    void testCompareLowerThroughput() {
+        List<String> regressions = BaselineComparison.compare(
+                Map.of("render", new BaselineComparison.Score("thrpt", 100, "ops/ms", null)),
+                Map.of("render", new BaselineComparison.Score("thrpt", 80, "ops/ms", null)), 0.10, line -> {
+                });
+
+        assertEquals(1, regressions.size());
+    }
+
+    @Test
+    void testCompareAllocationIgnoresSmallDelta() {
+        List<String> regressions = BaselineComparison.compare(
+                Map.of("sum", new BaselineComparison.Score("avgt", 1, "ns/op", 24.0)),
+                Map.of("sum", new BaselineComparison.Score("avgt", 1, "ns/op", 32.0)), 0.10, line -> {
+                });
+
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    void testCompareMoreAllocation() {
+        List<String> regressions = BaselineComparison.compare(
+                Map.of("buy", new BaselineComparison.Score("avgt", 10, "us/op", 1000.0)),
+                Map.of("buy", new BaselineComparison.Score("avgt", 10, "us/op", 2000.0)), 0.10, line -> {
+                });
+
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("B/op allocated"));
+    }
+
+    @Test
+    void testCompareSkipsNewBenchmarks() {
+        List<String> report = new ArrayList<>();
+        List<String> regressions = BaselineComparison.compare(Map.of(),
+                Map.of("buy", new BaselineComparison.Score("avgt", 10, "us/op", null)), 0.10, report::add);
+
+        assertTrue(regressions.isEmpty());
+        assertTrue(report.get(0).contains("new"));
+    }
+
+    private Path write(String json) throws IOException {
+        Path file = this.directory.resolve("result.json");
+        Files.writeString(file, json);
+        return file;
+    }
+}
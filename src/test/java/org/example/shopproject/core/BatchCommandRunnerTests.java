@@ -0,0 +1,91 @@
+package org.example.shopproject.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BatchCommandRunnerTests {
+
+    @Mock
+    private CommandDispatcher dispatcher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private BatchCommandRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(dispatcher.dispatch(any())).thenAnswer(invocation -> ((String[]) invocation.getArgument(0))[0] + " done\n");
+        runner = new BatchCommandRunner(dispatcher, new TransactionTemplate(transactionManager), 3);
+    }
+
+    @Test
+    void testConsecutiveCommandsShareTransactions() throws IOException {
+        Path file = write("AddShop A", "AddShop B", "AddShop C", "AddShop D", "", "# comment",
+                "CalculateMoney", "AddClient John 100", "Exit", "AddShop E");
+        StringWriter out = new StringWriter();
+
+        String summary = runner.run(file, out);
+
+        // Groups: [A, B, C], [D] alone, CalculateMoney alone, AddClient alone; nothing after Exit
+        verify(transactionManager, times(1)).commit(any(TransactionStatus.class));
+        verify(dispatcher, times(6)).dispatch(any());
+        assertEquals("AddShop done\n".repeat(4) + "CalculateMoney done\nAddClient done\n", out.toString());
+        assertTrue(summary.startsWith("Batch finished: 6 commands in "));
+        assertTrue(summary.contains(", 4 transactions, 0 groups replayed one by one\n"));
+        assertTrue(summary.contains("AddShop "));
+        assertTrue(summary.contains("(commit) "));
+    }
+
+    @Test
+    void testFailedGroupIsReplayedOneByOne() throws IOException {
+        doThrow(new UnexpectedRollbackException("rollback-only")).when(transactionManager).commit(any());
+        Path file = write("AssignToShop Client 1 1", "AssignToShop Client 2 1");
+        StringWriter out = new StringWriter();
+
+        String summary = runner.run(file, out);
+
+        verify(dispatcher, times(4)).dispatch(any());
+        assertEquals("AssignToShop done\n".repeat(2), out.toString());
+        assertTrue(summary.contains("Batch finished: 2 commands in "));
+        assertTrue(summary.contains(", 2 transactions, 1 groups replayed one by one\n"));
+    }
+
+    @Test
+    void testAddProductToClientRunsAlone() throws IOException {
+        Path file = write("AddProductToClient 1", "AddProductToClient 1", "AddProductToClient 2");
+        StringWriter out = new StringWriter();
+
+        String summary = runner.run(file, out);
+
+        // Random draws cannot be repeated by a replay, so every line gets a transaction of its own
+        verify(transactionManager, never()).getTransaction(any());
+        assertEquals("AddProductToClient done\n".repeat(3), out.toString());
+        assertTrue(summary.contains(", 3 transactions, 0 groups replayed one by one\n"));
+    }
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(directory.resolve("commands.txt"), String.join("\n", lines).getBytes());
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.shopproject.core;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.example.shopproject.model.entity.Shop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MeteredControllerTests {
+
+    @Mock
+    private ControllerImpl delegate;
+
+    private MeterRegistry registry;
+
+    private CommandMetrics metrics;
+
+    private MeteredController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        metrics = new CommandMetrics(registry);
+        controller = new MeteredController(delegate, metrics);
+    }
+
+    @Test
+    void testCallsAreTimedPerCommandAndShop() {
+        when(delegate.goToQueue(3L)).thenReturn("Client John went to checkout 1\n");
+
+        assertEquals("Client John went to checkout 1\n", controller.goToQueue(3L));
+        controller.goToQueue(3L);
+
+        Timer timer = registry.get(CommandMetrics.TIMER).tag("command", "GoToQueue").tag("shop", "3").timer();
+        assertEquals(2, timer.count());
+        assertEquals(2, registry.get(CommandMetrics.OUTCOMES).tag("command", "GoToQueue").tag("outcome", "success")
+                .counter().count());
+        assertEquals(0, registry.get(CommandMetrics.IN_FLIGHT).tag("command", "GoToQueue").gauge().value());
+    }
+
+    @Test
+    void testFailureResultsAreCounted() {
+        when(delegate.addShop(any())).thenReturn("Shop added successfully!\n", "Shop A already exists!\n");
+
+        controller.addShop(new Shop("A"));
+        controller.addShop(new Shop("A"));
+
+        assertEquals(1, registry.get(CommandMetrics.OUTCOMES).tag("command", "AddShop")
+                .tag("shop", CommandMetrics.NO_SHOP).tag("outcome", "failure").counter().count());
+        assertEquals(1, registry.get(CommandMetrics.OUTCOMES).tag("command", "AddShop").tag("outcome", "success")
+                .counter().count());
+    }
+
+    @Test
+    void testExceptionsAreCountedAsFailures() {
+        when(delegate.buy(1L)).thenThrow(new IllegalStateException("Connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> controller.buy(1L));
+
+        assertEquals(1, registry.get(CommandMetrics.OUTCOMES).tag("command", "Buy").tag("shop", "1")
+                .tag("outcome", "failure").counter().count());
+        assertEquals(1, registry.get(CommandMetrics.TIMER).tag("command", "Buy").timer().count());
+    }
+
+    @Test
+    void testCallsInsideTransactionAreCountedOnlyOnCommit() {
+        when(delegate.addShop(any())).thenReturn("Shop added successfully!\n");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            controller.addShop(new Shop("A"));
+        } finally {
+            // Rolled back: the synchronizations are dropped without running afterCommit
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            controller.addShop(new Shop("A"));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, registry.get(CommandMetrics.TIMER).tag("command", "AddShop").timer().count());
+        assertEquals(1, registry.get(CommandMetrics.OUTCOMES).tag("command", "AddShop").tag("outcome", "success")
+                .counter().count());
+        assertEquals(0, registry.get(CommandMetrics.IN_FLIGHT).tag("command", "AddShop").gauge().value());
+    }
+
+    @Test
+    void testInFlightGaugeCountsRunningCalls() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.calculateMoney()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "Total earnings: 0.00\n";
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> call = executor.submit(controller::calculateMoney);
+            started.await();
+            assertEquals(1, registry.get(CommandMetrics.IN_FLIGHT).tag("command", "CalculateMoney").gauge().value());
+
+            release.countDown();
+            call.get();
+            assertEquals(0, registry.get(CommandMetrics.IN_FLIGHT).tag("command", "CalculateMoney").gauge().value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReportListsSlowestCommandFirst() {
+        when(delegate.addProductToClient(5L)).thenReturn("Successfully added product Milk to the client!\n");
+        when(delegate.buy(2L)).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return "Receipt\n";
+        });
+        when(delegate.reportCommandMetrics()).thenAnswer(invocation -> metrics.report());
+
+        controller.addProductToClient(5L);
+        controller.buy(2L);
+        String report = controller.reportCommandMetrics();
+
+        String[] lines = report.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("Command"));
+        assertTrue(lines[1].startsWith("Buy"));
+        assertTrue(lines[2].startsWith("AddProductToClient"));
+    }
+
+    @Test
+    void testReportWithoutCommands() {
+        assertEquals("No commands recorded!\n", metrics.report());
+    }
+
+    @Test
+    void testScrapeUsesPrometheusFormat() {
+        when(delegate.goToQueue(3L)).thenReturn("Shop does not exist!\n");
+        controller.goToQueue(3L);
+
+        String scrape = metrics.scrape();
+
+        assertTrue(scrape.contains("shop_command_duration_seconds_count{command=\"GoToQueue\",shop=\"3\",} 1.0"));
+        assertTrue(scrape.contains("shop_command_outcomes_total{command=\"GoToQueue\",outcome=\"failure\",shop=\"3\",} 1.0"));
+        assertTrue(scrape.contains("quantile=\"0.99\""));
+    }
+
+    @Test
+    void testIsFailure() {
+        assertTrue(CommandMetrics.isFailure("Invalid client!\n"));
+        assertTrue(CommandMetrics.isFailure("Client with id: 4 does not exist!\n"));
+        assertTrue(CommandMetrics.isFailure("Client John does not have enough money!\n\n"));
+        assertFalse(CommandMetrics.isFailure("Successfully added cashier!\n"));
+        assertFalse(CommandMetrics.isFailure("Client John assigned to shop A successfully!\n"));
+        assertTrue(CommandMetrics.isFailure("Receipt 1 exported!\nQuantity not enough! Product: Milk\n"));
+    }
+
+    @Test
+    void testNamesContainingErrorWordsAreNotFailures() {
+        assertFalse(CommandMetrics.isFailure("Client Invalidia assigned to shop Already There successfully!\n"));
+        assertFalse(CommandMetrics.isFailure("Successfully added product Expired Jokes!\n"));
+        assertFalse(CommandMetrics.isFailure("Product Not Enough Tea successfully added to shop Corner!\n"));
+        assertFalse(CommandMetrics.isFailure("Shop Is Empty expenses: 0.00\nShop Is Empty earnings: 0.00\n"));
+        assertTrue(CommandMetrics.isFailure("Product Invalid Ink is already in shop Corner!\n"));
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.shopproject.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.shopproject.core.BatchCommandRunner;
+import org.example.shopproject.repository.ClientRepository;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.repository.ShopRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@DirtiesContext
+public class BatchCommandIntegrationTests {
+    private static final int PRODUCTS = 120;
+
+    @Autowired
+    private BatchCommandRunner batchCommandRunner;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplayOfADay() throws Exception {
+        List<String> morning = new ArrayList<>();
+        morning.add("AddShop Replay");
+        morning.add("AddClient John 100000");
+        for (int i = 0; i < PRODUCTS; i++) {
+            morning.add(String.format("AddProduct Replay%d 1.5 EDIBLE %s 1000", i, LocalDate.now().plusDays(30)));
+        }
+        // The duplicate is rejected by the service, without rolling back the rest of its group
+        morning.add(String.format("AddProduct Replay0 1.5 EDIBLE %s 1000", LocalDate.now().plusDays(30)));
+        StringWriter morningOut = new StringWriter();
+        String morningSummary = batchCommandRunner.run(Files.write(directory.resolve("morning.txt"), morning), morningOut);
+
+        long shopId = shopRepository.findByName("Replay").orElseThrow().getId();
+        long clientId = clientRepository.findAll().stream()
+                .filter(client -> client.getFirstName().equals("John")).findFirst().orElseThrow().getId();
+        List<String> afternoon = new ArrayList<>();
+        productRepository.findAll().stream()
+                .filter(product -> product.getName().startsWith("Replay"))
+                .forEach(product -> afternoon.add(String.format("AssignToShop Product %d %d", product.getId(), shopId)));
+        afternoon.add(String.format("AssignToShop Client %d %d", clientId, shopId));
+        for (int i = 0; i < 5; i++) {
+            afternoon.add("AddProductToClient " + clientId);
+        }
+        afternoon.add("CalculateMoney");
+        StringWriter afternoonOut = new StringWriter();
+        String afternoonSummary = batchCommandRunner.run(Files.write(directory.resolve("afternoon.txt"), afternoon),
+                afternoonOut);
+
+        assertEquals(PRODUCTS, count(morningOut.toString(), "Successfully added product Replay"));
+        assertTrue(morningOut.toString().contains("Product with name Replay0 already exists!\n"));
+        assertEquals(PRODUCTS, count(afternoonOut.toString(), "successfully added to shop Replay!\n"));
+        assertEquals(PRODUCTS, productRepository.findAll().stream()
+                .filter(product -> product.getShop() != null && product.getShop().getId() == shopId).count());
+        assertTrue(afternoonOut.toString().contains("Replay expenses: "), afternoonOut.toString());
+        assertTrue(morningSummary.startsWith("Batch finished: " + morning.size() + " commands"), morningSummary);
+        assertTrue(afternoonSummary.startsWith("Batch finished: " + afternoon.size() + " commands"), afternoonSummary);
+        assertTrue(afternoonSummary.contains(" 0 groups replayed one by one"), afternoonSummary);
+    }
+
+    @Test
+    void testReplayedGroupDoesNotSeeProductsOfTheRolledBackAttempt() throws Exception {
+        String expireDate = LocalDate.now().plusDays(30).toString();
+        List<String> commands = List.of(
+                "AddProduct CatalogReplay 1.5 EDIBLE " + expireDate + " 10",
+                // Looks the product up while its row is only written in the group's transaction
+                "AddProduct CatalogReplay 1.5 EDIBLE " + expireDate + " 10",
+                // Longer than the name column, so the group cannot commit and is replayed one by one
+                "AddProduct " + "L".repeat(300) + " 1.5 EDIBLE " + expireDate + " 10");
+        StringWriter out = new StringWriter();
+        long timedBefore = addProductCalls();
+
+        String summary = batchCommandRunner.run(Files.write(directory.resolve("rollback.txt"), commands), out);
+
+        assertTrue(summary.contains(" 1 groups replayed one by one"), summary);
+        // Only the replay commits, so each command is timed once
+        assertEquals(timedBefore + commands.size(), addProductCalls());
+        assertTrue(out.toString().startsWith("Successfully added product CatalogReplay!\n"), out.toString());
+        assertTrue(productRepository.findByName("CatalogReplay").isPresent());
+    }
+
+    private long addProductCalls() {
+        Timer timer = meterRegistry.find("shop.command.duration").tag("command", "AddProduct").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
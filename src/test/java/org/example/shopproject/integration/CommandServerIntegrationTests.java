@@ -0,0 +1,214 @@
+package org.example.shopproject.integration;
+
+import org.example.shopproject.core.CommandDispatcher;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.repository.ReceiptRepository;
+import org.example.shopproject.server.CommandLoadClient;
+import org.example.shopproject.server.CommandServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {"shop.server.enabled=true", "shop.server.port=0",
+        "shop.server.max-sessions=" + CommandServerIntegrationTests.MAX_SESSIONS, "shop.server.lock-stripes=1024"})
+@ActiveProfiles("h2")
+@DirtiesContext
+public class CommandServerIntegrationTests {
+    static final int MAX_SESSIONS = 8;
+    private static final int SHOPS = 4;
+    private static final int PRODUCTS_PER_SHOP = 3;
+
+    @Autowired
+    private CommandServer commandServer;
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @SpyBean
+    private CommandDispatcher dispatcher;
+
+    @Test
+    void testSessionsForDifferentShopsRunSideBySide() throws Exception {
+        // Each session shops in its own shop with its own client, so the sessions only share the server
+        List<List<String>> scripts = new ArrayList<>();
+        for (SeededShop shop : seedShops("Load", SHOPS)) {
+            scripts.add(List.of("AddProductToClient " + shop.clientId(), "AddProductToClient " + shop.clientId(),
+                    "GoToQueue " + shop.shopId(), "Buy " + shop.shopId(), "CalculateMoney"));
+        }
+        long receiptsBefore = receiptRepository.count();
+
+        CommandLoadClient.LoadReport report = CommandLoadClient.run("localhost", commandServer.getPort(), scripts);
+
+        assertEquals(SHOPS * scripts.get(0).size(), report.commands());
+        assertTrue(report.commandsPerSecond() > 0);
+        assertEquals(SHOPS, receiptRepository.count() - receiptsBefore);
+    }
+
+    @Test
+    void testCommandsWaitForTheirShopOnlyWhileAnotherShopProceeds() throws Exception {
+        List<SeededShop> shops = seedShops("Lane", 2);
+        String blocking = "GoToQueue " + shops.get(0).shopId();
+        String sameShop = "AddProductToClient " + shops.get(0).clientId();
+        String otherShop = "AddProductToClient " + shops.get(1).clientId();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean blockOnce = new AtomicBoolean(true);
+        List<String> events = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            String command = String.join(" ", (String[]) invocation.getArgument(0));
+            events.add("start " + command);
+            if (command.equals(blocking) && blockOnce.getAndSet(false)) {
+                blocked.countDown();
+                release.await(30, TimeUnit.SECONDS);
+            }
+            Object result = invocation.callRealMethod();
+            events.add("end " + command);
+            return result;
+        }).when(dispatcher).dispatch(any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<String> first = executor.submit(() -> send(blocking));
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            Future<String> waiting = executor.submit(() -> send(sameShop));
+            Future<String> other = executor.submit(() -> send(otherShop));
+
+            // The other shop's command finishes while the first shop's lane is still held
+            assertFalse(other.get(10, TimeUnit.SECONDS).isEmpty());
+            assertFalse(waiting.isDone());
+            assertFalse(events.contains("start " + sameShop));
+
+            release.countDown();
+            assertNotNull(first.get(10, TimeUnit.SECONDS));
+            assertFalse(waiting.get(10, TimeUnit.SECONDS).isEmpty());
+            assertTrue(events.indexOf("end " + blocking) < events.indexOf("start " + sameShop));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConnectionsBeyondMaxSessionsAreRejected() throws Exception {
+        waitForIdleSessions();
+        long rejectedBefore = commandServer.getRejectedCount();
+        List<Socket> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < MAX_SESSIONS; i++) {
+                Socket socket = new Socket("localhost", commandServer.getPort());
+                held.add(socket);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                new PrintWriter(socket.getOutputStream(), true).println("Nonsense");
+                assertEquals("Invalid input!", in.readLine());
+                assertEquals(".", in.readLine());
+            }
+            assertEquals(MAX_SESSIONS, commandServer.getActiveSessionCount());
+
+            try (Socket socket = new Socket("localhost", commandServer.getPort());
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+                assertEquals("Server is busy, too many sessions!", in.readLine());
+                assertEquals(".", in.readLine());
+                assertNull(in.readLine());
+            }
+            assertEquals(rejectedBefore + 1, commandServer.getRejectedCount());
+        } finally {
+            for (Socket socket : held) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    void testResponsesAreFramed() throws Exception {
+        try (Socket socket = new Socket("localhost", commandServer.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            out.println("Nonsense");
+            assertEquals("Invalid input!", in.readLine());
+            assertEquals(".", in.readLine());
+            out.println("Exit");
+            assertNull(in.readLine());
+        }
+    }
+
+    /**
+     * Sends one command in a session of its own and returns the response.
+     */
+    private String send(String command) throws IOException {
+        try (Socket socket = new Socket("localhost", commandServer.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            out.println(command);
+            StringBuilder response = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(".")) {
+                response.append(line).append('\n');
+            }
+            out.println("Exit");
+            return response.toString();
+        }
+    }
+
+    private void waitForIdleSessions() throws InterruptedException {
+        // Sessions of earlier tests give their slot back just after the client sees the connection close
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (commandServer.getActiveSessionCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, commandServer.getActiveSessionCount());
+    }
+
+    /**
+     * Ids come from the sequence in pools, so they are read back from the saved entities instead of being assumed.
+     */
+    private List<SeededShop> seedShops(String prefix, int shops) {
+        List<SeededShop> seeded = new ArrayList<>();
+        for (int n = 1; n <= shops; n++) {
+            Shop shop = new Shop(prefix + "Shop" + n);
+            Cashier cashier = new Cashier(prefix + "Cashier" + n, "Doe", 2000, null, null);
+            Checkout checkout = new Checkout(0, null, null);
+            Client client = new Client(prefix + "Client" + n, 1_000_000_000, null, null);
+            controller.addShop(shop);
+            controller.addCashier(cashier);
+            controller.addCheckout(checkout);
+            controller.addClient(client);
+            controller.assignToShop("Cashier", cashier.getId(), shop.getId());
+            controller.assignToShop("Checkout", checkout.getId(), shop.getId());
+            controller.addCashierToCheckout(cashier.getId(), checkout.getId());
+            controller.assignToShop("Client", client.getId(), shop.getId());
+            for (int i = 0; i < PRODUCTS_PER_SHOP; i++) {
+                Product product = new Product(prefix + "Shop" + n + "Product" + i, 1.5, 2.0, "EDIBLE",
+                        LocalDate.now().plusDays(30), 1000, false, null);
+                controller.addProduct(product);
+                controller.assignToShop("Product", product.getId(), shop.getId());
+            }
+            seeded.add(new SeededShop(shop.getId(), client.getId()));
+        }
+        return seeded;
+    }
+
+    private record SeededShop(long shopId, long clientId) {
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.repository.CashierRepository;
+import org.example.shopproject.service.ShopLedgerService;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements of the main operations, so a fetch plan that starts loading more than it needs
+ * shows up as a failing number rather than as a slow shop a month later.
+ */
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@ActiveProfiles("h2")
+@DirtiesContext
+public class FetchPlanIntegrationTests {
+    private static final int CHECKOUTS = 3;
+    private static final int PAST_RECEIPTS = 100;
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Autowired
+    private CashierRepository cashierRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testQueueAndBuyStatementCounts() {
+        long smallShop = seedShop("Small", 3).shopId();
+        long largeShop = seedShop("Large", 12).shopId();
+
+        long smallQueue = countStatements(() -> controller.goToQueue(smallShop));
+        long largeQueue = countStatements(() -> controller.goToQueue(largeShop));
+        long smallBuy = countStatements(() -> controller.buy(smallShop));
+        long largeBuy = countStatements(() -> controller.buy(largeShop));
+
+        // Shop with clients, checkouts (batch), queues (batch), carts (batch), then one batched update per table,
+        // plus the version increment of every checkout whose queue changed
+        assertEquals(7, smallQueue);
+        assertEquals(smallQueue, largeQueue);
+        // Receipt ids come from a pooled sequence, so the receipts of every client go into one batched INSERT;
+        // at most one extra statement when the 50 ids in hand run out and the sequence is called
+        assertTrue(smallBuy >= 13 && smallBuy <= 14);
+        assertTrue(largeBuy - smallBuy <= 1);
+    }
+
+    @Test
+    void testAddCashierToCheckoutDoesNotLoadReceiptHistory() {
+        ShopFixture.SeededShop seeded = seedShop("Assign", 0);
+        long shopId = seeded.shopId();
+        long[] ids = transactionTemplate.execute(status -> {
+            Shop shop = entityManager.find(Shop.class, shopId);
+            Cashier cashier = new Cashier("New", "Cashier", 1000, null, shop);
+            Checkout checkout = new Checkout(0, null, shop);
+            entityManager.persist(cashier);
+            entityManager.persist(checkout);
+            shop.getCashiers().add(cashier);
+            shop.getCheckouts().add(checkout);
+            return new long[]{cashier.getId(), checkout.getId()};
+        });
+
+        long statements = countStatements(() -> controller.addCashierToCheckout(ids[0], ids[1]));
+        long busyCashierId = seeded.cashierIds().get(0);
+        long loadStatements = countStatements(() -> transactionTemplate.executeWithoutResult(status -> {
+            Cashier busyCashier = cashierRepository.findForAssignmentById(busyCashierId).orElseThrow();
+            assertFalse(Hibernate.isInitialized(busyCashier.getReceipts()));
+        }));
+
+        assertEquals(4, statements);
+        // The cashier with its checkout and shop in one query, the receipts stay unloaded
+        assertEquals(1, loadStatements);
+    }
+
+    private long countStatements(Runnable operation) {
+        statistics.clear();
+        operation.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Creates a shop with {@link #CHECKOUTS} staffed checkouts whose first cashier already issued {@link #PAST_RECEIPTS}
+     * receipts, and the given number of clients with three products in their cart each.
+     */
+    private ShopFixture.SeededShop seedShop(String name, int clients) {
+        return new ShopFixture(entityManager, transactionTemplate, shopLedgerService).shop(name)
+                .checkouts(CHECKOUTS).pastReceipts(PAST_RECEIPTS).clientsWithCarts(clients, 1000).seed();
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.shopproject.integration;
+
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.FinanceReportSource;
+import org.example.shopproject.repository.*;
+import org.example.shopproject.service.FinanceReportService;
+import org.example.shopproject.service.ShopLedgerService;
+import org.example.shopproject.service.impl.FinanceReportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.MethodMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@DirtiesContext
+public class FinanceReportIntegrationTests {
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private ShopLedgerRepository shopLedgerRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CashierRepository cashierRepository;
+
+    @Autowired
+    private CheckoutRepository checkoutRepository;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testAllSourcesReportTheSameTotals() {
+        controller.addShop(new Shop("Corner"));
+        controller.addShop(new Shop("Empty"));
+        controller.addCashier(new Cashier("Jane", "Doe", 2000, null, null));
+        controller.addCheckout(new Checkout(0, null, null));
+        controller.addClient(new Client("John", 10000, null, null));
+        for (int i = 0; i < 5; i++) {
+            controller.addProduct(new Product("Product" + i, 1.5 + i, 2.0 + i, "EDIBLE",
+                    LocalDate.now().plusDays(30), 100, false, null));
+        }
+
+        controller.assignToShop("Cashier", 1, 1);
+        controller.assignToShop("Checkout", 1, 1);
+        controller.addCashierToCheckout(1, 1);
+        for (long productId = 1; productId <= 5; productId++) {
+            controller.assignToShop("Product", productId, 1);
+        }
+        controller.assignToShop("Client", 1, 1);
+        for (int i = 0; i < 3; i++) {
+            controller.addProductToClient(1);
+        }
+        controller.goToQueue(1);
+        controller.buy(1);
+
+        String ledger = report(FinanceReportSource.LEDGER);
+        String aggregate = report(FinanceReportSource.AGGREGATE);
+        String entities = report(FinanceReportSource.ENTITIES);
+
+        assertTrue(ledger.startsWith("Corner expenses: "));
+        assertTrue(ledger.contains("Empty earnings: "));
+        assertEquals(entities, aggregate);
+        assertEquals(entities, ledger);
+    }
+
+    @Test
+    @DirtiesContext(methodMode = MethodMode.AFTER_METHOD)
+    void testShopsWithoutLedgerAreReportedAndOpened() {
+        // Written straight through the repositories, the way shops created before ledgers existed look
+        transactionTemplate.executeWithoutResult(status -> {
+            Shop shop = shopRepository.save(new Shop("Legacy"));
+            shop.getCashiers().add(cashierRepository.save(new Cashier("Jane", "Doe", 2000, null, shop)));
+            shop.getBoughtProducts().add(productRepository.save(new Product("LegacyProduct", 1.5, 2.0, "EDIBLE",
+                    LocalDate.now().plusDays(30), 10, false, shop)));
+        });
+
+        assertTrue(report(FinanceReportSource.LEDGER).startsWith("Legacy expenses: "
+                + String.format("%.2f", 0.0) + System.lineSeparator()));
+        assertEquals(1, shopLedgerService.openMissingLedgers());
+        assertEquals(0, shopLedgerService.openMissingLedgers());
+        assertEquals(report(FinanceReportSource.AGGREGATE), report(FinanceReportSource.LEDGER));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = MethodMode.AFTER_METHOD)
+    void testReconcileAddsTheDriftBackOntoTheLedger() {
+        Shop shop = new Shop("Drifting");
+        controller.addShop(shop);
+        Cashier cashier = new Cashier("Jane", "Doe", 2000, null, null);
+        controller.addCashier(cashier);
+        controller.assignToShop("Cashier", cashier.getId(), shop.getId());
+        // An increment that no entity accounts for, the way a lost or doubled write leaves the ledger
+        transactionTemplate.executeWithoutResult(status -> shopLedgerRepository.addCheckoutEarnings(shop.getId(), 12.5));
+
+        String result = transactionTemplate.execute(status -> shopLedgerService.reconcile());
+
+        assertEquals(String.format("Ledger of shop Drifting drifted! Expenses drift: %.2f, earnings drift: %.2f\n",
+                0.0, 12.5), result);
+        assertEquals(report(FinanceReportSource.AGGREGATE), report(FinanceReportSource.LEDGER));
+        assertEquals("Ledger of shop Drifting is consistent!\n",
+                transactionTemplate.execute(status -> shopLedgerService.reconcile()));
+    }
+
+    private String report(FinanceReportSource source) {
+        FinanceReportService service = new FinanceReportServiceImpl(shopLedgerRepository, shopRepository,
+                productRepository, cashierRepository, checkoutRepository, source);
+        return transactionTemplate.execute(status -> service.calculateMoney());
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.config.IdSequenceMigration;
+import org.example.shopproject.model.entity.Cashier;
+import org.example.shopproject.model.entity.Shop;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@DirtiesContext
+public class IdSequenceMigrationIntegrationTests {
+    private static final long LEGACY_SHOP_ID = 10_000;
+    private static final long LEGACY_CASHIER_ID = 20_000;
+
+    @Autowired
+    private IdSequenceMigration idSequenceMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testSequencesAreMovedPastRowsWithIdentityIds() {
+        // Rows as the former IDENTITY columns left them, with ids far ahead of the fresh sequences
+        jdbcTemplate.update("INSERT INTO shops (id, name) VALUES (?, ?)", LEGACY_SHOP_ID, "LegacyShop");
+        jdbcTemplate.update("INSERT INTO cashiers (id, first_name, last_name, salary) VALUES (?, ?, ?, ?)",
+                LEGACY_CASHIER_ID, "Legacy", "Cashier", 1500);
+
+        List<String> moved = idSequenceMigration.migrate();
+
+        assertEquals(2, moved.size());
+        assertEquals(List.of(), idSequenceMigration.migrate());
+        long[] ids = transactionTemplate.execute(status -> {
+            Shop shop = new Shop("MigratedShop");
+            Cashier cashier = new Cashier("Migrated", "Cashier", 1500, null, shop);
+            entityManager.persist(shop);
+            entityManager.persist(cashier);
+            return new long[]{shop.getId(), cashier.getId()};
+        });
+        assertTrue(ids[0] > LEGACY_SHOP_ID);
+        assertTrue(ids[1] > LEGACY_CASHIER_ID);
+    }
+}
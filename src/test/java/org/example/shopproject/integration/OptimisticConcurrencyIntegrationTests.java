@@ -0,0 +1,196 @@
+package org.example.shopproject.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.repository.ShopLedgerRepository;
+import org.example.shopproject.service.ShopLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many sessions filling the same carts from shared stock and then buying the same shop at once. Whatever the
+ * interleaving, stock, money and the ledger must add up afterwards: conflicting transactions are rolled back and
+ * retried instead of overwriting each other.
+ */
+@SpringBootTest(properties = {"shop.retry.max-attempts=20", "shop.retry.initial-backoff-ms=1"})
+@ActiveProfiles("h2")
+@DirtiesContext
+public class OptimisticConcurrencyIntegrationTests {
+    private static final int THREADS = 8;
+    private static final int CLIENTS = 12;
+    private static final int PRODUCTS = 6;
+    private static final int STOCK = 40;
+    private static final double PRICE = 2;
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private ShopLedgerRepository shopLedgerRepository;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testConcurrentCartsAndBuysConserveStockAndMoney() throws Exception {
+        ShopFixture.SeededShop seeded = new ShopFixture(entityManager, transactionTemplate, shopLedgerService)
+                .shop("Optimistic").checkouts(2).products(PRODUCTS, PRICE, Category.NON_EDIBLE, STOCK)
+                .clients(CLIENTS, OptimisticConcurrencyIntegrationTests::moneyOf).seed();
+        long shopId = seeded.shopId();
+        List<Long> clientIds = seeded.clientIds();
+        double initialMoney = sumMoney();
+        AtomicInteger gaveUp = new AtomicInteger();
+
+        runThreads(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 25; i++) {
+                call(gaveUp, () -> controller.addProductToClient(clientIds.get(random.nextInt(CLIENTS))));
+            }
+        });
+
+        // Every unit taken from the shelves is in exactly one cart, and the ledger saw every committed reservation once
+        Map<String, Integer> carted = cartQuantities(shopId);
+        assertStockConserved(carted);
+        double cartValue = carted.values().stream().mapToDouble(quantity -> quantity * PRICE).sum();
+        assertEquals(PRODUCTS * STOCK * PRICE - cartValue, shopLedgerRepository.findByShopId(shopId).orElseThrow().getBoughtStock(), 1e-6);
+
+        controller.goToQueue(shopId);
+        runThreads(4, thread -> call(gaveUp, () -> controller.buy(shopId)));
+
+        // Each client paid at most once, and only what the checkouts earned
+        double earnings = transactionTemplate.execute(status -> entityManager.find(Shop.class, shopId).getCheckouts()
+                .stream().mapToDouble(Checkout::getEarnings).sum());
+        assertEquals(initialMoney, sumMoney() + earnings, 1e-6);
+        assertEquals(earnings, shopLedgerRepository.findByShopId(shopId).orElseThrow().getCheckoutEarnings(), 1e-6);
+        Map<String, Integer> sold = transactionTemplate.execute(status -> quantitiesByName(
+                entityManager.find(Shop.class, shopId).getSoldProducts()));
+        assertEquals(earnings, sold.values().stream().mapToDouble(quantity -> quantity * PRICE).sum(), 1e-6);
+        assertStockConserved(sold);
+        long receipts = entityManager.createQuery("SELECT COUNT(r) FROM Receipt r WHERE r.cashier.shop.id = :shopId",
+                Long.class).setParameter("shopId", shopId).getSingleResult();
+        long payingClients = transactionTemplate.execute(status -> clientIds.stream()
+                .map(id -> entityManager.find(Client.class, id))
+                .filter(client -> client.getMoney() < moneyOf(client.getFirstName()))
+                .count());
+        assertEquals(payingClients, receipts);
+
+        double conflicts = count(OptimisticRetryMeters.CONFLICTS);
+        assertEquals(conflicts, count(OptimisticRetryMeters.RETRIES) + count(OptimisticRetryMeters.EXHAUSTED));
+        assertEquals(gaveUp.get(), count(OptimisticRetryMeters.EXHAUSTED));
+    }
+
+    /**
+     * Every third client cannot pay, so Buy also returns carts to the shelves.
+     */
+    private static double moneyOf(int clientIndex) {
+        return clientIndex % 3 == 0 ? 0 : 1_000_000;
+    }
+
+    private static double moneyOf(String clientName) {
+        return moneyOf(Integer.parseInt(clientName.substring("OptimisticClient".length())));
+    }
+
+    private double sumMoney() {
+        return entityManager.createQuery("SELECT COALESCE(SUM(c.money), 0) FROM Client c " +
+                        "WHERE c.firstName LIKE 'OptimisticClient%'", Double.class).getSingleResult();
+    }
+
+    private Map<String, Integer> cartQuantities(long shopId) {
+        return transactionTemplate.execute(status -> {
+            List<ClientProduct> lines = new ArrayList<>();
+            for (Client client : entityManager.find(Shop.class, shopId).getClients()) {
+                lines.addAll(client.getProducts());
+            }
+            return quantitiesByName(lines);
+        });
+    }
+
+    private static Map<String, Integer> quantitiesByName(List<ClientProduct> lines) {
+        Map<String, Integer> quantities = new HashMap<>();
+        for (ClientProduct line : lines) {
+            quantities.merge(line.getName(), line.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void assertStockConserved(Map<String, Integer> taken) {
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = "OptimisticProduct" + i;
+            int remaining = entityManager.createQuery("SELECT p.quantity FROM Product p WHERE p.name = :name",
+                    Integer.class).setParameter("name", name).getSingleResult();
+            assertTrue(remaining >= 0);
+            assertEquals(STOCK, remaining + taken.getOrDefault(name, 0), name);
+        }
+    }
+
+    private double count(String meter) {
+        return registry.find(meter).counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private static void call(AtomicInteger gaveUp, Runnable command) {
+        try {
+            command.run();
+        } catch (OptimisticLockingFailureException e) {
+            gaveUp.incrementAndGet();
+        }
+    }
+
+    private static void runThreads(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+    /**
+     * The meter names of {@code OptimisticRetryAspect}, which are package-private there.
+     */
+    private static final class OptimisticRetryMeters {
+        static final String CONFLICTS = "shop.optimistic.conflicts";
+        static final String RETRIES = "shop.optimistic.retries";
+        static final String EXHAUSTED = "shop.optimistic.exhausted";
+    }
+}
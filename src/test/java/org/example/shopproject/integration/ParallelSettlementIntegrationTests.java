@@ -0,0 +1,90 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.repository.ReceiptRepository;
+import org.example.shopproject.repository.ShopLedgerRepository;
+import org.example.shopproject.service.ShopLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"shop.settlement.mode=PARALLEL", "shop.settlement.parallelism=4"})
+@ActiveProfiles("h2")
+@DirtiesContext
+public class ParallelSettlementIntegrationTests {
+    private static final int CHECKOUTS = 6;
+    private static final int CLIENTS = 60;
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private ShopLedgerRepository shopLedgerRepository;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testParallelBuySettlesEveryQueueOnce() {
+        long shopId = transactionTemplate.execute(status -> {
+            Shop shop = new Shop("Parallel");
+            entityManager.persist(shop);
+            for (int i = 0; i < CHECKOUTS; i++) {
+                Cashier cashier = new Cashier("ParallelCashier" + i, "Doe", 1500, null, shop);
+                Checkout checkout = new Checkout(0, cashier, shop);
+                entityManager.persist(cashier);
+                entityManager.persist(checkout);
+                cashier.setCheckout(checkout);
+                shop.getCashiers().add(cashier);
+                shop.getCheckouts().add(checkout);
+            }
+            for (int i = 0; i < CLIENTS; i++) {
+                Client client = new Client("ParallelClient" + i, 1000, null, shop);
+                ClientProduct line = new ClientProduct("ParallelCart" + i, 10, Category.NON_EDIBLE,
+                        LocalDate.now().plusDays(30), 2, false, shop);
+                entityManager.persist(line);
+                client.getProducts().add(line);
+                entityManager.persist(client);
+                shop.getClients().add(client);
+            }
+            shopLedgerService.openLedger(shop);
+            return shop.getId();
+        });
+        controller.goToQueue(shopId);
+
+        String result = controller.buy(shopId);
+
+        assertEquals(CLIENTS, result.split("Thank you for supporting the local business!").length - 1);
+        // Output follows the checkouts in order, the first client queued at the first checkout comes first
+        assertTrue(result.startsWith("Parallel\nCashier: ParallelCashier0 Doe\n"), result);
+        assertEquals(CLIENTS, receiptRepository.count());
+        assertEquals(CLIENTS * 20.0, shopLedgerRepository.findByShopId(shopId).orElseThrow().getCheckoutEarnings(),
+                1e-6);
+        transactionTemplate.executeWithoutResult(status -> {
+            Shop shop = entityManager.find(Shop.class, shopId);
+            assertTrue(shop.getClients().isEmpty());
+            assertEquals(CLIENTS, shop.getSoldProducts().size());
+            assertEquals(CLIENTS * 20.0, shop.getCheckouts().stream().mapToDouble(Checkout::getEarnings).sum(), 1e-6);
+            assertTrue(shop.getCheckouts().stream().allMatch(c -> c.getClients().isEmpty()));
+        });
+    }
+}
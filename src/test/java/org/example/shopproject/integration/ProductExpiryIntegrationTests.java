@@ -0,0 +1,105 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.Client;
+import org.example.shopproject.model.entity.ClientProduct;
+import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.ProductExpiryService;
+import org.example.shopproject.service.ShopLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@DirtiesContext
+public class ProductExpiryIntegrationTests {
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private ProductExpiryService productExpiryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Test
+    void testSweepMarksOnlyProductsPastTheirDate() {
+        LocalDate today = LocalDate.now();
+        long[] ids = transactionTemplate.execute(status -> {
+            Shop shop = new Shop("Sweep");
+            entityManager.persist(shop);
+            Product stale = new Product("SweepStale", 1, 2, "EDIBLE", today.minusDays(3), 10, false, shop);
+            Product lastDay = new Product("SweepLastDay", 1, 2, "EDIBLE", today, 10, false, shop);
+            Product loose = new Product("SweepLoose", 1, 2, "EDIBLE", today.minusDays(1), 4, false, null);
+            entityManager.persist(stale);
+            entityManager.persist(lastDay);
+            entityManager.persist(loose);
+            return new long[]{shop.getId(), stale.getId(), lastDay.getId(), loose.getId()};
+        });
+
+        String result = productExpiryService.sweep(today);
+
+        assertTrue(result.startsWith("Marked 2 products as expired!\n"));
+        assertTrue(result.contains(String.format("Shop %d: 1 products, 10 units\n", ids[0])));
+        assertTrue(result.contains("Shop none: 1 products, 4 units\n"));
+        assertTrue(productRepository.findById(ids[1]).orElseThrow().isExpired());
+        assertFalse(productRepository.findById(ids[2]).orElseThrow().isExpired());
+        assertTrue(productRepository.findById(ids[3]).orElseThrow().isExpired());
+        assertEquals("No products expired!\n", productExpiryService.sweep(today));
+        assertTrue(controller.assignToShop("Product", ids[1], ids[0]).endsWith("is expired!\n"));
+    }
+
+    @Test
+    void testExpiredProductsAreNotSampledForCarts() {
+        LocalDate today = LocalDate.now();
+        long clientId = transactionTemplate.execute(status -> {
+            Shop shop = new Shop("Shelf");
+            entityManager.persist(shop);
+            Product fresh = new Product("ShelfFresh", 1, 2, "EDIBLE", today.plusDays(30), 100, false, shop);
+            Product stale = new Product("ShelfStale", 1, 2, "EDIBLE", today.minusDays(1), 100, false, shop);
+            entityManager.persist(fresh);
+            entityManager.persist(stale);
+            shop.getBoughtProducts().addAll(List.of(fresh, stale));
+            Client client = new Client("ShelfClient", 1_000_000, null, shop);
+            entityManager.persist(client);
+            shop.getClients().add(client);
+            shopLedgerService.openLedger(shop);
+            return client.getId();
+        });
+
+        assertTrue(controller.sweepExpiredProducts().startsWith("Marked 1 products as expired!\n"));
+        // The requested quantity is drawn at random and may exceed the stock, which leaves the cart as it was
+        String result = controller.addProductToClient(clientId);
+        for (int attempt = 0; attempt < 20 && result.startsWith("Quantity not enough!"); attempt++) {
+            result = controller.addProductToClient(clientId);
+        }
+        assertTrue(result.startsWith("Successfully added product ShelfFresh"), result);
+        assertEquals("Client already has every product of shop Shelf in his cart!\n",
+                controller.addProductToClient(clientId));
+
+        List<String> cart = transactionTemplate.execute(status -> entityManager.find(Client.class, clientId)
+                .getProducts().stream().map(ClientProduct::getName).toList());
+        assertEquals(List.of("ShelfFresh"), cart);
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.entity.ShopLedger;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.repository.ShopLedgerRepository;
+import org.example.shopproject.service.ShopLedgerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.MethodMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shop.import.chunk-size=100")
+@ActiveProfiles("h2")
+@DirtiesContext
+public class ProductImportIntegrationTests {
+    private static final int ROWS = 1050;
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShopLedgerRepository shopLedgerRepository;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testImportAddsValidLinesInChunksAndReportsTheRest() throws IOException {
+        long shopId = transactionTemplate.execute(status -> {
+            Shop shop = new Shop("Import");
+            entityManager.persist(shop);
+            entityManager.persist(new Product("ImportExisting", 1, 2, "EDIBLE", LocalDate.now().plusDays(5), 1,
+                    false, null));
+            shopLedgerService.openLedger(shop);
+            return shop.getId();
+        });
+        String expireDate = LocalDate.now().plusDays(30).toString();
+        Path file = directory.resolve("products.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("name,price,category,expire_date,quantity,shop_id\n");
+            for (int i = 0; i < ROWS; i++) {
+                // Every other product goes to the shop, each worth 2 * 3 in bought stock
+                writer.write(String.format("ImportProduct%d,2,NON_EDIBLE,%s,3,%s\n", i, expireDate,
+                        i % 2 == 0 ? shopId : ""));
+            }
+            writer.write("ImportExisting,1,EDIBLE," + expireDate + ",1,\n");
+            writer.write("ImportProduct0,1,EDIBLE," + expireDate + ",1,\n");
+            writer.write("ImportStale,1,EDIBLE," + LocalDate.now().minusDays(1) + ",1,\n");
+            writer.write("ImportNegative,-1,EDIBLE," + expireDate + ",1,\n");
+            writer.write("ImportNoShop,1,EDIBLE," + expireDate + ",1,999999\n");
+            writer.write("ImportBroken,abc,EDIBLE," + expireDate + ",1,\n");
+            writer.write("ImportShort,1\n");
+        }
+
+        String result = controller.importProducts(file.toString());
+
+        int first = ROWS + 2;
+        assertTrue(result.startsWith(String.format("Imported %d products from %s, 7 of %d lines rejected",
+                ROWS, file, ROWS + 7)), result);
+        assertTrue(result.contains(String.format("Line %d: Product with name ImportExisting already exists!\n", first)));
+        assertTrue(result.contains(String.format("Line %d: Product with name ImportProduct0 already exists!\n", first + 1)));
+        assertTrue(result.contains(String.format("Line %d: Expired product!\n", first + 2)));
+        assertTrue(result.contains(String.format("Line %d: Invalid price!\n", first + 3)));
+        assertTrue(result.contains(String.format("Line %d: Shop with id: 999999 does not exist!\n", first + 4)));
+        assertTrue(result.contains(String.format("Line %d: Invalid product!\n", first + 5)));
+        assertTrue(result.contains(String.format("Line %d: Expected 6 fields but got 2!\n", first + 6)));
+
+        assertEquals(ROWS + 1, productRepository.count());
+        Product imported = productRepository.findByName("ImportProduct0").orElseThrow();
+        assertEquals(shopId, imported.getShop().getId());
+        assertEquals(5, imported.getClientPrice());
+        assertNull(productRepository.findByName("ImportProduct1").orElseThrow().getShop());
+        int bought = transactionTemplate.execute(status ->
+                entityManager.find(Shop.class, shopId).getBoughtProducts().size());
+        assertEquals(ROWS / 2, bought);
+        ShopLedger ledger = shopLedgerRepository.findByShopId(shopId).orElseThrow();
+        assertEquals(ROWS / 2 * 6.0, ledger.getBoughtStock(), 1e-6);
+    }
+
+    @Test
+    @DirtiesContext(methodMode = MethodMode.AFTER_METHOD)
+    void testLinesTheDatabaseRefusesAreRejectedOneByOne() throws IOException {
+        long productsBefore = productRepository.count();
+        // Passes every check of the import, so only the insert can fail
+        jdbcTemplate.execute("ALTER TABLE products ADD CONSTRAINT chk_import_refused CHECK (name <> 'ImportRefused')");
+        String expireDate = LocalDate.now().plusDays(30).toString();
+        Path file = directory.resolve("refused.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("name,price,category,expire_date,quantity,shop_id\n");
+            for (int i = 0; i < 150; i++) {
+                writer.write(String.format("%s,2,NON_EDIBLE,%s,3,\n", i == 10 ? "ImportRefused" : "ImportChunked" + i,
+                        expireDate));
+            }
+            writer.write("I".repeat(256) + ",2,NON_EDIBLE," + expireDate + ",3,\n");
+        }
+
+        String result = controller.importProducts(file.toString());
+
+        // Line 12 is in the first chunk of 100; the other 99 lines of that chunk are saved all the same
+        assertTrue(result.startsWith(String.format("Imported 149 products from %s, 2 of 151 lines rejected", file)),
+                result);
+        assertTrue(result.contains("Line 12: Could not save product ImportRefused: "), result);
+        assertTrue(result.contains("Line 152: Invalid product!\n"), result);
+        assertEquals(productsBefore + 149, productRepository.count());
+        assertTrue(productRepository.findByName("ImportChunked0").isPresent());
+        assertTrue(productRepository.findByName("ImportRefused").isEmpty());
+    }
+
+    @Test
+    void testMissingFileIsReported() {
+        String result = controller.importProducts(directory.resolve("missing.csv").toString());
+
+        assertTrue(result.startsWith("Could not import products: "));
+    }
+}
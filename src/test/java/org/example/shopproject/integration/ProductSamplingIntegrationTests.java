@@ -0,0 +1,86 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.Client;
+import org.example.shopproject.model.entity.ClientProduct;
+import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.service.ShopLedgerService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@ActiveProfiles("h2")
+@DirtiesContext
+public class ProductSamplingIntegrationTests {
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Test
+    void testCartFillsWithEveryProductExactlyOnce() {
+        long clientId = seedShop("Small", 12);
+
+        String result = "";
+        for (int i = 0; i < 200 && !result.startsWith("Client already has every product"); i++) {
+            result = controller.addProductToClient(clientId);
+        }
+
+        List<String> cart = transactionTemplate.execute(status -> entityManager.find(Client.class, clientId)
+                .getProducts().stream().map(ClientProduct::getName).toList());
+        assertEquals("Client already has every product of shop Small in his cart!\n", result);
+        assertEquals(12, cart.size());
+        assertEquals(12, new HashSet<>(cart).size());
+    }
+
+    @Test
+    void testStatementCountDoesNotDependOnCatalogSize() {
+        long smallClient = seedShop("Narrow", 10);
+        long largeClient = seedShop("Wide", 2000);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long[] clients = {smallClient, largeClient};
+        long[] statements = new long[clients.length];
+        long[] loadedEntities = new long[clients.length];
+        for (int i = 0; i < clients.length; i++) {
+            statistics.clear();
+            assertTrue(controller.addProductToClient(clients[i]).startsWith("Successfully added product"));
+            statements[i] = statistics.getPrepareStatementCount();
+            loadedEntities[i] = statistics.getEntityLoadCount();
+        }
+        assertEquals(statements[0], statements[1]);
+        assertEquals(loadedEntities[0], loadedEntities[1]);
+    }
+
+    /**
+     * Returns the id of the one client, without a cart, of a shop with the given number of products in stock.
+     */
+    private long seedShop(String name, int products) {
+        return new ShopFixture(entityManager, transactionTemplate, shopLedgerService).shop(name)
+                .products(products, 2, Category.EDIBLE, 100_000).clients(1, index -> 1_000_000).seed().clientIds().get(0);
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.config.ReceiptShopMigration;
+import org.example.shopproject.model.entity.Cashier;
+import org.example.shopproject.model.entity.Receipt;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
+import org.example.shopproject.model.projection.ReceiptHistoryPage;
+import org.example.shopproject.model.projection.ReceiptSummary;
+import org.example.shopproject.service.ReceiptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the receipt history page by page and checks that the pages add up to exactly the receipts of the range,
+ * in (issuedDate, serial number) order, even when many receipts share the same timestamp. Shop history follows the
+ * shop a receipt was issued in, so it does not change when a cashier moves.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DirtiesContext
+public class ReceiptHistoryIntegrationTests {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+    private static final int RECEIPTS_PER_CASHIER = 45;
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReceiptShopMigration receiptShopMigration;
+
+    private long busyCashierId;
+    private long quietCashierId;
+    private long shopId;
+    private long otherShopId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Shop shop = new Shop("History" + System.nanoTime());
+            Shop otherShop = new Shop("Other" + System.nanoTime());
+            entityManager.persist(shop);
+            entityManager.persist(otherShop);
+            Cashier busyCashier = persistCashier("Busy", shop);
+            Cashier quietCashier = persistCashier("Quiet", shop);
+            Cashier otherCashier = persistCashier("Other", otherShop);
+            for (int i = 0; i < RECEIPTS_PER_CASHIER; i++) {
+                // Three receipts per minute, so most page boundaries fall inside a run of equal timestamps
+                LocalDateTime issuedDate = START.plusMinutes(i / 3);
+                entityManager.persist(new Receipt(shop, busyCashier, issuedDate, new ArrayList<>(), i));
+                entityManager.persist(new Receipt(shop, quietCashier, issuedDate, new ArrayList<>(), i));
+                entityManager.persist(new Receipt(otherShop, otherCashier, issuedDate, new ArrayList<>(), i));
+            }
+            busyCashierId = busyCashier.getId();
+            quietCashierId = quietCashier.getId();
+            shopId = shop.getId();
+            otherShopId = otherShop.getId();
+        });
+    }
+
+    @Test
+    void testCashierPagesCoverRangeInOrder() {
+        LocalDateTime from = START.plusMinutes(2);
+        LocalDateTime to = START.plusMinutes(12);
+
+        List<ReceiptSummary> walked = walk(ReceiptHistoryScope.CASHIER, busyCashierId, from, to, 4);
+
+        // Minutes 2..11 with three receipts each
+        assertEquals(30, walked.size());
+        assertTrue(walked.stream().allMatch(receipt -> receipt.cashierId() == busyCashierId));
+        assertTrue(walked.stream().allMatch(receipt -> !receipt.issuedDate().isBefore(from) && receipt.issuedDate().isBefore(to)));
+        assertOrdered(walked);
+        assertEquals(walked, streamed(ReceiptHistoryScope.CASHIER, busyCashierId, from, to));
+    }
+
+    @Test
+    void testShopPagesExcludeOtherShops() {
+        LocalDateTime to = START.plusDays(1);
+
+        List<ReceiptSummary> walked = walk(ReceiptHistoryScope.SHOP, shopId, START, to, 7);
+
+        assertEquals(RECEIPTS_PER_CASHIER * 2, walked.size());
+        assertEquals(RECEIPTS_PER_CASHIER * 2L, walked.stream().map(ReceiptSummary::serialNumber).distinct().count());
+        assertOrdered(walked);
+        assertEquals(walked, streamed(ReceiptHistoryScope.SHOP, shopId, START, to));
+    }
+
+    @Test
+    void testReceiptsStayWithTheirShopWhenTheCashierMoves() {
+        LocalDateTime to = START.plusDays(1);
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Cashier.class, quietCashierId).setShop(entityManager.find(Shop.class, otherShopId)));
+
+        assertEquals(RECEIPTS_PER_CASHIER * 2, walk(ReceiptHistoryScope.SHOP, shopId, START, to, 7).size());
+        assertEquals(RECEIPTS_PER_CASHIER, streamed(ReceiptHistoryScope.SHOP, otherShopId, START, to).size());
+    }
+
+    @Test
+    void testMigrationFillsInTheShopOfOlderReceipts() {
+        LocalDateTime issuedDate = START.minusDays(1);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(
+                new Receipt(null, entityManager.find(Cashier.class, busyCashierId), issuedDate, new ArrayList<>(), 1)));
+
+        assertEquals(1, receiptShopMigration.migrate());
+        assertEquals(0, receiptShopMigration.migrate());
+        List<ReceiptSummary> walked = walk(ReceiptHistoryScope.SHOP, shopId, issuedDate, START, 7);
+        assertEquals(1, walked.size());
+        assertEquals(busyCashierId, walked.get(0).cashierId());
+    }
+
+    @Test
+    void testLastFullPageHasNoCursor() {
+        ReceiptHistoryPage page = receiptService.findHistory(ReceiptHistoryScope.CASHIER, busyCashierId,
+                START, START.plusMinutes(1), null, 3);
+
+        assertEquals(3, page.receipts().size());
+        assertNull(page.next());
+    }
+
+    private List<ReceiptSummary> walk(ReceiptHistoryScope scope, long ownerId, LocalDateTime from, LocalDateTime to,
+                                      int pageSize) {
+        List<ReceiptSummary> walked = new ArrayList<>();
+        ReceiptCursor cursor = null;
+        do {
+            ReceiptHistoryPage page = receiptService.findHistory(scope, ownerId, from, to, cursor, pageSize);
+            assertTrue(page.receipts().size() <= pageSize);
+            walked.addAll(page.receipts());
+            cursor = page.next();
+        } while (cursor != null);
+        return walked;
+    }
+
+    private List<ReceiptSummary> streamed(ReceiptHistoryScope scope, long ownerId, LocalDateTime from, LocalDateTime to) {
+        List<ReceiptSummary> streamed = new ArrayList<>();
+        long count = receiptService.streamHistory(scope, ownerId, from, to, streamed::add);
+        assertEquals(streamed.size(), count);
+        return streamed;
+    }
+
+    private Cashier persistCashier(String name, Shop shop) {
+        Cashier cashier = new Cashier(name, "Doe", 1500, null, shop);
+        entityManager.persist(cashier);
+        shop.getCashiers().add(cashier);
+        return cashier;
+    }
+
+    private static void assertOrdered(List<ReceiptSummary> receipts) {
+        for (int i = 1; i < receipts.size(); i++) {
+            ReceiptSummary previous = receipts.get(i - 1);
+            ReceiptSummary current = receipts.get(i);
+            int byDate = previous.issuedDate().compareTo(current.issuedDate());
+            assertTrue(byDate < 0 || (byDate == 0 && previous.serialNumber() < current.serialNumber()));
+        }
+    }
+}
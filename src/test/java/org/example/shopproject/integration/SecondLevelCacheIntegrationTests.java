@@ -0,0 +1,67 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.model.entity.Cashier;
+import org.example.shopproject.model.entity.Checkout;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.repository.ShopRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles({"h2", "l2cache"})
+@DirtiesContext
+public class SecondLevelCacheIntegrationTests {
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testShopAndItsCollectionsAreServedFromCache() {
+        controller.addShop(new Shop("Cached"));
+        controller.addCashier(new Cashier("Jane", "Doe", 2000, null, null));
+        controller.addCheckout(new Checkout(0, null, null));
+        controller.assignToShop("Cashier", 1, 1);
+        controller.assignToShop("Checkout", 1, 1);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < 3; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Shop shop = shopRepository.findById(1L).orElseThrow();
+                assertEquals(1, shop.getCashiers().size());
+                assertEquals(1, shop.getCheckouts().size());
+            });
+        }
+
+        assertTrue(statistics.getDomainDataRegionStatistics("shops").getHitCount() >= 2);
+        assertTrue(statistics.getDomainDataRegionStatistics("shop-cashiers").getHitCount() >= 2);
+        assertTrue(statistics.getDomainDataRegionStatistics("shop-checkouts").getHitCount() >= 2);
+
+        shopRepository.findByName("Cached");
+        shopRepository.findByName("Cached");
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        String report = controller.reportCacheStatistics();
+        assertTrue(report.contains("shops: hits "));
+        assertTrue(report.contains("query cache: hits 1"));
+    }
+}
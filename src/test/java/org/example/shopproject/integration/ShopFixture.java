@@ -0,0 +1,160 @@
+package org.example.shopproject.integration;
+
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.service.ShopLedgerService;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Seeds a shop straight through the entity manager, in one transaction and with its ledger opened, so a test starts
+ * from the shape it needs without going through the commands it measures. Every name starts with the shop's name:
+ * cashiers are {@code <shop>Cashier<i>}, products {@code <shop>Product<i>}, clients {@code <shop>Client<i>}, cart lines
+ * {@code <shop>Cart<i>Product<j>} and the lines of past receipts {@code <shop>Old<i>Product<j>}.
+ * <p>
+ * Ids come from the sequence in pools, so they are read back from the seeded shop instead of being assumed.
+ */
+final class ShopFixture {
+    static final int CART_SIZE = 3;
+    static final double CART_LINE_PRICE = 10;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ShopLedgerService shopLedgerService;
+
+    ShopFixture(EntityManager entityManager, TransactionTemplate transactionTemplate,
+                ShopLedgerService shopLedgerService) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.shopLedgerService = shopLedgerService;
+    }
+
+    Builder shop(String name) {
+        return new Builder(name);
+    }
+
+    record SeededShop(long shopId, List<Long> cashierIds, List<Long> clientIds) {
+    }
+
+    final class Builder {
+        private final String name;
+        private int checkouts;
+        private int pastReceipts;
+        private int products;
+        private double productPrice;
+        private Category productCategory;
+        private int productQuantity;
+        private int clients;
+        private IntToDoubleFunction clientMoney;
+        private boolean clientsHaveCarts;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Checkouts, each staffed by a cashier of its own.
+         */
+        Builder checkouts(int checkouts) {
+            this.checkouts = checkouts;
+            return this;
+        }
+
+        /**
+         * Receipts already issued by the first cashier, with a full cart each.
+         */
+        Builder pastReceipts(int pastReceipts) {
+            this.pastReceipts = pastReceipts;
+            return this;
+        }
+
+        /**
+         * Products in stock, bought and sold at the same price.
+         */
+        Builder products(int products, double price, Category category, int quantity) {
+            this.products = products;
+            this.productPrice = price;
+            this.productCategory = category;
+            this.productQuantity = quantity;
+            return this;
+        }
+
+        /**
+         * Clients in the shop with an empty cart; the money of each is looked up by its index.
+         */
+        Builder clients(int clients, IntToDoubleFunction money) {
+            this.clients = clients;
+            this.clientMoney = money;
+            this.clientsHaveCarts = false;
+            return this;
+        }
+
+        /**
+         * Clients in the shop with {@link #CART_SIZE} lines of {@link #CART_LINE_PRICE} in their cart.
+         */
+        Builder clientsWithCarts(int clients, double money) {
+            this.clients = clients;
+            this.clientMoney = index -> money;
+            this.clientsHaveCarts = true;
+            return this;
+        }
+
+        SeededShop seed() {
+            return transactionTemplate.execute(status -> {
+                Shop shop = new Shop(name);
+                entityManager.persist(shop);
+                List<Long> cashierIds = new ArrayList<>();
+                for (int i = 0; i < checkouts; i++) {
+                    Cashier cashier = new Cashier(name + "Cashier" + i, "Doe", 1500, null, shop);
+                    Checkout checkout = new Checkout(0, cashier, shop);
+                    entityManager.persist(cashier);
+                    entityManager.persist(checkout);
+                    cashier.setCheckout(checkout);
+                    shop.getCashiers().add(cashier);
+                    shop.getCheckouts().add(checkout);
+                    cashierIds.add(cashier.getId());
+                }
+                for (int i = 0; i < pastReceipts; i++) {
+                    List<ClientProduct> lines = cart(shop, name + "Old" + i);
+                    entityManager.persist(new Receipt(shop, shop.getCashiers().get(0), LocalDateTime.now(),
+                            lines, CART_SIZE * CART_LINE_PRICE));
+                }
+                for (int i = 0; i < products; i++) {
+                    Product product = new Product(name + "Product" + i, productPrice, productPrice,
+                            productCategory.name(), LocalDate.now().plusDays(30), productQuantity, false, shop);
+                    entityManager.persist(product);
+                    shop.getBoughtProducts().add(product);
+                }
+                List<Long> clientIds = new ArrayList<>();
+                for (int i = 0; i < clients; i++) {
+                    Client client = new Client(name + "Client" + i, clientMoney.applyAsDouble(i), null, shop);
+                    if (clientsHaveCarts) {
+                        client.getProducts().addAll(cart(shop, name + "Cart" + i));
+                    }
+                    entityManager.persist(client);
+                    shop.getClients().add(client);
+                    clientIds.add(client.getId());
+                }
+                shopLedgerService.openLedger(shop);
+                return new SeededShop(shop.getId(), cashierIds, clientIds);
+            });
+        }
+
+        private List<ClientProduct> cart(Shop shop, String prefix) {
+            List<ClientProduct> lines = new ArrayList<>();
+            for (int i = 0; i < CART_SIZE; i++) {
+                ClientProduct line = new ClientProduct(prefix + "Product" + i, CART_LINE_PRICE, Category.EDIBLE,
+                        LocalDate.now().plusDays(30), 1, false, shop);
+                entityManager.persist(line);
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.shopproject.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.service.ShopLedgerService;
+import org.example.shopproject.sql.SqlStatementCounter;
+import org.example.shopproject.sql.StatementTally;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.example.shopproject.sql.SqlStatementAssertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets of the operations that scale with the number of clients, and the budget log of the service aspect
+ * (configured here with a budget of 10 statements).
+ */
+@SpringBootTest(properties = "shop.sql.budget.statements=10")
+@ActiveProfiles("h2")
+@DirtiesContext
+public class StatementBudgetIntegrationTests {
+    private static final int CHECKOUTS = 3;
+    private static final int CLIENTS = 100;
+
+    @Autowired
+    private Controller controller;
+
+    @Autowired
+    private SqlStatementCounter counter;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShopLedgerService shopLedgerService;
+
+    @Test
+    void testQueueAndBuyFor100Clients() {
+        long shopId = seedShop("Budget", CLIENTS);
+
+        // Carts are loaded 50 clients per query (default_batch_fetch_size), so 100 clients take two queries
+        StatementTally queue = assertNoRepeatedStatements(counter, 2, () -> controller.goToQueue(shopId));
+        // Receipt ids come from a pooled sequence (50 per call), so the receipts are one batched INSERT
+        StatementTally buy = assertNoRepeatedStatements(counter, 2, () -> controller.buy(shopId));
+
+        assertTrue(queue.count() <= 8);
+        assertTrue(buy.count() <= 16);
+    }
+
+    @Test
+    void testCalculateMoneyDoesNotDependOnShops() {
+        seedShop("Money1", 0);
+        StatementTally oneShop = counter.measure(() -> controller.calculateMoney());
+        seedShop("Money2", 0);
+        seedShop("Money3", 0);
+
+        assertStatementsAtMost(counter, oneShop.count(), () -> controller.calculateMoney());
+    }
+
+    @Test
+    void testServiceCallOverBudgetIsRecorded() {
+        long shopId = seedShop("OverBudget", 30);
+        controller.goToQueue(shopId);
+
+        controller.buy(shopId);
+
+        double exceeded = registry.find("shop.service.statement.budget.exceeded").counters().stream()
+                .filter(c -> c.getId().getTag("method").endsWith(".buy"))
+                .mapToDouble(c -> c.count()).sum();
+        assertEquals(1, exceeded);
+        assertTrue(registry.find("shop.service.statements").summaries().stream()
+                .anyMatch(s -> s.getId().getTag("method").endsWith(".goToQueue") && s.max() <= 10));
+    }
+
+    @Test
+    void testNestedMeasureIsRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> counter.measure(() -> counter.measure(() -> controller.calculateMoney())));
+    }
+
+    private long seedShop(String name, int clients) {
+        return new ShopFixture(entityManager, transactionTemplate, shopLedgerService).shop(name)
+                .checkouts(CHECKOUTS).clientsWithCarts(clients, 1000).seed().shopId();
+    }
+}
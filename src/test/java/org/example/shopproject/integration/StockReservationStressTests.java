@@ -0,0 +1,132 @@
+package org.example.shopproject.integration;
+
+import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@DirtiesContext
+public class StockReservationStressTests {
+    private static final int THREADS = 8;
+    private static final int INITIAL_QUANTITY = 500;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws Exception {
+        List<Product> products = saveProducts("Contended", 4, INITIAL_QUANTITY);
+        AtomicLongArray taken = new AtomicLongArray(products.size());
+        long contendedBefore = stockReservationService.getContendedCount();
+
+        // Every thread asks for far more than the shelves hold, all on the same few rows
+        runThreads(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 400; i++) {
+                int position = random.nextInt(products.size());
+                int quantity = random.nextInt(5) + 1;
+                if (stockReservationService.reserve(products.get(position).getId(), quantity)) {
+                    taken.addAndGet(position, quantity);
+                }
+            }
+        });
+
+        for (int i = 0; i < products.size(); i++) {
+            int remaining = productRepository.findById(products.get(i).getId()).orElseThrow().getQuantity();
+            assertTrue(remaining >= 0);
+            assertEquals(INITIAL_QUANTITY, remaining + taken.get(i));
+        }
+        assertTrue(stockReservationService.getContendedCount() > contendedBefore);
+    }
+
+    @Test
+    void testReservationsOfIndependentProductsNeverContend() throws Exception {
+        int reservationsPerThread = 500;
+        // One unit short per product, so the last reservation of every thread finds the shelf empty
+        List<Product> products = saveProducts("Independent", THREADS, reservationsPerThread - 1);
+        AtomicLongArray reserved = new AtomicLongArray(THREADS);
+        long contendedBefore = stockReservationService.getContendedCount();
+
+        runThreads(THREADS, thread -> {
+            long productId = products.get(thread).getId();
+            for (int i = 0; i < reservationsPerThread; i++) {
+                if (stockReservationService.reserve(productId, 1)) {
+                    reserved.incrementAndGet(thread);
+                }
+            }
+        });
+
+        // Nobody shares a row, so the only refusals are the empty shelves
+        assertEquals(contendedBefore + THREADS, stockReservationService.getContendedCount());
+        for (int i = 0; i < THREADS; i++) {
+            assertEquals(reservationsPerThread - 1, reserved.get(i));
+            assertEquals(0, productRepository.findById(products.get(i).getId()).orElseThrow().getQuantity());
+        }
+    }
+
+    @Test
+    void testReservationDoesNotLeaveStaleProductInTransaction() {
+        long productId = saveProducts("Managed", 1, 10).get(0).getId();
+
+        int quantity = transactionTemplate.execute(status -> {
+            productRepository.findById(productId).orElseThrow();
+            assertTrue(stockReservationService.reserve(productId, 3));
+            return productRepository.findById(productId).orElseThrow().getQuantity();
+        });
+
+        assertEquals(7, quantity);
+    }
+
+    private List<Product> saveProducts(String prefix, int count, int quantity) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(prefix + i, 2.5, 3.0, "EDIBLE", LocalDate.now().plusDays(30), quantity, false, null));
+        }
+        return productRepository.saveAll(products);
+    }
+
+    private static void runThreads(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
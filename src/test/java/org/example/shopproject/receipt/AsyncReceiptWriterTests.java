@@ -0,0 +1,85 @@
+package org.example.shopproject.receipt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncReceiptWriterTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSubmittedReceiptsAreWrittenOnShutdown() throws Exception {
+        AsyncReceiptWriter writer = new AsyncReceiptWriter(new FileReceiptStore(directory), 4, 2, ReceiptDurability.BATCH);
+
+        for (int i = 1; i <= 10; i++) {
+            writer.submit(i, String.format("Jane_%d_receipt.txt", i), "Receipt " + i);
+        }
+        writer.destroy();
+
+        assertEquals(10, writer.getWrittenCount());
+        assertEquals(0, writer.getFailedCount());
+        assertEquals("Receipt 7", Files.readString(directory.resolve("Jane_7_receipt.txt")));
+    }
+
+    @Test
+    void testWriteFailuresAreCounted() throws Exception {
+        AsyncReceiptWriter writer = new AsyncReceiptWriter(new FileReceiptStore(directory), 4, 4, ReceiptDurability.RECEIPT);
+
+        writer.submit(1, "missing/Jane_1_receipt.txt", "Receipt 1");
+        writer.submit(2, "Jane_2_receipt.txt", "Receipt 2");
+        writer.destroy();
+
+        assertEquals(1, writer.getWrittenCount());
+        assertEquals(1, writer.getFailedCount());
+    }
+
+    @Test
+    void testSubmitAfterShutdownIsRejected() throws Exception {
+        AsyncReceiptWriter writer = new AsyncReceiptWriter(new FileReceiptStore(directory), 4, 4, ReceiptDurability.NONE);
+        writer.destroy();
+
+        assertThrows(IllegalStateException.class, () -> writer.submit(1, "Jane_1_receipt.txt", "Receipt 1"));
+    }
+
+    @Test
+    void testSubmitsRacingShutdownAreEitherWrittenOrRejected() throws Exception {
+        AsyncReceiptWriter writer = new AsyncReceiptWriter(new FileReceiptStore(directory), 1, 1, ReceiptDurability.NONE);
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        writer.submit(thread * 50L + i, String.format("Jane_%d_%d_receipt.txt", thread, i), "Receipt");
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        writer.destroy();
+
+        // Submits blocked on the full queue must not hang once the writer thread is gone
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(200, writer.getWrittenCount() + rejected.get());
+        assertEquals(0, writer.getFailedCount());
+    }
+}
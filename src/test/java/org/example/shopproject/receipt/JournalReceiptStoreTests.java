@@ -0,0 +1,165 @@
+package org.example.shopproject.receipt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalReceiptStoreTests {
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2024-05-20T10:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReceiptsCanBeReadBackAfterReopening() throws IOException {
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            for (long serial = 1; serial <= 100; serial++) {
+                store.append(new StoredReceipt(serial, "Jane_" + serial + "_receipt.txt", "Receipt " + serial));
+            }
+            assertEquals("Receipt 42", store.read(42).orElseThrow().content());
+        }
+
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            StoredReceipt receipt = store.read(77).orElseThrow();
+            assertEquals("Jane_77_receipt.txt", receipt.fileName());
+            assertEquals("Receipt 77", receipt.content());
+            assertTrue(store.read(101).isEmpty());
+        }
+    }
+
+    @Test
+    void testSegmentsRollOverBySize() throws IOException {
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 256, true, FIXED_CLOCK)) {
+            for (long serial = 1; serial <= 20; serial++) {
+                store.append(new StoredReceipt(serial, "Jane_" + serial + "_receipt.txt", "Receipt " + serial));
+            }
+            store.flush(true);
+            assertEquals("Receipt 1", store.read(1).orElseThrow().content());
+            assertEquals("Receipt 20", store.read(20).orElseThrow().content());
+        }
+        assertTrue(segments().size() > 1);
+    }
+
+    @Test
+    void testSegmentsRollOverByDate() throws IOException {
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            store.append(new StoredReceipt(1, "Jane_1_receipt.txt", "Receipt 1"));
+        }
+        Clock nextDay = Clock.offset(FIXED_CLOCK, Duration.ofDays(1));
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, nextDay)) {
+            store.append(new StoredReceipt(2, "Jane_2_receipt.txt", "Receipt 2"));
+            assertEquals("Receipt 1", store.read(1).orElseThrow().content());
+        }
+        List<Path> segments = segments();
+        assertEquals(2, segments.size());
+        assertTrue(segments.stream().anyMatch(p -> p.getFileName().toString().endsWith("-20240521.journal")));
+    }
+
+    @Test
+    void testReadFromMissingSegmentIsReported() throws IOException {
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            store.append(new StoredReceipt(1, "Jane_1_receipt.txt", "Receipt 1"));
+        }
+        Clock nextDay = Clock.offset(FIXED_CLOCK, Duration.ofDays(1));
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, nextDay)) {
+            store.append(new StoredReceipt(2, "Jane_2_receipt.txt", "Receipt 2"));
+        }
+        Files.delete(segments().stream().sorted().findFirst().orElseThrow());
+
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, nextDay)) {
+            IOException e = assertThrows(IOException.class, () -> store.read(1));
+            assertTrue(e.getMessage().startsWith("Receipt 1 is indexed in segment 1"), e.getMessage());
+            assertEquals("Receipt 2", store.read(2).orElseThrow().content());
+        }
+    }
+
+    @Test
+    void testUnindexedRecordsAreRecoveredAndTornTailIsDropped() throws IOException {
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            store.append(new StoredReceipt(1, "Jane_1_receipt.txt", "Receipt 1"));
+            store.append(new StoredReceipt(2, "Jane_2_receipt.txt", "Receipt 2"));
+        }
+        // Simulate a crash after the segment write but before the index write, followed by a torn append
+        try (FileChannel index = FileChannel.open(directory.resolve("receipts.index"), StandardOpenOption.WRITE)) {
+            index.truncate(0);
+        }
+        Path segment = segments().get(0);
+        long intactSize = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 50, 1, 2}, StandardOpenOption.APPEND);
+
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            assertEquals("Receipt 2", store.read(2).orElseThrow().content());
+            store.append(new StoredReceipt(3, "Jane_3_receipt.txt", "Receipt 3"));
+            assertEquals("Receipt 3", store.read(3).orElseThrow().content());
+        }
+        assertTrue(Files.size(segment) > intactSize);
+    }
+
+    @Test
+    void testIndexEntriesPastTheSegmentDataAreDropped() throws IOException {
+        long firstRecordEnd;
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            store.append(new StoredReceipt(1, "Jane_1_receipt.txt", "Receipt 1"));
+            store.flush(false);
+            firstRecordEnd = Files.size(segments().get(0));
+            store.append(new StoredReceipt(2, "Jane_2_receipt.txt", "Receipt 2"));
+            store.append(new StoredReceipt(3, "Jane_3_receipt.txt", "Receipt 3"));
+        }
+        // Simulate a crash that kept the index but lost the segment data after the first record and a half
+        try (FileChannel segment = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            segment.truncate(firstRecordEnd + 5);
+        }
+
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            assertEquals("Receipt 1", store.read(1).orElseThrow().content());
+            assertTrue(store.read(2).isEmpty());
+            assertTrue(store.read(3).isEmpty());
+            store.append(new StoredReceipt(4, "Jane_4_receipt.txt", "Receipt 4"));
+            assertEquals("Receipt 4", store.read(4).orElseThrow().content());
+        }
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK)) {
+            assertTrue(store.read(2).isEmpty());
+            assertTrue(store.read(3).isEmpty());
+            assertEquals("Receipt 4", store.read(4).orElseThrow().content());
+        }
+    }
+
+    @Test
+    void testEmptySegmentOfAnEarlierDayIsReplaced() throws IOException {
+        new JournalReceiptStore(directory, 1024 * 1024, true, FIXED_CLOCK).close();
+        Clock nextDay = Clock.offset(FIXED_CLOCK, Duration.ofDays(1));
+
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, nextDay)) {
+            store.append(new StoredReceipt(1, "Jane_1_receipt.txt", "Receipt 1"));
+        }
+
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        assertTrue(segments.get(0).getFileName().toString().endsWith("-20240521.journal"));
+        try (JournalReceiptStore store = new JournalReceiptStore(directory, 1024 * 1024, true, nextDay)) {
+            assertEquals("Receipt 1", store.read(1).orElseThrow().content());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.journal")) {
+            files.forEach(segments::add);
+        }
+        return segments;
+    }
+}
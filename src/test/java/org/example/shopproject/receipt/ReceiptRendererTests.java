@@ -0,0 +1,66 @@
+package org.example.shopproject.receipt;
+
+import org.example.shopproject.model.entity.ClientProduct;
+import org.example.shopproject.model.enums.Category;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReceiptRendererTests {
+
+    @Test
+    void testRenderMatchesFormatTemplate() {
+        List<ClientProduct> products = List.of(
+                new ClientProduct("Milk", 2.5, Category.EDIBLE, LocalDate.now(), 3, false, null),
+                new ClientProduct("Soap", 4.0, Category.NON_EDIBLE, LocalDate.now(), 1, false, null));
+        LocalDateTime issuedDate = LocalDateTime.of(2024, 5, 20, 9, 5, 7);
+
+        String result = ReceiptRenderer.render("Corner", "Jane", "Doe", 42, products, 11.505, issuedDate);
+
+        assertEquals(legacyRender("Corner", "Jane", "Doe", 42, products, 11.505, issuedDate), result);
+    }
+
+    @Test
+    void testMoneyMatchesStringFormat() {
+        Random random = new Random(7);
+        double[] ties = {0.005, 0.015, 0.125, 1.005, 2.675, 1.115, 10.235, 0.0, -0.0, -1.005, 99999.995, 0.994999};
+        for (double value : ties) {
+            assertMoney(value);
+        }
+        for (int i = 0; i < 200_000; i++) {
+            assertMoney(random.nextInt(1_000_000) / 1000.0);
+            assertMoney(random.nextDouble() * Math.pow(10, random.nextInt(12)));
+        }
+    }
+
+    private static void assertMoney(double value) {
+        StringBuilder sb = new StringBuilder();
+        ReceiptRenderer.appendMoney(sb, value);
+        assertEquals(String.format("%.2f", value), sb.toString(), () -> "value " + value);
+    }
+
+    private static String legacyRender(String shopName, String firstName, String lastName, long serialNumber,
+                                       List<ClientProduct> products, double price, LocalDateTime issuedDate) {
+        StringBuilder boughtProductAndQ = new StringBuilder();
+        for (ClientProduct clientProduct : products) {
+            boughtProductAndQ.append(String.format("%s - %d\n", clientProduct.getName(), clientProduct.getQuantity()));
+        }
+        String formattedDateTime = issuedDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return String.format("%s\n" +
+                        "Cashier: %s %s\n" +
+                        "Serial number - %d\n" +
+                        "Bought products:\n" +
+                        "%s" +
+                        "Total price: %.2f\n" +
+                        "Issued on - %s %s\n" +
+                        "Thank you for supporting the local business!\n\n",
+                shopName, firstName, lastName, serialNumber, boughtProductAndQ, price,
+                issuedDate.getDayOfWeek().toString(), formattedDateTime);
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.shopproject.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OptimisticRetryAspectTests {
+    private static final String METHOD = "ConflictingService.save";
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void testConflictsAreRetriedUntilTheCallSucceeds() {
+        ConflictingService target = new ConflictingService(2);
+        ConflictingService service = proxy(target, new OptimisticRetryAspect(registry, 5, 0, 0));
+
+        assertEquals("Saved!\n", service.save());
+
+        assertEquals(3, target.calls);
+        assertEquals(2, count(OptimisticRetryAspect.CONFLICTS));
+        assertEquals(2, count(OptimisticRetryAspect.RETRIES));
+        assertEquals(0, count(OptimisticRetryAspect.EXHAUSTED));
+    }
+
+    @Test
+    void testCallGivesUpAfterMaxAttempts() {
+        ConflictingService target = new ConflictingService(10);
+        ConflictingService service = proxy(target, new OptimisticRetryAspect(registry, 3, 0, 0));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, service::save);
+
+        assertEquals(3, target.calls);
+        assertEquals(3, count(OptimisticRetryAspect.CONFLICTS));
+        assertEquals(2, count(OptimisticRetryAspect.RETRIES));
+        assertEquals(1, count(OptimisticRetryAspect.EXHAUSTED));
+    }
+
+    @Test
+    void testCallInsideRunningTransactionIsNotRetried() {
+        ConflictingService target = new ConflictingService(1);
+        ConflictingService service = proxy(target, new OptimisticRetryAspect(registry, 5, 0, 0));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, service::save);
+
+        assertEquals(1, target.calls);
+        assertEquals(0, count(OptimisticRetryAspect.CONFLICTS));
+    }
+
+    @Test
+    void testBackoffDoublesUpToTheCap() {
+        OptimisticRetryAspect aspect = new OptimisticRetryAspect(registry, 5, 5, 200);
+
+        assertEquals(5, aspect.backoffCeiling(1));
+        assertEquals(10, aspect.backoffCeiling(2));
+        assertEquals(160, aspect.backoffCeiling(6));
+        assertEquals(200, aspect.backoffCeiling(7));
+        assertEquals(200, aspect.backoffCeiling(100));
+    }
+
+    private double count(String name) {
+        return registry.counter(name, "method", METHOD).count();
+    }
+
+    private static ConflictingService proxy(ConflictingService target, OptimisticRetryAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    /**
+     * Fails its first {@code conflicts} calls the way a commit that lost a version check does.
+     */
+    public static class ConflictingService {
+        private final int conflicts;
+        private int calls;
+
+        public ConflictingService(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        public ConflictingService() {
+            this(0);
+        }
+
+        @RetryOnConflict
+        public String save() {
+            if (++this.calls <= this.conflicts) {
+                throw new ObjectOptimisticLockingFailureException(ConflictingService.class, this.calls);
+            }
+            return "Saved!\n";
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.shopproject.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.shopproject.core.CommandDispatcher;
+import org.example.shopproject.repository.CashierRepository;
+import org.example.shopproject.repository.CheckoutRepository;
+import org.example.shopproject.repository.ClientRepository;
+import org.example.shopproject.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ShopCommandSerializerTests {
+
+    @Mock
+    private CommandDispatcher dispatcher;
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private CheckoutRepository checkoutRepository;
+
+    @Mock
+    private CashierRepository cashierRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private MeterRegistry registry;
+
+    private ShopCommandSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        serializer = new ShopCommandSerializer(dispatcher, clientRepository, checkoutRepository,
+                cashierRepository, productRepository, registry, 64);
+    }
+
+    @Test
+    void testResolveShopIds() {
+        when(clientRepository.findShopIdById(5L)).thenReturn(Optional.of(2L));
+        when(checkoutRepository.findShopIdById(7L)).thenReturn(Optional.of(3L));
+        when(cashierRepository.findShopIdById(8L)).thenReturn(Optional.of(6L));
+        when(productRepository.findShopIdById(11L)).thenReturn(Optional.of(4L));
+
+        assertEquals(List.of(1L), serializer.resolveShopIds("Buy 1".split(" ")));
+        assertEquals(List.of(4L), serializer.resolveShopIds("AssignToShop Client 9 4".split(" ")));
+        assertEquals(List.of(6L, 4L), serializer.resolveShopIds("AssignToShop Cashier 8 4".split(" ")));
+        assertEquals(List.of(4L), serializer.resolveShopIds("AssignToShop Product 11 4".split(" ")));
+        assertEquals(List.of(2L), serializer.resolveShopIds("AddProductToClient 5".split(" ")));
+        assertEquals(List.of(3L), serializer.resolveShopIds("AddCashierToCheckout 1 7".split(" ")));
+        assertEquals(List.of(), serializer.resolveShopIds("AddShop Corner".split(" ")));
+    }
+
+    @Test
+    void testAssignToShopHoldsBothShops() {
+        when(cashierRepository.findShopIdById(8L)).thenReturn(Optional.of(1L));
+        when(dispatcher.dispatch(any())).thenAnswer(invocation ->
+                serializer.stripeOf(1).isHeldByCurrentThread() && serializer.stripeOf(2).isHeldByCurrentThread()
+                        ? "ok\n" : "unlocked\n");
+
+        assertEquals("ok\n", serializer.execute("AssignToShop Cashier 8 2".split(" ")));
+        assertFalse(serializer.stripeOf(1).isLocked());
+        assertFalse(serializer.stripeOf(2).isLocked());
+    }
+
+    @Test
+    void testLanesAreTakenAgainWhenTheShopChangesBeforeTheLockIsHeld() {
+        // The client moves from shop 1 to shop 2 between the first lookup and the lookup under the lock
+        when(clientRepository.findShopIdById(5L)).thenReturn(Optional.of(1L)).thenReturn(Optional.of(2L));
+        when(dispatcher.dispatch(any())).thenAnswer(invocation ->
+                serializer.stripeOf(2).isHeldByCurrentThread() && !serializer.stripeOf(1).isHeldByCurrentThread()
+                        ? "ok\n" : "wrong lane\n");
+
+        assertEquals("ok\n", serializer.execute("AddProductToClient 5".split(" ")));
+        verify(clientRepository, times(3)).findShopIdById(5L);
+        verify(dispatcher, times(1)).dispatch(any());
+        assertFalse(serializer.stripeOf(1).isLocked());
+        assertFalse(serializer.stripeOf(2).isLocked());
+    }
+
+    @Test
+    void testOpposingAssignmentsDoNotDeadlock() throws Exception {
+        when(cashierRepository.findShopIdById(8L)).thenReturn(Optional.of(1L));
+        when(cashierRepository.findShopIdById(9L)).thenReturn(Optional.of(2L));
+        when(dispatcher.dispatch(any())).thenAnswer(invocation -> {
+            Thread.yield();
+            return "ok\n";
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> toSecond = executor.submit(() -> repeat(500, "AssignToShop Cashier 8 2"));
+            Future<?> toFirst = executor.submit(() -> repeat(500, "AssignToShop Cashier 9 1"));
+
+            toSecond.get(10, TimeUnit.SECONDS);
+            toFirst.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void repeat(int times, String command) {
+        for (int i = 0; i < times; i++) {
+            serializer.execute(command.split(" "));
+        }
+    }
+
+    @Test
+    void testMalformedCommandStillReachesDispatcher() {
+        String[] tokens = "Buy".split(" ");
+        when(dispatcher.dispatch(tokens)).thenReturn("Index 1 out of bounds for length 1\n");
+
+        assertEquals("Index 1 out of bounds for length 1\n", serializer.execute(tokens));
+    }
+
+    @Test
+    void testCommandsForOneShopNeverOverlap() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(dispatcher.dispatch(any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            running.decrementAndGet();
+            return "ok\n";
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Future<?> future : executor.invokeAll(java.util.Collections.nCopies(4, () -> {
+                for (int i = 0; i < 20; i++) {
+                    serializer.execute("GoToQueue 1".split(" "));
+                }
+                return null;
+            }))) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(80, registry.find(ShopCommandSerializer.ACQUISITIONS).counters().stream()
+                .mapToDouble(c -> c.count()).sum());
+        assertTrue(registry.get(ShopCommandSerializer.ACQUISITIONS).tag("contended", "true").counter().count() > 0);
+    }
+
+    @Test
+    void testCommandsForDifferentShopsOverlap() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        when(dispatcher.dispatch(any())).thenAnswer(invocation -> {
+            bothRunning.countDown();
+            // Only returns once the other shop's command is running too
+            return bothRunning.await(5, TimeUnit.SECONDS) ? "ok\n" : "timeout\n";
+        });
+        assertNotSame(serializer.stripeOf(1), serializer.stripeOf(2));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> serializer.execute("Buy 1".split(" ")));
+            Future<String> second = executor.submit(() -> serializer.execute("Buy 2".split(" ")));
+
+            assertEquals("ok\n", first.get());
+            assertEquals("ok\n", second.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testStripesSpreadSequentialShopIds() {
+        long used = LongStream.rangeClosed(1, 64)
+                .mapToObj(serializer::stripeOf)
+                .distinct()
+                .count();
+
+        assertTrue(used >= 32, "Only " + used + " of 64 stripes used");
+    }
+
+    @Test
+    void testStripeCountMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShopCommandSerializer(dispatcher, clientRepository, checkoutRepository,
+                        cashierRepository, productRepository, registry, 48));
+    }
+}
@@ -30,6 +30,9 @@ class CashierServiceTests {
     @Mock
     private ShopRepository shopRepository;
 
+    @Mock
+    private ShopLedgerService shopLedgerService;
+
     @InjectMocks
     private CashierServiceImpl cashierService;
 
@@ -138,5 +141,6 @@ class CashierServiceTests {
         verify(shopRepository).findById(1L);
         verify(cashierRepository).save(cashier);
         verify(shopRepository).save(shop);
+        verify(shopLedgerService).recordSalary(shop, cashier.getSalary());
     }
 }
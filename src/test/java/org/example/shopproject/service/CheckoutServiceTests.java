@@ -14,9 +14,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -87,25 +90,25 @@ class CheckoutServiceTests {
 
     @Test
     void testAddCashierToCheckout_CashierDoesNotExist() {
-        when(cashierRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cashierRepository.findForAssignmentById(1L)).thenReturn(Optional.empty());
 
         String result = checkoutService.addCashierToCheckout(1L, 1L);
 
         assertEquals("Cashier does not exist!\n", result);
-        verify(checkoutRepository, never()).findById(anyLong());
+        verify(checkoutRepository, never()).findForAssignmentById(anyLong());
         verify(cashierRepository, never()).save(any());
     }
 
     @Test
     void testAddCashierToCheckout_CheckoutDoesNotExist() {
         Cashier cashier = new Cashier();
-        when(cashierRepository.findById(1L)).thenReturn(Optional.of(cashier));
-        when(checkoutRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cashierRepository.findForAssignmentById(1L)).thenReturn(Optional.of(cashier));
+        when(checkoutRepository.findForAssignmentById(1L)).thenReturn(Optional.empty());
 
         String result = checkoutService.addCashierToCheckout(1L, 1L);
 
         assertEquals("Checkout does not exist!\n", result);
-        verify(checkoutRepository).findById(1L);
+        verify(checkoutRepository).findForAssignmentById(1L);
         verify(cashierRepository, never()).save(any());
     }
 
@@ -125,8 +128,8 @@ class CheckoutServiceTests {
         shop.setCheckouts(new ArrayList<>());
         shop.getCheckouts().add(checkout);
 
-        when(cashierRepository.findById(1L)).thenReturn(Optional.of(cashier));
-        when(checkoutRepository.findById(1L)).thenReturn(Optional.of(checkout));
+        when(cashierRepository.findForAssignmentById(1L)).thenReturn(Optional.of(cashier));
+        when(checkoutRepository.findForAssignmentById(1L)).thenReturn(Optional.of(checkout));
         when(shopRepository.findById(1L)).thenReturn(Optional.of(shop));
 
         cashier.setShop(shop);
@@ -183,7 +186,7 @@ class CheckoutServiceTests {
 
     @Test
     void testGoToQueue_ShopDoesNotExist() {
-        when(shopRepository.findById(1L)).thenReturn(Optional.empty());
+        when(shopRepository.findForQueuesById(1L)).thenReturn(Optional.empty());
 
         String result = checkoutService.goToQueue(1L);
 
@@ -195,7 +198,7 @@ class CheckoutServiceTests {
         Shop shop = new Shop();
         shop.setId(1L);
         shop.setCheckouts(new ArrayList<>());
-        when(shopRepository.findById(1L)).thenReturn(Optional.of(shop));
+        when(shopRepository.findForQueuesById(1L)).thenReturn(Optional.of(shop));
 
         String result = checkoutService.goToQueue(1L);
 
@@ -207,7 +210,7 @@ class CheckoutServiceTests {
         Shop shop = new Shop();
         shop.setId(1L);
         shop.setCheckouts(new ArrayList<>());
-        when(shopRepository.findById(1L)).thenReturn(Optional.of(shop));
+        when(shopRepository.findForQueuesById(1L)).thenReturn(Optional.of(shop));
 
         String result = checkoutService.goToQueue(1L);
 
@@ -257,21 +260,75 @@ class CheckoutServiceTests {
         shop.getCheckouts().add(checkout1);
         shop.getCheckouts().add(checkout2);
 
-        when(shopRepository.findById(1L)).thenReturn(Optional.of(shop));
+        when(shopRepository.findForQueuesById(1L)).thenReturn(Optional.of(shop));
 
         String result = checkoutService.goToQueue(1L);
 
-        System.out.println("Actual result: " + result);
+        String expectedResult = "Client: 1 assigned to checkout: 1" + System.lineSeparator()
+                + "Client: 2 assigned to checkout: 2" + System.lineSeparator();
 
-        String expectedResult = "Client: 1 assigned to checkout: 1\r\nClient: 2 assigned to checkout: 2\r\n";
+        assertEquals(expectedResult, result);
+
+        verify(clientRepository).saveAll(List.of(client1, client2));
+        verify(checkoutRepository).saveAll(Set.of(checkout1, checkout2));
+        verify(clientRepository, never()).save(any());
+        verify(checkoutRepository, never()).save(any());
+    }
 
-        System.out.println("Expected result: " + expectedResult);
+    @Test
+    void testGoToQueue_PicksShortestQueueWithLowestNumber() {
+        Shop shop = new Shop("Test Shop");
+        shop.setId(1L);
+        Checkout busy = checkoutWithQueue(1L, 2);
+        Checkout free = checkoutWithQueue(2L, 0);
+        Checkout alsoFree = checkoutWithQueue(3L, 0);
+        shop.getCheckouts().addAll(List.of(busy, free, alsoFree));
+        for (long id = 1; id <= 4; id++) {
+            Client client = new Client("Client" + id, 10, null, shop);
+            client.setId(id);
+            client.getProducts().add(new ClientProduct());
+            shop.getClients().add(client);
+        }
+        when(shopRepository.findForQueuesById(1L)).thenReturn(Optional.of(shop));
 
+        String result = checkoutService.goToQueue(1L);
+
+        String expectedResult = "Client: 1 assigned to checkout: 2" + System.lineSeparator()
+                + "Client: 2 assigned to checkout: 3" + System.lineSeparator()
+                + "Client: 3 assigned to checkout: 2" + System.lineSeparator()
+                + "Client: 4 assigned to checkout: 3" + System.lineSeparator();
         assertEquals(expectedResult, result);
+        assertEquals(2, busy.getClients().size());
+        assertEquals(2, free.getClients().size());
+        assertEquals(2, alsoFree.getClients().size());
+    }
+
+    @Test
+    void testGoToQueue_CheckoutWithoutCashier() {
+        Shop shop = new Shop("Test Shop");
+        shop.setId(1L);
+        Checkout checkout = checkoutWithQueue(1L, 0);
+        checkout.setCashier(null);
+        shop.getCheckouts().add(checkout);
+        Client client = new Client("John", 10, null, shop);
+        client.getProducts().add(new ClientProduct());
+        shop.getClients().add(client);
+        when(shopRepository.findForQueuesById(1L)).thenReturn(Optional.of(shop));
+
+        String result = checkoutService.goToQueue(1L);
+
+        assertEquals("Checkout does not have a cashier assigned to it!\n", result);
+        assertNull(client.getCheckout());
+        verify(clientRepository, never()).saveAll(any());
+        verify(checkoutRepository, never()).saveAll(any());
+    }
 
-        verify(clientRepository).save(client1);
-        verify(clientRepository).save(client2);
-        verify(checkoutRepository).save(checkout1);
-        verify(checkoutRepository).save(checkout2);
+    private static Checkout checkoutWithQueue(long id, int queuedClients) {
+        Checkout checkout = new Checkout(0, new Cashier(), null);
+        checkout.setId(id);
+        for (int i = 0; i < queuedClients; i++) {
+            checkout.getClients().add(new Client());
+        }
+        return checkout;
     }
-}
\ No newline at end of file
+}
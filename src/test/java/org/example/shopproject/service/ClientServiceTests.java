@@ -4,6 +4,7 @@ import org.example.shopproject.model.entity.Client;
 import org.example.shopproject.model.entity.ClientProduct;
 import org.example.shopproject.model.entity.Product;
 import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.projection.IdRange;
 import org.example.shopproject.repository.ClientProductRepository;
 import org.example.shopproject.repository.ClientRepository;
 import org.example.shopproject.repository.ProductRepository;
@@ -15,10 +16,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class ClientServiceTests {
@@ -39,6 +42,12 @@ class ClientServiceTests {
     @Mock
     private ValidationUtil validationUtil;
 
+    @Mock
+    private ShopLedgerService shopLedgerService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
     @InjectMocks
     private ClientServiceImpl clientService;
 
@@ -161,35 +170,95 @@ class ClientServiceTests {
     @Test
     void testAddProductToClient_WithFixedProductIndex() {
         long clientId = 1L;
+        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        client.setShop(shop);
+        client.setProducts(new ArrayList<>());
+        product.setName("Sample Product");
+        product.setQuantity(10);
+        when(productRepository.findIdRangeInShop(shop.getId())).thenReturn(new IdRange(1L, 1L));
+        when(productRepository.findAvailableInShopFrom(shop.getId(), 1L, Set.of(), PageRequest.of(0, 1)))
+                .thenReturn(List.of(product));
+        when(stockReservationService.reserve(product.getId(), 1)).thenReturn(true);
 
-        // Mock the client repository
+        String result = clientService.addProductToClient(clientId);
+
+        assertEquals("Successfully added product Sample Product to the client!\n", result);
+        verify(clientProductRepository, times(1)).save(any(ClientProduct.class));
+        verify(stockReservationService, times(1)).reserve(product.getId(), 1);
+        verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(shopRepository);
+    }
+
+    @Test
+    void testAddProductToClient_SkipsProductsInCart() {
+        long clientId = 1L;
         when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        client.setShop(shop);
+        client.setProducts(new ArrayList<>(List.of(clientProduct)));
+        when(productRepository.findIdRangeInShop(shop.getId())).thenReturn(new IdRange(1L, 1L));
 
-        // Mock the shop
+        String result = clientService.addProductToClient(clientId);
+
+        assertEquals("Client already has every product of shop Test Shop in his cart!\n", result);
+        verify(productRepository).findAvailableInShopFrom(shop.getId(), 1L, Set.of("Test Product"), PageRequest.of(0, 1));
+        verify(stockReservationService, never()).reserve(anyLong(), anyInt());
+    }
 
+    @Test
+    void testAddProductToClient_SeekWrapsAroundToFirstProduct() {
+        long clientId = 1L;
+        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
         client.setShop(shop);
-        // Mock the product
-        shop.setBoughtProducts(new ArrayList<>());
-        shop.getBoughtProducts().add(product);
         client.setProducts(new ArrayList<>());
         product.setName("Sample Product");
         product.setQuantity(10);
+        when(productRepository.findIdRangeInShop(shop.getId())).thenReturn(new IdRange(1L, 1000L));
+        // Only the first product is available, every seek past it finds nothing
+        when(productRepository.findAvailableInShopFrom(eq(shop.getId()), longThat(id -> id > 1), eq(Set.of()),
+                eq(PageRequest.of(0, 1)))).thenReturn(List.of());
+        when(productRepository.findAvailableInShopFrom(shop.getId(), 1L, Set.of(), PageRequest.of(0, 1)))
+                .thenReturn(List.of(product));
+        when(stockReservationService.reserve(eq(product.getId()), anyInt())).thenReturn(true);
 
-        // Set the bought products of the shop
-        shop.setBoughtProducts(Collections.singletonList(product));
+        String result = clientService.addProductToClient(clientId);
 
-        // Mock the shop repository
-        when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
+        assertTrue(result.startsWith("Successfully added product Sample Product")
+                || result.startsWith("Quantity not enough! Product: Sample Product"), result);
+        verify(productRepository).findAvailableInShopFrom(shop.getId(), 1L, Set.of(), PageRequest.of(0, 1));
+    }
+
+    @Test
+    void testAddProductToClient_EmptyShop() {
+        long clientId = 1L;
+        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        client.setShop(shop);
+        client.setProducts(new ArrayList<>());
+        when(productRepository.findIdRangeInShop(shop.getId())).thenReturn(new IdRange(null, null));
 
-        // Call the method under test
         String result = clientService.addProductToClient(clientId);
 
-        // Assert the result
-        assertEquals("Successfully added product Sample Product to the client!\n", result);
+        assertEquals("shop is empty!\n", result);
+    }
 
-        // Verify that the client product and product repositories were called as expected
-        verify(clientProductRepository, times(1)).save(any(ClientProduct.class));
-        verify(productRepository, times(1)).save(any(Product.class));
+    @Test
+    void testAddProductToClient_StockTakenByAnotherClient() {
+        long clientId = 1L;
+        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        client.setShop(shop);
+        client.setProducts(new ArrayList<>());
+        product.setName("Sample Product");
+        product.setQuantity(10);
+        when(productRepository.findIdRangeInShop(shop.getId())).thenReturn(new IdRange(1L, 1L));
+        when(productRepository.findAvailableInShopFrom(shop.getId(), 1L, Set.of(), PageRequest.of(0, 1)))
+                .thenReturn(List.of(product));
+        when(stockReservationService.reserve(product.getId(), 1)).thenReturn(false);
+
+        String result = clientService.addProductToClient(clientId);
+
+        assertEquals("Product Sample Product was taken by another client! Required quantity: 1\n", result);
+        assertEquals(0, client.getProducts().size());
+        verify(clientProductRepository, never()).save(any(ClientProduct.class));
+        verify(shopLedgerService, never()).recordBoughtStock(any(Shop.class), anyDouble());
     }
 
 }
@@ -0,0 +1,94 @@
+package org.example.shopproject.service;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.FinanceReportSource;
+import org.example.shopproject.model.projection.ShopBalance;
+import org.example.shopproject.model.projection.ShopSummary;
+import org.example.shopproject.model.projection.ShopTotal;
+import org.example.shopproject.repository.*;
+import org.example.shopproject.service.impl.FinanceReportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class FinanceReportServiceTests {
+
+    @Mock
+    private ShopLedgerRepository shopLedgerRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CashierRepository cashierRepository;
+
+    @Mock
+    private CheckoutRepository checkoutRepository;
+
+    private Shop shop;
+    private String expected;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        shop = new Shop("TestShop");
+        shop.setId(1L);
+        expected = "TestShop expenses: " + String.format("%.2f", 2300.0) + System.lineSeparator()
+                + "TestShop earnings: " + String.format("%.2f", 37.5) + System.lineSeparator();
+    }
+
+    private FinanceReportService service(FinanceReportSource source) {
+        return new FinanceReportServiceImpl(shopLedgerRepository, shopRepository, productRepository,
+                cashierRepository, checkoutRepository, source);
+    }
+
+    @Test
+    void testCalculateMoneyFromLedger() {
+        when(shopLedgerRepository.findAllBalances()).thenReturn(List.of(new ShopBalance(1L, "TestShop", 2300.0, 37.5)));
+
+        String result = service(FinanceReportSource.LEDGER).calculateMoney();
+
+        assertEquals(expected, result);
+        verify(shopRepository, never()).findAllForFinance();
+    }
+
+    @Test
+    void testCalculateMoneyFromAggregates() {
+        when(shopRepository.findAllSummaries()).thenReturn(List.of(new ShopSummary(1L, "TestShop"),
+                new ShopSummary(2L, "EmptyShop")));
+        when(productRepository.sumStockValueByShop()).thenReturn(List.of(new ShopTotal(1L, 300.0)));
+        when(cashierRepository.sumSalariesByShop()).thenReturn(List.of(new ShopTotal(1L, 2000.0)));
+        when(checkoutRepository.sumEarningsByShop()).thenReturn(List.of(new ShopTotal(1L, 37.5)));
+
+        String result = service(FinanceReportSource.AGGREGATE).calculateMoney();
+
+        assertEquals(expected + "EmptyShop expenses: " + String.format("%.2f", 0.0) + System.lineSeparator()
+                + "EmptyShop earnings: " + String.format("%.2f", 0.0) + System.lineSeparator(), result);
+        verify(shopRepository, never()).findAllForFinance();
+    }
+
+    @Test
+    void testCalculateMoneyFromEntities() {
+        Product product = new Product("Milk", 1.5, 1.8, "EDIBLE", LocalDate.now().plusDays(5), 200, false, shop);
+        shop.getBoughtProducts().add(product);
+        shop.getCashiers().add(new Cashier("Jane", "Doe", 2000, null, shop));
+        shop.getCheckouts().add(new Checkout(37.5, null, shop));
+        when(shopRepository.findAllForFinance()).thenReturn(List.of(shop));
+
+        String result = service(FinanceReportSource.ENTITIES).calculateMoney();
+
+        assertEquals(expected, result);
+        verify(shopLedgerRepository, never()).findAllBalances();
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.shopproject.service;
+
+import org.example.shopproject.model.entity.Product;
+import org.example.shopproject.model.entity.Shop;
+import org.example.shopproject.model.projection.ProductSummary;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.impl.ProductCatalogImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductCatalogTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productCatalog = new ProductCatalogImpl(productRepository, 2);
+    }
+
+    private static Product product(long id, String name, Shop shop) {
+        Product product = new Product(name, 2.5, 3.0, "EDIBLE", LocalDate.now().plusDays(10), 10, false, shop);
+        product.setId(id);
+        return product;
+    }
+
+    @Test
+    void testFindByNameIsServedFromMemoryAfterFirstLoad() {
+        Shop shop = new Shop("Corner");
+        shop.setId(7L);
+        when(productRepository.findByName("Milk")).thenReturn(Optional.of(product(1L, "Milk", shop)));
+
+        assertEquals(Optional.of(new ProductSummary(1L, "Milk", 2.5, 7L)), productCatalog.findByName("Milk"));
+        assertEquals(Optional.of(new ProductSummary(1L, "Milk", 2.5, 7L)), productCatalog.findByName("Milk"));
+        assertTrue(productCatalog.findById(1L).isPresent());
+
+        verify(productRepository, times(1)).findByName("Milk");
+        verify(productRepository, never()).findById(anyLong());
+        assertEquals(2, productCatalog.getHitCount());
+        assertEquals(1, productCatalog.getMissCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedProductIsEvicted() {
+        productCatalog.put(product(1L, "Milk", null));
+        productCatalog.put(product(2L, "Bread", null));
+        productCatalog.findByName("Milk");
+        productCatalog.put(product(3L, "Eggs", null));
+
+        assertTrue(productCatalog.findByName("Milk").isPresent());
+        assertTrue(productCatalog.findById(3L).isPresent());
+        when(productRepository.findByName("Bread")).thenReturn(Optional.empty());
+        assertTrue(productCatalog.findByName("Bread").isEmpty());
+        verify(productRepository, times(1)).findByName("Bread");
+    }
+
+    @Test
+    void testEvictRemovesBothIndexes() {
+        productCatalog.put(product(1L, "Milk", null));
+        productCatalog.evict(1L);
+        when(productRepository.findByName("Milk")).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(productCatalog.findByName("Milk").isEmpty());
+        assertTrue(productCatalog.findById(1L).isEmpty());
+        assertEquals(0, productCatalog.getHitCount());
+    }
+
+    @Test
+    void testPutInsideTransactionIsVisibleOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productCatalog.put(product(1L, "Milk", null));
+            when(productRepository.findById(1L)).thenReturn(Optional.empty());
+            assertTrue(productCatalog.findById(1L).isEmpty());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals("Milk", productCatalog.findById(1L).orElseThrow().name());
+    }
+
+    @Test
+    void testRowLoadedInsideRolledBackTransactionIsNotCached() {
+        when(productRepository.findByName("Milk"))
+                .thenReturn(Optional.of(product(1L, "Milk", null)))
+                .thenReturn(Optional.empty());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // The row was written earlier in the same transaction
+            assertTrue(productCatalog.findByName("Milk").isPresent());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(productCatalog.findByName("Milk").isEmpty());
+        verify(productRepository, times(2)).findByName("Milk");
+    }
+}
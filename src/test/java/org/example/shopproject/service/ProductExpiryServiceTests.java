@@ -0,0 +1,68 @@
+package org.example.shopproject.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.shopproject.model.projection.ExpiredStock;
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.impl.ProductExpiryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductExpiryServiceTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private SimpleMeterRegistry registry;
+
+    private ProductExpiryServiceImpl productExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        productExpiryService = new ProductExpiryServiceImpl(productRepository, registry);
+    }
+
+    @Test
+    void testSweep_NothingExpired() {
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        when(productRepository.findExpiring(today)).thenReturn(List.of());
+        when(productRepository.markExpired(today)).thenReturn(0);
+
+        assertEquals("No products expired!\n", productExpiryService.sweep(today));
+        assertEquals(0, productExpiryService.getExpiredCount());
+        assertEquals("Expiry sweeps: 1\nProducts marked as expired: 0\nLast sweep: 2024-05-01\n",
+                productExpiryService.report());
+    }
+
+    @Test
+    void testSweep_CountsPerShop() {
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        when(productRepository.findExpiring(today)).thenReturn(Arrays.asList(
+                new ExpiredStock(1L, 2, 30), new ExpiredStock(null, 1, 5)));
+        when(productRepository.markExpired(today)).thenReturn(3);
+
+        String result = productExpiryService.sweep(today);
+
+        assertEquals("Marked 3 products as expired!\nShop 1: 2 products, 30 units\nShop none: 1 products, 5 units\n",
+                result);
+        assertEquals(3, productExpiryService.getExpiredCount());
+        assertEquals(2, registry.get("shop.products.expired").tag("shop", "1").counter().count());
+        assertEquals(1, registry.get("shop.products.expired").tag("shop", "none").counter().count());
+        verify(productRepository).markExpired(today);
+    }
+
+    @Test
+    void testReport_NeverSwept() {
+        assertEquals("Expiry sweeps: 0\nProducts marked as expired: 0\nLast sweep: never\n", productExpiryService.report());
+    }
+}
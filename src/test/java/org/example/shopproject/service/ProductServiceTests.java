@@ -3,6 +3,7 @@ package org.example.shopproject.service;
 import org.example.shopproject.model.entity.Product;
 import org.example.shopproject.model.entity.Shop;
 import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.model.projection.ProductSummary;
 import org.example.shopproject.repository.ProductRepository;
 import org.example.shopproject.repository.ShopRepository;
 import org.example.shopproject.service.impl.ProductServiceImpl;
@@ -32,6 +33,12 @@ class ProductServiceTests {
     @Mock
     private ShopRepository shopRepository;
 
+    @Mock
+    private ShopLedgerService shopLedgerService;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -46,7 +53,7 @@ class ProductServiceTests {
         when(validationUtil.isValid(product)).thenReturn(false);
         String result = productService.addProduct(product);
         assertEquals("Invalid product!\n", result);
-        verify(productRepository, never()).findByName(anyString());
+        verify(productCatalog, never()).findByName(anyString());
         verify(productRepository, never()).save(any());
     }
 
@@ -55,10 +62,10 @@ class ProductServiceTests {
         Product product = new Product();
         product.setName("Existing Product");
         when(validationUtil.isValid(product)).thenReturn(true);
-        when(productRepository.findByName(product.getName())).thenReturn(Optional.of(product));
+        when(productCatalog.findByName(product.getName())).thenReturn(Optional.of(new ProductSummary(1L, product.getName(), 0, null)));
         String result = productService.addProduct(product);
         assertEquals(String.format("Product with name %s already exists!\n", product.getName()), result);
-        verify(productRepository).findByName(product.getName());
+        verify(productCatalog).findByName(product.getName());
         verify(productRepository, never()).save(any());
     }
 
@@ -68,10 +75,10 @@ class ProductServiceTests {
         product.setName("New Product");
         product.setPrice(-10.0);
         when(validationUtil.isValid(product)).thenReturn(true);
-        when(productRepository.findByName(product.getName())).thenReturn(Optional.empty());
+        when(productCatalog.findByName(product.getName())).thenReturn(Optional.empty());
         String result = productService.addProduct(product);
         assertEquals("Invalid price!\n", result);
-        verify(productRepository).findByName(product.getName());
+        verify(productCatalog).findByName(product.getName());
         verify(productRepository, never()).save(any());
     }
 
@@ -82,10 +89,10 @@ class ProductServiceTests {
         product.setPrice(10.0);
         product.setExpired(true);
         when(validationUtil.isValid(product)).thenReturn(true);
-        when(productRepository.findByName(product.getName())).thenReturn(Optional.empty());
+        when(productCatalog.findByName(product.getName())).thenReturn(Optional.empty());
         String result = productService.addProduct(product);
         assertEquals("Expired product!\n", result);
-        verify(productRepository).findByName(product.getName());
+        verify(productCatalog).findByName(product.getName());
         verify(productRepository, never()).save(any());
     }
 
@@ -97,11 +104,12 @@ class ProductServiceTests {
         product.setCategory(Category.EDIBLE);
         product.setExpireDate(LocalDate.now().plusDays(30));
         when(validationUtil.isValid(product)).thenReturn(true);
-        when(productRepository.findByName(product.getName())).thenReturn(Optional.empty());
+        when(productCatalog.findByName(product.getName())).thenReturn(Optional.empty());
         String result = productService.addProduct(product);
         assertEquals(String.format("Successfully added product %s!\n", product.getName()), result);
-        verify(productRepository).findByName(product.getName());
+        verify(productCatalog).findByName(product.getName());
         verify(productRepository).save(product);
+        verify(productCatalog).put(product);
     }
 
     @Test
@@ -135,6 +143,8 @@ class ProductServiceTests {
         Product product = new Product();
         product.setId(productId);
         product.setExpireDate(LocalDate.now().minusDays(1));
+        // Set by the expiry sweep
+        product.setExpired(true);
         Shop shop = new Shop();
         shop.setId(shopId);
         when(productRepository.findById(productId)).thenReturn(Optional.of(product));
@@ -143,6 +153,7 @@ class ProductServiceTests {
         String result = productService.assignToShop(productId, shopId);
 
         assertEquals(String.format("Product %s is expired!\n", product.getName()), result);
+        verify(productRepository).deleteById(productId);
     }
 
 
@@ -173,6 +184,8 @@ class ProductServiceTests {
         long shopId = 1L;
         Product product = new Product();
         product.setId(productId);
+        product.setPrice(2.0);
+        product.setQuantity(10);
         product.setExpireDate(LocalDate.now().plusDays(1));
         Shop shop = new Shop();
         shop.setId(shopId);
@@ -185,5 +198,6 @@ class ProductServiceTests {
         verify(shopRepository).findById(shopId);
         verify(productRepository).save(product);
         verify(shopRepository).save(shop);
+        verify(shopLedgerService).recordBoughtStock(shop, 20.0);
     }
 }
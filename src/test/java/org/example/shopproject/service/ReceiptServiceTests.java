@@ -1,18 +1,33 @@
 package org.example.shopproject.service;
 
 import org.example.shopproject.model.entity.Receipt;
+import org.example.shopproject.model.enums.ReceiptHistoryScope;
+import org.example.shopproject.model.projection.ReceiptCursor;
+import org.example.shopproject.model.projection.ReceiptHistoryPage;
+import org.example.shopproject.model.projection.ReceiptSummary;
+import org.example.shopproject.receipt.ReceiptStore;
+import org.example.shopproject.receipt.StoredReceipt;
 import org.example.shopproject.repository.ReceiptRepository;
 import org.example.shopproject.service.impl.ReceiptServiceImpl;
 import org.example.shopproject.util.ValidationUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 public class ReceiptServiceTests {
@@ -23,6 +38,12 @@ public class ReceiptServiceTests {
     @Mock
     private ValidationUtil validationUtil;
 
+    @Mock
+    private ReceiptStore receiptStore;
+
+    @TempDir
+    Path exportDirectory;
+
     @InjectMocks
     private ReceiptServiceImpl receiptService;
 
@@ -65,4 +86,84 @@ public class ReceiptServiceTests {
         assertEquals("Receipt already exists!\n", result);
         verify(receiptRepository, never()).save(receipt);
     }
+
+    @Test
+    void testExportReceiptWritesTextFile() throws IOException {
+        ReceiptServiceImpl service = new ReceiptServiceImpl(receiptRepository, validationUtil, receiptStore,
+                exportDirectory.toString());
+        when(receiptStore.read(5L)).thenReturn(Optional.of(new StoredReceipt(5L, "Jane_5_receipt.txt", "Receipt 5")));
+
+        String result = service.exportReceipt(5L);
+
+        Path file = exportDirectory.resolve("Jane_5_receipt.txt");
+        assertEquals(String.format("Receipt 5 exported to %s!\n", file), result);
+        assertEquals("Receipt 5", Files.readString(file));
+    }
+
+    @Test
+    void testExportReceiptMissing() throws IOException {
+        when(receiptStore.read(5L)).thenReturn(Optional.empty());
+
+        String result = receiptService.exportReceipt(5L);
+
+        assertEquals("Receipt with serial number 5 does not exist!\n", result);
+    }
+
+    @Test
+    void testFindHistoryFirstPageSeeksFromRangeStart() {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        List<ReceiptSummary> rows = List.of(summary(1, from.plusHours(1)), summary(2, from.plusHours(2)),
+                summary(3, from.plusHours(2)));
+        when(receiptRepository.findPageByCashier(7L, to, from, 0L, Limit.of(3))).thenReturn(rows);
+
+        ReceiptHistoryPage page = receiptService.findHistory(ReceiptHistoryScope.CASHIER, 7L, from, to, null, 2);
+
+        assertEquals(rows.subList(0, 2), page.receipts());
+        assertEquals(new ReceiptCursor(from.plusHours(2), 2), page.next());
+    }
+
+    @Test
+    void testFindHistoryLastPageHasNoCursor() {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        ReceiptCursor cursor = new ReceiptCursor(from.plusHours(2), 2);
+        List<ReceiptSummary> rows = List.of(summary(3, from.plusHours(2)));
+        when(receiptRepository.findPageByShop(4L, to, cursor.issuedDate(), 2L, Limit.of(3))).thenReturn(rows);
+
+        ReceiptHistoryPage page = receiptService.findHistory(ReceiptHistoryScope.SHOP, 4L, from, to, cursor, 2);
+
+        assertEquals(rows, page.receipts());
+        assertNull(page.next());
+    }
+
+    @Test
+    void testPrintHistoryUsesInclusiveDates() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        when(receiptRepository.findPage(day.plusDays(1).atStartOfDay(), day.atStartOfDay(), 0L, Limit.of(11)))
+                .thenReturn(List.of());
+
+        String result = receiptService.printHistory(ReceiptHistoryScope.ALL, 0, day, day, 10, null);
+
+        assertEquals("No receipts found!\n", result);
+    }
+
+    @Test
+    void testExportHistoryStreamsCsv() throws IOException {
+        ReceiptServiceImpl service = new ReceiptServiceImpl(receiptRepository, validationUtil, receiptStore,
+                exportDirectory.toString());
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        when(receiptRepository.streamByCashier(7L, day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+                .thenReturn(Stream.of(summary(1, day.atTime(10, 0)), summary(2, day.atTime(11, 0))));
+
+        String result = service.exportHistory(ReceiptHistoryScope.CASHIER, 7L, day, day);
+
+        Path file = exportDirectory.resolve("receipt_history_cashier_7_2024-03-01_2024-03-01.csv");
+        assertEquals(String.format("2 receipts exported to %s!\n", file), result);
+        assertEquals(3, Files.readAllLines(file).size());
+    }
+
+    private static ReceiptSummary summary(long serialNumber, LocalDateTime issuedDate) {
+        return new ReceiptSummary(serialNumber, issuedDate, 10, 7L, "Jane", "Doe");
+    }
 }
@@ -0,0 +1,119 @@
+package org.example.shopproject.service;
+
+import org.example.shopproject.model.entity.*;
+import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.repository.ShopLedgerRepository;
+import org.example.shopproject.repository.ShopRepository;
+import org.example.shopproject.service.impl.ShopLedgerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ShopLedgerServiceTests {
+
+    @Mock
+    private ShopLedgerRepository shopLedgerRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @InjectMocks
+    private ShopLedgerServiceImpl shopLedgerService;
+
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        shop = new Shop("TestShop");
+        shop.setId(1L);
+        Product product = new Product("Product1", 10.0, 25.0, Category.EDIBLE.name(),
+                LocalDate.now().plusDays(10), 3, false, shop);
+        shop.getBoughtProducts().add(product);
+        shop.getCashiers().add(new Cashier("Jane", "Doe", 1000, null, shop));
+        shop.getCheckouts().add(new Checkout(45.5, null, shop));
+    }
+
+    @Test
+    void testRecordBoughtStockUpdatesExistingLedger() {
+        when(shopLedgerRepository.addBoughtStock(1L, 30.0)).thenReturn(1);
+
+        shopLedgerService.recordBoughtStock(shop, 30.0);
+
+        verify(shopLedgerRepository).addBoughtStock(1L, 30.0);
+        verify(shopLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    void testRecordSalaryCreatesMissingLedgerFromEntities() {
+        when(shopLedgerRepository.addSalaries(1L, 1000.0)).thenReturn(0);
+        when(shopLedgerRepository.findLockedByShopId(1L)).thenReturn(Optional.empty());
+
+        shopLedgerService.recordSalary(shop, 1000.0);
+
+        verify(shopRepository).findLockedById(1L);
+        ArgumentCaptor<ShopLedger> captor = ArgumentCaptor.forClass(ShopLedger.class);
+        verify(shopLedgerRepository).save(captor.capture());
+        assertEquals(30.0, captor.getValue().getBoughtStock());
+        assertEquals(1000.0, captor.getValue().getSalaries());
+        assertEquals(45.5, captor.getValue().getCheckoutEarnings());
+    }
+
+    @Test
+    void testOpenLedgerKeepsLedgerOpenedConcurrently() {
+        when(shopLedgerRepository.findLockedByShopId(1L)).thenReturn(Optional.of(new ShopLedger(shop, 30.0, 0, 0)));
+
+        shopLedgerService.openLedger(shop);
+
+        verify(shopRepository).findLockedById(1L);
+        verify(shopLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    void testOpenMissingLedgersOpensOnePerShop() {
+        Shop other = new Shop("OtherShop");
+        other.setId(2L);
+        when(shopRepository.findAllWithoutLedger()).thenReturn(List.of(shop, other));
+
+        assertEquals(2, shopLedgerService.openMissingLedgers());
+
+        verify(shopLedgerRepository, times(2)).save(any());
+    }
+
+    @Test
+    void testReconcileReportsAndFixesDrift() {
+        ShopLedger ledger = new ShopLedger(shop, 30.0, 1000.0, 40.0);
+        when(shopRepository.findAll()).thenReturn(List.of(shop));
+        when(shopLedgerRepository.findByShopId(1L)).thenReturn(Optional.of(ledger));
+
+        String result = shopLedgerService.reconcile();
+
+        assertEquals(String.format("Ledger of shop TestShop drifted! Expenses drift: %.2f, earnings drift: %.2f\n", 0.0, -5.5),
+                result);
+        verify(shopLedgerRepository).addCorrection(1L, 0.0, 0.0, 5.5);
+        verify(shopLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    void testReconcileConsistentLedger() {
+        when(shopRepository.findAll()).thenReturn(List.of(shop));
+        when(shopLedgerRepository.findByShopId(1L)).thenReturn(Optional.of(new ShopLedger(shop, 30.0, 1000.0, 45.5)));
+
+        String result = shopLedgerService.reconcile();
+
+        assertEquals("Ledger of shop TestShop is consistent!\n", result);
+        verify(shopLedgerRepository, never()).save(any());
+        verify(shopLedgerRepository, never()).addCorrection(anyLong(), anyDouble(), anyDouble(), anyDouble());
+    }
+}
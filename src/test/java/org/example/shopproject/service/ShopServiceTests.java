@@ -2,11 +2,16 @@ package org.example.shopproject.service;
 
 import org.example.shopproject.model.entity.*;
 import org.example.shopproject.model.enums.Category;
+import org.example.shopproject.model.enums.SettlementMode;
+import org.example.shopproject.model.projection.ProductSummary;
+import org.example.shopproject.receipt.ReceiptWriter;
 import org.example.shopproject.repository.*;
 import org.example.shopproject.service.impl.ShopServiceImpl;
 import org.example.shopproject.util.ValidationUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -15,6 +20,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,9 +45,24 @@ public class ShopServiceTests {
     @Mock
     private ValidationUtil validationUtil;
 
+    @Mock
+    private ReceiptWriter receiptWriter;
+
+    @Mock
+    private ShopLedgerService shopLedgerService;
+
+    @Mock
+    private FinanceReportService financeReportService;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
     @InjectMocks
     private ShopServiceImpl shopService;
 
+    @Captor
+    private ArgumentCaptor<List<Receipt>> receipts;
+
     private Shop shop;
     private Client client;
     private Checkout checkout;
@@ -91,6 +112,7 @@ public class ShopServiceTests {
 
         assertEquals("Shop added successfully!\n", result);
         verify(shopRepository, times(1)).save(shop);
+        verify(shopLedgerService, times(1)).openLedger(shop);
     }
 
     @Test
@@ -116,55 +138,152 @@ public class ShopServiceTests {
 
     @Test
     void testBuyWithSufficientMoney() {
-        when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
-        when(clientRepository.findById(client.getId())).thenReturn(Optional.of(client));
+        when(shopRepository.findForSettlementById(shop.getId())).thenReturn(Optional.of(shop));
 
         String result = shopService.buy(shop.getId());
 
         assertTrue(result.contains("Thank you for supporting the local business!"));
-
-        verify(receiptRepository, times(1)).save(any(Receipt.class));
-        verify(clientRepository, atLeastOnce()).save(any(Client.class));
-        verify(checkoutRepository, atLeastOnce()).save(any(Checkout.class));
-        verify(shopRepository, atLeastOnce()).save(any(Shop.class));
+        assertTrue(shop.getSoldProducts().contains(clientProduct));
+        // The receipt is linked through Receipt.cashier, the cashier's receipt history is never loaded
+        assertTrue(cashier.getReceipts().isEmpty());
+
+        verify(receiptRepository, times(1)).saveAll(receipts.capture());
+        assertEquals(1, receipts.getValue().size());
+        assertSame(cashier, receipts.getValue().get(0).getCashier());
+        verify(clientRepository, times(1)).saveAll(anyIterable());
+        verify(checkoutRepository, times(1)).saveAll(anyIterable());
+        verify(shopRepository, times(1)).save(shop);
+        verify(clientRepository, never()).findById(anyLong());
+        verify(receiptRepository, never()).save(any(Receipt.class));
+        verify(shopLedgerService, times(1)).recordCheckoutEarnings(shop, 37.5);
+        verify(receiptWriter, times(1)).submit(eq(0L), eq("Jane_0_receipt.txt"), contains("Serial number - 0"));
     }
 
     @Test
     void testBuyWithInsufficientMoney() {
         client.setMoney(0);
-        when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
-        when(clientRepository.findById(client.getId())).thenReturn(Optional.of(client));
+        when(shopRepository.findForSettlementById(shop.getId())).thenReturn(Optional.of(shop));
+        when(productCatalog.findByName(product.getName()))
+                .thenReturn(Optional.of(new ProductSummary(product.getId(), product.getName(), product.getPrice(), shop.getId())));
+        when(shopRepository.getReferenceById(shop.getId())).thenReturn(shop);
 
         String result = shopService.buy(shop.getId());
 
         assertTrue(result.contains(String.format("Client %s does not have enough money!\n\n", client.getFirstName())));
+        assertTrue(client.getProducts().isEmpty());
         verify(receiptRepository, never()).save(any(Receipt.class));
-        verify(clientRepository, atLeastOnce()).save(any(Client.class));
-        verify(checkoutRepository, atLeastOnce()).save(any(Checkout.class));
-        verify(shopRepository, atLeastOnce()).save(any(Shop.class));
+        verify(receiptWriter, never()).submit(anyLong(), anyString(), anyString());
+        verify(shopLedgerService, times(1)).recordBoughtStock(shop, 50.0);
+        verify(shopLedgerService, never()).recordCheckoutEarnings(any(), anyDouble());
+        verify(productRepository, times(1)).returnStock(product.getId(), clientProduct.getQuantity());
+        verify(productRepository, never()).findByName(anyString());
+        verify(clientRepository, times(1)).saveAll(anyIterable());
+        verify(checkoutRepository, times(1)).saveAll(anyIterable());
+        verify(shopRepository, times(1)).save(shop);
+    }
+
+    @Test
+    void testBuyDetachesClientsInMemory() {
+        Client secondClient = new Client("Mike", 0, checkout, shop);
+        secondClient.setId(2L);
+        secondClient.getProducts().add(new ClientProduct("Product2", 4.0, Category.NON_EDIBLE,
+                LocalDate.now().plusDays(30), 1, false, shop));
+        checkout.getClients().add(secondClient);
+        shop.getClients().add(secondClient);
+        when(shopRepository.findForSettlementById(shop.getId())).thenReturn(Optional.of(shop));
+
+        String result = shopService.buy(shop.getId());
+
+        assertTrue(result.indexOf("Thank you for supporting the local business!")
+                < result.indexOf("Client Mike does not have enough money!"));
+        assertTrue(checkout.getClients().isEmpty());
+        assertTrue(shop.getClients().isEmpty());
+        assertNull(client.getShop());
+        assertNull(client.getCheckout());
+        assertNull(secondClient.getShop());
+        assertNull(secondClient.getCheckout());
+        assertEquals(37.5, checkout.getEarnings());
+        assertEquals(12.5, client.getMoney());
+        verify(clientRepository, never()).findById(anyLong());
+        verify(clientRepository, never()).save(any(Client.class));
+        verify(checkoutRepository, never()).save(any(Checkout.class));
+    }
+
+    @Test
+    void testParallelBuyMatchesSequentialBuy() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ShopServiceImpl parallelShopService = new ShopServiceImpl(shopRepository, clientRepository, productRepository,
+                checkoutRepository, receiptRepository, validationUtil, receiptWriter, shopLedgerService,
+                financeReportService, productCatalog, SettlementMode.PARALLEL, pool);
+        Shop sequentialShop = shopWithQueues(10L);
+        Shop parallelShop = shopWithQueues(20L);
+        when(shopRepository.findForSettlementById(10L)).thenReturn(Optional.of(sequentialShop));
+        when(shopRepository.findForSettlementById(20L)).thenReturn(Optional.of(parallelShop));
+
+        String sequential = shopService.buy(10L);
+        String parallel = parallelShopService.buy(20L);
+        pool.shutdown();
+
+        // Receipts are issued at the current time, which may tick between the two calls
+        assertEquals(sequential.replaceAll("Issued on - .*\n", ""), parallel.replaceAll("Issued on - .*\n", ""));
+        assertEquals(8, sequential.split("does not have enough money").length - 1);
+        assertTrue(parallelShop.getClients().isEmpty());
+        for (int i = 0; i < sequentialShop.getCheckouts().size(); i++) {
+            assertEquals(sequentialShop.getCheckouts().get(i).getEarnings(),
+                    parallelShop.getCheckouts().get(i).getEarnings());
+            assertTrue(parallelShop.getCheckouts().get(i).getClients().isEmpty());
+        }
+        assertEquals(32, sequentialShop.getSoldProducts().size());
+        assertEquals(32, parallelShop.getSoldProducts().size());
+        ArgumentCaptor<Double> earnings = ArgumentCaptor.forClass(Double.class);
+        verify(shopLedgerService, times(2)).recordCheckoutEarnings(any(), earnings.capture());
+        assertEquals(earnings.getAllValues().get(0), earnings.getAllValues().get(1));
+    }
+
+    /**
+     * Eight staffed checkouts with five queued clients each; the last client of every queue cannot pay.
+     */
+    private static Shop shopWithQueues(long shopId) {
+        Shop queuedShop = new Shop("QueuedShop");
+        queuedShop.setId(shopId);
+        for (int i = 0; i < 8; i++) {
+            Cashier queueCashier = new Cashier("Cashier" + i, "Doe", 2000, null, queuedShop);
+            Checkout queue = new Checkout(0, queueCashier, queuedShop);
+            queueCashier.setCheckout(queue);
+            queuedShop.getCashiers().add(queueCashier);
+            queuedShop.getCheckouts().add(queue);
+            for (int j = 0; j < 5; j++) {
+                Client queuedClient = new Client("Client" + i + "_" + j, j == 4 ? 0 : 1000, queue, queuedShop);
+                queuedClient.getProducts().add(new ClientProduct("Product" + j, 1.5 + i, Category.NON_EDIBLE,
+                        LocalDate.now().plusDays(j * 3L), 1 + j, false, queuedShop));
+                queue.getClients().add(queuedClient);
+                queuedShop.getClients().add(queuedClient);
+            }
+        }
+        return queuedShop;
     }
 
     @Test
     void testBuyNoClients() {
         shop.getClients().clear();
-        when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
+        when(shopRepository.findForSettlementById(shop.getId())).thenReturn(Optional.of(shop));
 
         String result = shopService.buy(shop.getId());
 
         assertTrue(result.contains(String.format("No clients in shop %s!\n", shop.getName())));
-        verify(receiptRepository, never()).save(any(Receipt.class));
-        verify(clientRepository, never()).save(any(Client.class));
-        verify(checkoutRepository, never()).save(any(Checkout.class));
+        verify(receiptRepository, never()).saveAll(anyIterable());
+        verify(clientRepository, never()).saveAll(anyIterable());
+        verify(checkoutRepository, never()).saveAll(anyIterable());
         verify(shopRepository, never()).save(any(Shop.class));
     }
 
     @Test
     void testCalculateMoney() {
-        when(shopRepository.findAll()).thenReturn(List.of(shop));
+        when(financeReportService.calculateMoney()).thenReturn("TestShop expenses: 0.00\n");
 
         String result = shopService.calculateMoney();
 
-        assertTrue(result.contains(String.format("%s expenses: ", shop.getName())));
-        assertTrue(result.contains(String.format("%s earnings: ", shop.getName())));
+        assertEquals("TestShop expenses: 0.00\n", result);
+        verify(financeReportService).calculateMoney();
     }
 }
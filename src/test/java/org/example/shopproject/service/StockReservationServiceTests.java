@@ -0,0 +1,40 @@
+package org.example.shopproject.service;
+
+import org.example.shopproject.repository.ProductRepository;
+import org.example.shopproject.service.impl.StockReservationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class StockReservationServiceTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private StockReservationServiceImpl stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testReserveCountsSuccessAndContention() {
+        when(productRepository.reserveStock(1L, 5)).thenReturn(1);
+        when(productRepository.reserveStock(2L, 5)).thenReturn(0);
+
+        assertTrue(stockReservationService.reserve(1L, 5));
+        assertFalse(stockReservationService.reserve(2L, 5));
+        assertTrue(stockReservationService.reserve(1L, 5));
+
+        assertEquals(2, stockReservationService.getReservedCount());
+        assertEquals(1, stockReservationService.getContendedCount());
+        assertEquals("Stock reservations succeeded: 2\nStock reservations contended: 1\n", stockReservationService.report());
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.shopproject.simulation;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Shape of a simulated store day. Every value can be overridden with a {@code simulation.*} property,
+ * e.g. {@code --simulation.shops=10}.
+ *
+ * @param seed                   seed of both the simulation and the application's {@code Random}
+ * @param shops                  number of shops
+ * @param productsPerShop        catalog size of every shop
+ * @param cashiersPerShop        staffed checkouts per shop
+ * @param rounds                 length of the day in rounds
+ * @param clientsPerRound        mean of the Poisson-distributed client arrivals per round, across all shops
+ * @param roundsBetweenCheckouts how often the queues are formed and served
+ * @param maxCartSize            the most products a client tries to put in the cart
+ */
+public record SimulationConfig(long seed, int shops, int productsPerShop, int cashiersPerShop, int rounds,
+                               double clientsPerRound, int roundsBetweenCheckouts, int maxCartSize) {
+
+    public static SimulationConfig fromEnvironment(Environment environment) {
+        return new SimulationConfig(
+                environment.getProperty("simulation.seed", Long.class, 42L),
+                environment.getProperty("simulation.shops", Integer.class, 3),
+                environment.getProperty("simulation.products-per-shop", Integer.class, 500),
+                environment.getProperty("simulation.cashiers-per-shop", Integer.class, 3),
+                environment.getProperty("simulation.rounds", Integer.class, 48),
+                environment.getProperty("simulation.clients-per-round", Double.class, 6.0),
+                environment.getProperty("simulation.rounds-between-checkouts", Integer.class, 4),
+                environment.getProperty("simulation.max-cart-size", Integer.class, 5));
+    }
+}
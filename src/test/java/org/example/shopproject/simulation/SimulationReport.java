@@ -0,0 +1,49 @@
+package org.example.shopproject.simulation;
+
+import org.example.shopproject.core.LatencySamples;
+
+import java.util.Map;
+
+/**
+ * Outcome of one {@link StoreDaySimulation} run. {@link #moneyReport()} is the final CalculateMoney output, which is
+ * identical for runs with the same configuration.
+ */
+public record SimulationReport(SimulationConfig config, Map<String, StoreDaySimulation.Phase> phases,
+                               int productsInCarts, int receipts, String moneyReport) {
+
+    public long commands(String phase) {
+        return this.phases.get(phase).commands();
+    }
+
+    public long statements(String phase) {
+        return this.phases.get(phase).statements;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(
+                "Store-day simulation, seed %d: %d shops x %d products, %d cashiers per shop, %d rounds, " +
+                        "%.1f clients per round\n%d products went into carts, %d receipts issued\n\n",
+                this.config.seed(), this.config.shops(), this.config.productsPerShop(), this.config.cashiersPerShop(),
+                this.config.rounds(), this.config.clientsPerRound(), this.productsInCarts, this.receipts));
+        report.append(String.format("%-10s %10s %10s %12s %12s %10s\n",
+                "Phase", "Commands", "Seconds", "Commands/s", "Statements", "Stmt/cmd"));
+        for (Map.Entry<String, StoreDaySimulation.Phase> entry : this.phases.entrySet()) {
+            StoreDaySimulation.Phase phase = entry.getValue();
+            double seconds = phase.nanos() / 1e9;
+            long commands = phase.commands();
+            report.append(String.format("%-10s %10d %10.3f %12.0f %12d %10.1f\n", entry.getKey(), commands, seconds,
+                    seconds == 0 ? 0 : commands / seconds, phase.statements,
+                    commands == 0 ? 0 : (double) phase.statements / commands));
+        }
+        report.append(String.format("\n%-10s %-22s %10s %10s %10s\n", "Phase", "Command", "Count", "p50 ms", "p99 ms"));
+        for (Map.Entry<String, StoreDaySimulation.Phase> entry : this.phases.entrySet()) {
+            for (Map.Entry<String, LatencySamples> command : entry.getValue().latencies.entrySet()) {
+                LatencySamples samples = command.getValue();
+                report.append(String.format("%-10s %-22s %10d %10.3f %10.3f\n", entry.getKey(), command.getKey(),
+                        samples.size(), samples.percentile(0.50) / 1e6, samples.percentile(0.99) / 1e6));
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.shopproject.simulation;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.shopproject.ShopProjectApplication;
+import org.example.shopproject.core.Controller;
+import org.example.shopproject.core.LatencySamples;
+import org.example.shopproject.model.entity.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Drives a synthetic store day through the real {@link Controller} against an embedded H2 database:
+ * shops are opened and stocked, clients arrive in Poisson-distributed bursts and fill their carts, and every few
+ * rounds the queues are formed and served. The day ends with CalculateMoney. With the same {@link SimulationConfig}
+ * every run issues the same commands and ends with the same report, so runs can be compared.
+ * <p>
+ * Run {@link #main} (test classpath) to print throughput, latency percentiles and SQL statements per phase.
+ */
+public class StoreDaySimulation {
+    private static final String SETUP = "setup";
+    private static final String ARRIVALS = "arrivals";
+    private static final String CHECKOUT = "checkout";
+    private static final String REPORT = "report";
+
+    private final Controller controller;
+    private final Statistics statistics;
+    private final SimulationConfig config;
+    private final Random random;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private final List<Long> shopIds = new ArrayList<>();
+    private long nextClientNumber = 1;
+
+    public StoreDaySimulation(Controller controller, Statistics statistics, SimulationConfig config) {
+        this.controller = controller;
+        this.statistics = statistics;
+        this.config = config;
+        this.random = new Random(config.seed());
+        for (String phase : List.of(SETUP, ARRIVALS, CHECKOUT, REPORT)) {
+            this.phases.put(phase, new Phase());
+        }
+    }
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = start(args)) {
+            SimulationConfig config = SimulationConfig.fromEnvironment(context.getEnvironment());
+            System.out.println(simulate(context, config));
+        }
+    }
+
+    /**
+     * Runs the simulation in a fresh application context with its own in-memory database.
+     */
+    public static SimulationReport runEmbedded(SimulationConfig config) {
+        try (ConfigurableApplicationContext context = start("--simulation.seed=" + config.seed())) {
+            return simulate(context, config);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(ShopProjectApplication.class)
+                .profiles("h2")
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:simulation-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "shop.random.seed=${simulation.seed:42}")
+                .run(args);
+    }
+
+    private static SimulationReport simulate(ConfigurableApplicationContext context, SimulationConfig config) {
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        return new StoreDaySimulation(context.getBean(Controller.class), statistics, config).run();
+    }
+
+    public SimulationReport run() {
+        openShops();
+        int addedProducts = 0;
+        int receipts = 0;
+        for (int round = 1; round <= this.config.rounds(); round++) {
+            addedProducts += admitClients(poisson(this.config.clientsPerRound()));
+            if (round % this.config.roundsBetweenCheckouts() == 0 || round == this.config.rounds()) {
+                receipts += serveQueues();
+            }
+        }
+        String money = execute(REPORT, "CalculateMoney", this.controller::calculateMoney);
+        return new SimulationReport(this.config, this.phases, addedProducts, receipts, money);
+    }
+
+    /**
+     * Ids come from a pooled sequence, so every command after an add uses the id read back from the saved entity.
+     */
+    private void openShops() {
+        int staffNumber = 1;
+        for (int shopNumber = 1; shopNumber <= this.config.shops(); shopNumber++) {
+            String shopName = "Shop" + shopNumber;
+            Shop shop = new Shop(shopName);
+            execute(SETUP, "AddShop", () -> this.controller.addShop(shop));
+            this.shopIds.add(shop.getId());
+            for (int i = 0; i < this.config.cashiersPerShop(); i++, staffNumber++) {
+                Cashier cashier = new Cashier("Cashier" + staffNumber, "Sim", 1200 + this.random.nextInt(800),
+                        null, null);
+                Checkout checkout = new Checkout(0, null, null);
+                execute(SETUP, "AddCashier", () -> this.controller.addCashier(cashier));
+                execute(SETUP, "AddCheckout", () -> this.controller.addCheckout(checkout));
+                execute(SETUP, "AssignToShop",
+                        () -> this.controller.assignToShop("Cashier", cashier.getId(), shop.getId()));
+                execute(SETUP, "AssignToShop",
+                        () -> this.controller.assignToShop("Checkout", checkout.getId(), shop.getId()));
+                execute(SETUP, "AddCashierToCheckout",
+                        () -> this.controller.addCashierToCheckout(cashier.getId(), checkout.getId()));
+            }
+            for (int i = 0; i < this.config.productsPerShop(); i++) {
+                Product product = new Product(shopName + "Product" + i, 0.5 + this.random.nextInt(2000) / 100.0, 0,
+                        this.random.nextBoolean() ? "EDIBLE" : "NON_EDIBLE",
+                        LocalDate.now().plusDays(1 + this.random.nextInt(60)), 20 + this.random.nextInt(180),
+                        false, null);
+                execute(SETUP, "AddProduct", () -> this.controller.addProduct(product));
+                execute(SETUP, "AssignToShop",
+                        () -> this.controller.assignToShop("Product", product.getId(), shop.getId()));
+            }
+        }
+    }
+
+    /**
+     * Returns how many products ended up in carts.
+     */
+    private int admitClients(int arrivals) {
+        int added = 0;
+        for (int i = 0; i < arrivals; i++) {
+            long shopId = this.shopIds.get(this.random.nextInt(this.shopIds.size()));
+            double money = 500 + this.random.nextInt(4500);
+            Client client = new Client("Client" + this.nextClientNumber++, money, null, null);
+            execute(ARRIVALS, "AddClient", () -> this.controller.addClient(client));
+            long clientId = client.getId();
+            execute(ARRIVALS, "AssignToShop", () -> this.controller.assignToShop("Client", clientId, shopId));
+            int cartSize = 1 + this.random.nextInt(this.config.maxCartSize());
+            for (int j = 0; j < cartSize; j++) {
+                String result = execute(ARRIVALS, "AddProductToClient", () -> this.controller.addProductToClient(clientId));
+                if (result.startsWith("Successfully added product")) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Returns how many receipts were issued.
+     */
+    private int serveQueues() {
+        int receipts = 0;
+        for (long shop : this.shopIds) {
+            execute(CHECKOUT, "GoToQueue", () -> this.controller.goToQueue(shop));
+            String result = execute(CHECKOUT, "Buy", () -> this.controller.buy(shop));
+            receipts += countOccurrences(result, "Serial number - ");
+        }
+        return receipts;
+    }
+
+    private String execute(String phaseName, String command, Supplier<String> call) {
+        Phase phase = this.phases.get(phaseName);
+        long statementsBefore = this.statistics.getPrepareStatementCount();
+        long start = System.nanoTime();
+        String result = call.get();
+        long elapsed = System.nanoTime() - start;
+        phase.statements += this.statistics.getPrepareStatementCount() - statementsBefore;
+        phase.latencies.computeIfAbsent(command, key -> new LatencySamples()).add(elapsed);
+        return result;
+    }
+
+    /**
+     * Knuth's method; fine for the small means used per round.
+     */
+    private int poisson(double mean) {
+        double limit = Math.exp(-mean);
+        double product = this.random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= this.random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    private static int countOccurrences(String text, String part) {
+        int count = 0;
+        for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + part.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    static final class Phase {
+        final Map<String, LatencySamples> latencies = new TreeMap<>();
+        long statements;
+
+        long commands() {
+            long commands = 0;
+            for (LatencySamples samples : this.latencies.values()) {
+                commands += samples.size();
+            }
+            return commands;
+        }
+
+        long nanos() {
+            long nanos = 0;
+            for (LatencySamples samples : this.latencies.values()) {
+                nanos += samples.total();
+            }
+            return nanos;
+        }
+    }
+}
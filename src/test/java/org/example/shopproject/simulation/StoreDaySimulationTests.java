@@ -0,0 +1,34 @@
+package org.example.shopproject.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoreDaySimulationTests {
+    private static final SimulationConfig SMALL_DAY = new SimulationConfig(7, 2, 40, 2, 12, 3.0, 3, 4);
+
+    @Test
+    void testSameSeedGivesSameDay() {
+        SimulationReport first = StoreDaySimulation.runEmbedded(SMALL_DAY);
+        SimulationReport second = StoreDaySimulation.runEmbedded(SMALL_DAY);
+
+        assertEquals(first.moneyReport(), second.moneyReport());
+        assertEquals(first.productsInCarts(), second.productsInCarts());
+        assertEquals(first.receipts(), second.receipts());
+        assertEquals(first.commands("arrivals"), second.commands("arrivals"));
+    }
+
+    @Test
+    void testEveryPhaseIsMeasured() {
+        SimulationReport report = StoreDaySimulation.runEmbedded(SMALL_DAY);
+
+        // Per shop: AddShop, five commands per cashier, two per product
+        assertEquals(2 * (1 + 2 * 5 + 40 * 2), report.commands("setup"));
+        assertEquals(2L * 2 * 4, report.commands("checkout"));
+        assertEquals(1, report.commands("report"));
+        assertTrue(report.productsInCarts() > 0);
+        assertTrue(report.receipts() > 0);
+        assertTrue(report.statements("setup") > report.commands("setup"));
+        assertTrue(report.moneyReport().startsWith("Shop1 expenses: "), report.moneyReport());
+    }
+}
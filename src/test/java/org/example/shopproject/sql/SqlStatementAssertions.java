@@ -0,0 +1,34 @@
+package org.example.shopproject.sql;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets for integration tests, e.g. {@code assertStatementsAtMost(counter, 20, () -> controller.buy(id))}.
+ * The failure message lists every statement the operation prepared, so the query that crept in is visible right away.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static StatementTally assertStatementsAtMost(SqlStatementCounter counter, int maxStatements, Runnable operation) {
+        StatementTally tally = counter.measure(operation);
+        assertTrue(tally.count() <= maxStatements, () -> String.format(
+                "Expected at most %d statements but %d were issued:%n%s", maxStatements, tally.count(), tally.describe()));
+        return tally;
+    }
+
+    /**
+     * Fails when one statement was prepared more than {@code maxRepeats} times, which is how an N+1 shows up.
+     */
+    public static StatementTally assertNoRepeatedStatements(SqlStatementCounter counter, int maxRepeats,
+                                                            Runnable operation) {
+        StatementTally tally = counter.measure(operation);
+        Map<String, Integer> repeated = tally.repeated(maxRepeats);
+        assertTrue(repeated.isEmpty(), () -> String.format(
+                "Expected no statement more than %d times but got:%n%s", maxRepeats, tally.describe()));
+        return tally;
+    }
+}